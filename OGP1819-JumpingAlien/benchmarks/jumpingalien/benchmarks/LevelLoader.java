@@ -0,0 +1,138 @@
+package jumpingalien.benchmarks;
+
+import java.util.HashMap;
+
+import jumpingalien.facade.Facade;
+import jumpingalien.facade.IFacade;
+import jumpingalien.internal.gui.sprites.JumpingAlienSprites;
+import jumpingalien.internal.tmxfile.TMXFileReader;
+import jumpingalien.internal.tmxfile.data.ImageTile;
+import jumpingalien.internal.tmxfile.data.ImageTile.TileType;
+import jumpingalien.internal.tmxfile.data.Layer;
+import jumpingalien.internal.tmxfile.data.Map;
+import jumpingalien.internal.tmxfile.data.MapObject;
+import jumpingalien.model.Mazub;
+import jumpingalien.model.School;
+import jumpingalien.model.World;
+import jumpingalien.util.Sprite;
+
+/**
+ * A class that builds a world with all its game objects from a level file, 
+ * the same way the game does, but without opening a window.
+ * 
+ * Levels are read from the levels folder of the current working directory.
+ * 
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+class LevelLoader {
+	
+	private static final int VISIBLE_WIDTH = 1024;
+	private static final int VISIBLE_HEIGHT = 768;
+
+	private final IFacade facade = new Facade();
+	private final Map map;
+	private World world;
+	private Mazub alien;
+	private final java.util.Map<Integer, School> schools = new HashMap<Integer, School>();
+	
+	LevelLoader(String level) throws Exception {
+		this.map = new TMXFileReader("levels/").read(level);
+	}
+	
+	Map getMap() {
+		return map;
+	}
+	
+	World getWorld() {
+		return world;
+	}
+	
+	Mazub getAlien() {
+		return alien;
+	}
+	
+	IFacade getFacade() {
+		return facade;
+	}
+	
+	/**
+	 * Create the world of the level with only its terrain.
+	 */
+	World createTerrain() throws Exception {
+		world = facade.createWorld(map.getTileSizeX(), map.getNbTilesX(), map.getNbTilesY(),
+				new int[] { map.getTargetTileX(), map.getTargetTileY() },
+				Math.min(VISIBLE_WIDTH, map.getPixelWidth()), Math.min(VISIBLE_HEIGHT, map.getPixelHeight()), 
+				getTileTypes(map));
+		return world;
+	}
+	
+	/**
+	 * Create the world of the level with its terrain, Mazub and all other game objects, and start the game.
+	 */
+	World createStartedWorld() throws Exception {
+		createTerrain();
+		alien = facade.createMazub(map.getInitialPositionX(), map.getInitialPositionY(), JumpingAlienSprites.ALIEN_SPRITESET);
+		facade.addGameObject(alien, world);
+		for (MapObject obj : map.getObjects()) 
+			addObject(obj);
+		facade.startGame(world);
+		return world;
+	}
+	
+	private void addObject(MapObject obj) throws Exception {
+		Object gameObject = null;
+		switch (obj.getTile().getOSIndependentFilename()) {
+		case JumpingAlienSprites.PLANT_LEFT_FILENAME:
+			if (obj.getBooleanAttribute("skullcab").orElse(false)) 
+				gameObject = facade.createSkullcab(obj.getX(), obj.getY(), 
+						new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_UP, JumpingAlienSprites.PLANT_SPRITE_DOWN });
+			else 
+				gameObject = facade.createSneezewort(obj.getX(), obj.getY(), 
+						new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_LEFT, JumpingAlienSprites.PLANT_SPRITE_RIGHT });
+			break;
+		case JumpingAlienSprites.SHARK_LEFT_FILENAME:
+		case JumpingAlienSprites.SHARK_LEFT2_FILENAME:
+		case JumpingAlienSprites.SHARK_DEAD_FILENAME:
+			gameObject = facade.createShark(obj.getX(), obj.getY(), 
+					new Sprite[] { JumpingAlienSprites.SHARK_SPRITE_REST, JumpingAlienSprites.SHARK_SPRITE_LEFT,
+							JumpingAlienSprites.SHARK_SPRITE_RIGHT });
+			break;
+		case JumpingAlienSprites.SLIME_LEFT_FILENAME:
+		case JumpingAlienSprites.SLIME_LEFT2_FILENAME:
+		case JumpingAlienSprites.SLIME_DEAD_FILENAME:
+			int schoolNb = obj.getIntAttribute("school").orElse(0);
+			School school = schools.get(schoolNb);
+			if (school == null) {
+				school = facade.createSchool(world);
+				schools.put(schoolNb, school); }
+			gameObject = facade.createSlime(world.getSlimeIdRegistry().nextFreeId(), obj.getX(), obj.getY(), school, 
+					new Sprite[] { JumpingAlienSprites.SLIME_SPRITE_RIGHT, JumpingAlienSprites.SLIME_SPRITE_LEFT });
+			break;
+		default:
+			break;
+		}
+		if (gameObject != null)
+			facade.addGameObject(gameObject, world);
+	}
+	
+	/**
+	 * Return the geological features of the terrain layer of the given map, row by row.
+	 */
+	static int[] getTileTypes(Map map) {
+		Layer terrainLayer = map.getLayer("Terrain");
+		int[] types = new int[map.getNbTilesX() * map.getNbTilesY()];
+		int index = 0;
+		for (int tileY = 0; tileY < map.getNbTilesY(); tileY++) {
+			for (int tileX = 0; tileX < map.getNbTilesX(); tileX++) {
+				ImageTile tile = terrainLayer.getTile(tileX, tileY);
+				if (tile != null) 
+					types[index++] = tile.getType().getValue();
+				else 
+					types[index++] = TileType.AIR.getValue();
+			}
+		}
+		return types;
+	}
+}
@@ -0,0 +1,57 @@
+package jumpingalien.benchmarks;
+
+import jumpingalien.facade.Facade;
+import jumpingalien.model.Mazub;
+import jumpingalien.model.World;
+import jumpingalien.util.Sprite;
+
+/**
+ * A benchmark measuring how long it takes to advance a Mazub running and jumping over a long,
+ * flat and empty world, together with the position it ends up in, so that runs with a different
+ * way of stepping through time can be compared.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class MazubMovementBenchmark {
+
+	private static final double DT = 1.0/60;
+	private static final int TICKS = 1200;
+	private static final int TILE_LENGTH = 10;
+	private static final int NB_TILES_X = 1000;
+	private static final int NB_TILES_Y = 50;
+
+	public static void main(String[] args) throws Exception {
+		for (int round = 0; round < 5; round++) {
+			Facade facade = new Facade();
+			World world = facade.createWorld(TILE_LENGTH, NB_TILES_X, NB_TILES_Y,
+					new int[] { NB_TILES_X - 1, 1 }, 500, 300);
+			for (int x = 0; x < NB_TILES_X; x++)
+				facade.setGeologicalFeature(world, x*TILE_LENGTH, 0, 1);
+			Mazub mazub = facade.createMazub(0, TILE_LENGTH - 1, createSprites());
+			facade.addGameObject(mazub, world);
+			facade.startMoveRight(mazub);
+
+			long start = System.nanoTime();
+			for (int tick = 0; tick < TICKS; tick++) {
+				if (tick % 120 == 0)
+					facade.startJump(mazub);
+				else if (tick % 120 == 60)
+					facade.endJump(mazub);
+				facade.advanceTime(mazub, DT); }
+			long time = System.nanoTime() - start;
+
+			double[] position = facade.getActualPosition(mazub);
+			System.out.printf("round %d: %.1f us/tick, ends at (%.6f, %.6f)%n",
+					round, time / 1e3 / TICKS, position[0], position[1]);
+		}
+	}
+
+	private static Sprite[] createSprites() {
+		Sprite[] sprites = new Sprite[10];
+		for (int i = 0; i < sprites.length; i++)
+			sprites[i] = new Sprite("Mazub " + i, 90, 45);
+		return sprites;
+	}
+}
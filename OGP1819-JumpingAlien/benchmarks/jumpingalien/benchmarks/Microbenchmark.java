@@ -0,0 +1,130 @@
+package jumpingalien.benchmarks;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+/**
+ * A small harness for microbenchmarks in the style of JMH, measuring the throughput of an
+ * operation together with the bytes it allocates, like JMH does with its GC profiler.
+ *
+ * Each benchmark runs a number of warm-up iterations followed by a number of measured iterations
+ * of a fixed length. Before each iteration, the state of the benchmark is set up again, so that
+ * operations changing that state (like advancing the time of a world) measure the same thing
+ * in every iteration. Results of operations are consumed, so that they cannot be optimized away.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+class Microbenchmark {
+
+	/**
+	 * An operation to be measured.
+	 */
+	interface Operation {
+		Object invoke() throws Exception;
+	}
+
+	private static final int WARMUP_ITERATIONS = 3;
+	private static final int ITERATIONS = 5;
+	private static final long ITERATION_NANOS = 1_000_000_000L;
+	private static final long BATCH_NANOS = 1_000_000L;
+
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Variable consuming the results of all measured operations.
+	 */
+	private static volatile int sink;
+
+	/**
+	 * Measure the operations returned by the given setup and print the results on one line:
+	 * the mean throughput with its spread over the measured iterations, the allocation rate,
+	 * the bytes allocated per operation, and the number of garbage collections and the time
+	 * spent in them while measuring.
+	 */
+	static void run(String name, Callable<Operation> setup) throws Exception {
+		int batch = 1;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+			batch = calibrate(setup.call(), batch);
+
+		long thread = Thread.currentThread().getId();
+		double[] throughputs = new double[ITERATIONS];
+		long totalOperations = 0;
+		long totalNanos = 0;
+		long totalAllocated = 0;
+		long gcCount = -gcCount();
+		long gcTime = -gcTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			Operation operation = setup.call();
+			long allocated = -threads.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			long operations = 0;
+			long elapsed;
+			do {
+				consume(operation, batch);
+				operations += batch;
+				elapsed = System.nanoTime() - start;
+			} while (elapsed < ITERATION_NANOS);
+			allocated += threads.getThreadAllocatedBytes(thread);
+			throughputs[i] = operations / (elapsed / 1e9);
+			totalOperations += operations;
+			totalNanos += elapsed;
+			totalAllocated += allocated;
+		}
+		gcCount += gcCount();
+		gcTime += gcTime();
+
+		double mean = 0;
+		for (double throughput : throughputs)
+			mean += throughput / ITERATIONS;
+		double variance = 0;
+		for (double throughput : throughputs)
+			variance += (throughput - mean) * (throughput - mean) / (ITERATIONS - 1);
+		System.out.printf("%-40s %14.1f +- %10.1f ops/s %10.1f MB/s %12.1f B/op %5d GCs %6d ms%n",
+				name, mean, Math.sqrt(variance), totalAllocated / (totalNanos / 1e9) / (1 << 20),
+				(double) totalAllocated / totalOperations, gcCount, gcTime);
+	}
+
+	/**
+	 * Run the given operation for one iteration, and return the number of operations
+	 * that fit in a batch of about BATCH_NANOS, or the given batch size if that is larger.
+	 */
+	private static int calibrate(Operation operation, int batch) throws Exception {
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			long batchStart = System.nanoTime();
+			consume(operation, batch);
+			if (System.nanoTime() - batchStart < BATCH_NANOS && batch < (1 << 20))
+				batch *= 2;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < ITERATION_NANOS);
+		return batch;
+	}
+
+	private static void consume(Operation operation, int times) throws Exception {
+		int hash = 0;
+		for (int i = 0; i < times; i++) {
+			Object result = operation.invoke();
+			if (result != null)
+				hash += System.identityHashCode(result); }
+		sink += hash;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			count += Math.max(0, gc.getCollectionCount());
+		return count;
+	}
+
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			time += Math.max(0, gc.getCollectionTime());
+		return time;
+	}
+}
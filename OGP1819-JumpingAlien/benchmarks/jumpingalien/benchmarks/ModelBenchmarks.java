@@ -0,0 +1,356 @@
+package jumpingalien.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import jumpingalien.facade.Facade;
+import jumpingalien.facade.IFacade;
+import jumpingalien.internal.gui.sprites.SizeOnlySprites;
+import jumpingalien.internal.tmxfile.TMXFileReader;
+import jumpingalien.internal.tmxfile.data.Map;
+import jumpingalien.model.GameObject;
+import jumpingalien.model.MappedTerrain;
+import jumpingalien.model.Mazub;
+import jumpingalien.model.School;
+import jumpingalien.model.Shark;
+import jumpingalien.model.Slime;
+import jumpingalien.model.World;
+
+/**
+ * The baseline benchmarks of the hot paths of the model, each reporting its throughput and the bytes
+ * it allocates (see Microbenchmark). Changes to the engine are judged by comparing their results
+ * with those of the previous version on the same machine.
+ *
+ * Run from the project folder with -Djava.awt.headless=true, so that the levels folder can be found.
+ * If arguments are given, only the benchmarks whose name contains one of them are run.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class ModelBenchmarks {
+
+	private static final double DT = 1.0/60;
+
+	private static String[] filters;
+
+	public static void main(String[] args) throws Exception {
+		filters = args;
+
+		run("advanceWorldTime level0", () -> advanceWorldTime(startedLevel("level0.tmx")));
+		run("advanceWorldTime level1", () -> advanceWorldTime(startedLevel("level1.tmx")));
+		run("advanceWorldTime dense", () -> advanceWorldTime(createDenseWorld(new Facade())));
+		run("advanceWorldTime dense dormant", () -> advanceWorldTime(createDormantDenseWorld()));
+
+		run("createHugeWorld", () -> () -> createHugeWorld(new Facade()));
+		run("advanceWorldTime huge", () -> advanceWorldTime(createHugeWorld(new Facade())));
+		run("advanceWorldTime huge dormant", () -> advanceWorldTime(createDormantHugeWorld()));
+
+		run("createMegaWorld", () -> () -> createMegaWorld(new Facade()));
+		run("createMappedMegaWorld", () -> () -> createMappedMegaWorld(new Facade()));
+
+		run("isInWater level1", () -> forEachGameObject(startedLevel("level1.tmx"), GameObject::isInWater));
+		run("isInMagma level1", () -> forEachGameObject(startedLevel("level1.tmx"), GameObject::isInMagma));
+		run("isInGas level1", () -> forEachGameObject(startedLevel("level1.tmx"), GameObject::isInGas));
+		run("isInWater dense", () -> forEachGameObject(createDenseWorld(new Facade()), GameObject::isInWater));
+
+		run("validTiles level1", () -> validTiles("level1.tmx"));
+		run("Mazub.isAccessiblePosition level1", () -> isAccessiblePosition(startedLevel("level1.tmx")));
+		run("Mazub.isAccessiblePosition dense", () -> isAccessiblePosition(createDenseWorld(new Facade())));
+		run("Mazub.isAccessiblePosition mega", () -> isAccessiblePosition(createMegaWorld(new Facade())));
+		run("Mazub.isAccessiblePosition mapped mega", () -> isAccessiblePosition(createMappedMegaWorld(new Facade())));
+
+		run("Shark.placeOnTopOfGround", () -> placeOnTopOfGround(false));
+		run("Shark.placeOnTopOfGround edited", () -> placeOnTopOfGround(true));
+
+		run("Slime.reduceHitPointsSchool large school", () -> reduceHitPointsSchool(10000));
+
+		run("World.writeSnapshot level1", () -> writeSnapshot(startedLevel("level1.tmx")));
+		run("World.restoreSnapshot level1", () -> restoreSnapshot(startedLevel("level1.tmx")));
+		run("World.writeSnapshot dense", () -> writeSnapshot(createDenseWorld(new Facade())));
+		run("World.restoreSnapshot dense", () -> restoreSnapshot(createDenseWorld(new Facade())));
+
+		run("getAllGameObjects level1", () -> startedLevel("level1.tmx")::getAllGameObjects);
+		run("getAllGameObjects dense", () -> createDenseWorld(new Facade())::getAllGameObjects);
+
+		run("TMXFileReader.read level1", () -> () -> new TMXFileReader("levels/").read("level1.tmx"));
+	}
+
+	private static void run(String name, java.util.concurrent.Callable<Microbenchmark.Operation> setup)
+			throws Exception {
+		boolean selected = filters.length == 0;
+		for (String filter : filters)
+			selected |= name.contains(filter);
+		if (selected)
+			Microbenchmark.run(name, setup);
+	}
+
+	private static World startedLevel(String level) throws Exception {
+		LevelLoader loader = new LevelLoader(level);
+		World world = loader.createStartedWorld();
+		loader.getFacade().startMoveRight(loader.getAlien());
+		return world;
+	}
+
+	/**
+	 * Advance the given world by one tick per operation, with Mazub running to the right.
+	 */
+	private static Microbenchmark.Operation advanceWorldTime(World world) {
+		return () -> {
+			world.advanceWorldTime(DT);
+			return null;
+		};
+	}
+
+	/**
+	 * Write a snapshot of the given world, advanced for a second, to a reused buffer per operation.
+	 */
+	private static Microbenchmark.Operation writeSnapshot(World world) {
+		for (int i = 0; i < 60; i++)
+			world.advanceWorldTime(DT);
+		ByteBuffer buffer = ByteBuffer.allocate(world.createSnapshot().remaining());
+		return () -> {
+			buffer.clear();
+			world.writeSnapshot(buffer);
+			return buffer.position();
+		};
+	}
+
+	/**
+	 * Restore the given world to a snapshot taken after a second per operation, after advancing it 
+	 * for another tick first so that there is something to restore.
+	 */
+	private static Microbenchmark.Operation restoreSnapshot(World world) {
+		for (int i = 0; i < 60; i++)
+			world.advanceWorldTime(DT);
+		ByteBuffer snapshot = world.createSnapshot();
+		return () -> {
+			world.advanceWorldTime(DT);
+			world.restoreSnapshot(snapshot.duplicate());
+			return null;
+		};
+	}
+
+	/**
+	 * Ask the given question to every game object of the given world per operation.
+	 */
+	private static Microbenchmark.Operation forEachGameObject(World world,
+			java.util.function.Predicate<GameObject> question) {
+		GameObject[] gameObjects = world.getAllGameObjects().toArray(new GameObject[0]);
+		return () -> {
+			int count = 0;
+			for (GameObject gameObject : gameObjects)
+				if (question.test(gameObject))
+					count++;
+			return count;
+		};
+	}
+
+	/**
+	 * Check one hitbox the size of Mazub per operation, sweeping over the whole terrain of the given level.
+	 */
+	private static Microbenchmark.Operation validTiles(String level) throws Exception {
+		LevelLoader loader = new LevelLoader(level);
+		Map map = loader.getMap();
+		World world = loader.createTerrain();
+		int[] position = { -70, -97 };
+		return () -> {
+			position[0] += 7;
+			if (position[0] >= map.getPixelWidth()) {
+				position[0] = -70;
+				position[1] += 5;
+				if (position[1] >= map.getPixelHeight())
+					position[1] = -97; }
+			return world.validTiles(position[0], position[1], 70, 97);
+		};
+	}
+
+	/**
+	 * Place a shark buried 3 meters deep in solid ground on top of that ground per operation,
+	 * after digging out or filling up a tile beneath it if asked.
+	 */
+	private static Microbenchmark.Operation placeOnTopOfGround(boolean edited) {
+		IFacade facade = new Facade();
+		World world = facade.createWorld(10, 120, 1000, new int[] { 119, 999 }, 1024, 600);
+		for (int x = 0; x < 100; x++) 
+			for (int y = 0; y < 35; y++) 
+				facade.setGeologicalFeature(world, x * 10, y * 10, 1);
+		Shark shark = facade.createShark(500, 349, SizeOnlySprites.createSharkSprites());
+		facade.addGameObject(shark, world);
+		int[] feature = { 1 };
+		return () -> {
+			if (edited) {
+				feature[0] = 1 - feature[0];
+				facade.setGeologicalFeature(world, 520, 20, feature[0]); }
+			shark.setPosition(5.0, 0.5);
+			shark.placeOnTopOfGround();
+			return shark.getPixelY();
+		};
+	}
+
+	/**
+	 * Let one slime of a school of the given number of slimes hurt the other slimes of its school per operation,
+	 * and look at the hit points of another slime of that school.
+	 */
+	private static Microbenchmark.Operation reduceHitPointsSchool(int nbSlimes) {
+		IFacade facade = new Facade();
+		School school = facade.createSchool(null);
+		List<Slime> slimes = new ArrayList<Slime>();
+		for (int i = 0; i < nbSlimes; i++)
+			slimes.add(facade.createSlime(i + 1, i * 10, 0, school, SizeOnlySprites.createSlimeSprites()));
+		int[] hitter = { 0 };
+		return () -> {
+			hitter[0] = (hitter[0] + 1) % nbSlimes;
+			slimes.get(hitter[0]).reduceHitPointsSchool();
+			return slimes.get((hitter[0] + 1) % nbSlimes).getHitPoints();
+		};
+	}
+
+	/**
+	 * Check one position of Mazub per operation, sweeping over the whole given world.
+	 */
+	private static Microbenchmark.Operation isAccessiblePosition(World world) {
+		Mazub mazub = world.getMazub();
+		double width = world.getSizeInPixels()[0] / 100.0;
+		double height = world.getSizeInPixels()[1] / 100.0;
+		double[] position = { 0, 0 };
+		return () -> {
+			position[0] += 0.07;
+			if (position[0] >= width) {
+				position[0] = 0;
+				position[1] += 0.05;
+				if (position[1] >= height)
+					position[1] = 0; }
+			return mazub.isAccessiblePosition(position[0], position[1]);
+		};
+	}
+
+	/**
+	 * Create and start a world of 30000 by 300 tiles of 10 pixels with Mazub running to the right and 
+	 * 100000 other game objects, as many as allowed:
+	 * 50000 slimes in 1000 schools and 25000 sneezeworts on the lower ten of twenty floors, 
+	 * and 25000 sharks in the water filling the upper ten floors.
+	 */
+	static World createHugeWorld(IFacade facade) {
+		World world = facade.createWorld(10, 30000, 300, new int[] { 29999, 1 }, 1024, 600);
+		world.setMaxNbGameObjects(100000);
+		world.setMaxNbSchools(1000);
+		for (int floor = 0; floor < 20; floor++)
+			for (int x = 0; x < 30000; x++)
+				facade.setGeologicalFeature(world, x * 10, floor * 150, 1);
+		for (int y = 150; y < 3000; y += 10)
+			if (y % 150 != 0)
+				for (int x = 0; x < 30000; x++)
+					facade.setGeologicalFeature(world, x * 10, y, 2);
+		List<School> schools = new ArrayList<School>();
+		for (int i = 0; i < 1000; i++)
+			schools.add(facade.createSchool(world));
+		for (int i = 0; i < 50000; i++)
+			facade.addGameObject(facade.createSlime(i + 1, 150 + (i / 10) * 59, (i % 10) * 150 + 9, 
+					schools.get(i % 1000), SizeOnlySprites.createSlimeSprites()), world);
+		for (int i = 0; i < 25000; i++)
+			facade.addGameObject(facade.createSneezewort(150 + (i / 10) * 118, (i % 10) * 150 + 80,
+					SizeOnlySprites.createSneezewortSprites()), world);
+		for (int i = 0; i < 25000; i++)
+			facade.addGameObject(facade.createShark(150 + (i / 10) * 110, (i % 10 + 10) * 150 + 50,
+					SizeOnlySprites.createSharkSprites()), world);
+		Mazub mazub = facade.createMazub(20, 9, SizeOnlySprites.createAlienSprites());
+		facade.addGameObject(mazub, world);
+		facade.startMoveRight(mazub);
+		facade.startGame(world);
+		return world;
+	}
+
+	/**
+	 * Create and start a world of 100000 by 1000 tiles of 10 pixels, mostly air, 
+	 * with a floor of solid ground, a pool of water every 500 tiles and Mazub running to the right.
+	 */
+	static World createMegaWorld(IFacade facade) {
+		return startMegaWorld(facade, facade.createWorld(10, 100000, 1000, new int[] { 99999, 1 }, 1024, 600));
+	}
+
+	/**
+	 * Create and start the world of createMegaWorld, with its terrain in a memory-mapped file 
+	 * that is reused by every world created this way.
+	 */
+	static World createMappedMegaWorld(IFacade facade) throws IOException {
+		if (megaTerrainFile == null) {
+			megaTerrainFile = File.createTempFile("mega", ".terrain");
+			megaTerrainFile.deleteOnExit(); }
+		return startMegaWorld(facade, new World(10, new MappedTerrain(megaTerrainFile, 100000, 1000), 
+				new int[] { 99999, 1 }, 1024, 600));
+	}
+
+	private static File megaTerrainFile;
+
+	/**
+	 * Give the given world of 100000 by 1000 tiles the terrain and game objects of createMegaWorld and start it.
+	 */
+	private static World startMegaWorld(IFacade facade, World world) {
+		for (int x = 0; x < 100000; x++) 
+			facade.setGeologicalFeature(world, x * 10, 0, 1);
+		for (int x = 250; x < 100000; x += 500) 
+			for (int y = 1; y <= 5; y++) 
+				for (int i = 0; i < 20; i++) 
+					facade.setGeologicalFeature(world, (x + i) * 10, y * 10, 2);
+		Mazub mazub = facade.createMazub(20, 9, SizeOnlySprites.createAlienSprites());
+		facade.addGameObject(mazub, world);
+		facade.startMoveRight(mazub);
+		facade.startGame(world);
+		return world;
+	}
+
+	/**
+	 * Create the world of createHugeWorld, in which only the game objects within 200 pixels 
+	 * of the visible window are advanced.
+	 */
+	private static World createDormantHugeWorld() {
+		World world = createHugeWorld(new Facade());
+		world.setActivityMargin(200);
+		return world;
+	}
+
+	/**
+	 * Create the world of createDenseWorld, in which only the game objects within 200 pixels 
+	 * of the visible window are advanced.
+	 */
+	private static World createDormantDenseWorld() {
+		World world = createDenseWorld(new Facade());
+		world.setActivityMargin(200);
+		return world;
+	}
+
+	/**
+	 * Create and start a world of 600 by 60 tiles of 10 pixels, as full of game objects as allowed:
+	 * Mazub running to the right, 40 slimes in 10 schools on the ground, 30 sharks in a large pool
+	 * of water and 25 sneezeworts in the air.
+	 */
+	static World createDenseWorld(IFacade facade) {
+		World world = facade.createWorld(10, 600, 60, new int[] { 599, 1 }, 1024, 600);
+		for (int x = 0; x < 600; x++)
+			facade.setGeologicalFeature(world, x * 10, 0, 1);
+		for (int x = 300; x < 600; x++)
+			for (int y = 1; y < 30; y++)
+				facade.setGeologicalFeature(world, x * 10, y * 10, 2);
+		Mazub mazub = facade.createMazub(20, 9, SizeOnlySprites.createAlienSprites());
+		facade.addGameObject(mazub, world);
+		facade.startMoveRight(mazub);
+		List<School> schools = new ArrayList<School>();
+		for (int i = 0; i < 10; i++)
+			schools.add(facade.createSchool(world));
+		for (int i = 0; i < 40; i++)
+			facade.addGameObject(facade.createSlime(i + 1, 150 + i * 70, 9, schools.get(i % 10),
+					SizeOnlySprites.createSlimeSprites()), world);
+		for (int i = 0; i < 30; i++)
+			facade.addGameObject(facade.createShark(3050 + i * 90, 50 + (i % 3) * 60,
+					SizeOnlySprites.createSharkSprites()), world);
+		for (int i = 0; i < 25; i++)
+			facade.addGameObject(facade.createSneezewort(120 + i * 230, 400,
+					SizeOnlySprites.createSneezewortSprites()), world);
+		facade.startGame(world);
+		return world;
+	}
+}
@@ -0,0 +1,47 @@
+package jumpingalien.benchmarks;
+
+import java.lang.management.ManagementFactory;
+
+import jumpingalien.model.World;
+
+/**
+ * A benchmark measuring how many bytes are allocated per tick while the world of level1 
+ * advances with Mazub running to the right, after a warm-up.
+ * 
+ * Run from the project folder with -Djava.awt.headless=true, so that the levels folder can be found.
+ * 
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class TickAllocationBenchmark {
+	
+	private static final double DT = 1.0/60;
+	private static final int WARMUP_TICKS = 600;
+	private static final int TICKS = 600;
+	
+	public static void main(String[] args) throws Exception {
+		String level = args.length > 0 ? args[0] : "level1.tmx";
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		
+		for (int round = 0; round < 3; round++) {
+			LevelLoader loader = new LevelLoader(level);
+			World world = loader.createStartedWorld();
+			loader.getFacade().startMoveRight(loader.getAlien());
+			
+			for (int tick = 0; tick < WARMUP_TICKS; tick++) 
+				world.advanceWorldTime(DT);
+			
+			long before = threads.getThreadAllocatedBytes(thread);
+			long start = System.nanoTime();
+			for (int tick = 0; tick < TICKS; tick++) 
+				world.advanceWorldTime(DT);
+			long time = System.nanoTime() - start;
+			long allocated = threads.getThreadAllocatedBytes(thread) - before;
+			
+			System.out.printf("round %d: %d bytes/tick, %.1f us/tick, %d game objects%n", 
+					round, allocated / TICKS, time / 1e3 / TICKS, world.getAllGameObjects().size());
+		}
+	}
+}
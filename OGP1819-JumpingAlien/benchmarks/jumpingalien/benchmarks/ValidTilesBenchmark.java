@@ -0,0 +1,66 @@
+package jumpingalien.benchmarks;
+
+import jumpingalien.internal.tmxfile.data.Map;
+import jumpingalien.model.World;
+
+/**
+ * A microbenchmark comparing World.validTiles with the former pixel-by-pixel scan
+ * on the terrain of level1, for a hitbox the size of Mazub.
+ * 
+ * Run from the project folder, so that the levels folder can be found.
+ * 
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class ValidTilesBenchmark {
+
+	private static final int WIDTH = 70;
+	private static final int HEIGHT = 97;
+	private static final int ROUNDS = 5;
+	
+	public static void main(String[] args) throws Exception {
+		String level = args.length > 0 ? args[0] : "level1.tmx";
+		LevelLoader loader = new LevelLoader(level);
+		Map map = loader.getMap();
+		World world = loader.createTerrain();
+		
+		int stepX = 7;
+		int stepY = 5;
+		for (int x = -WIDTH; x < map.getPixelWidth(); x += stepX)
+			for (int y = -HEIGHT; y < map.getPixelHeight(); y += stepY)
+				if (world.validTiles(x, y, WIDTH, HEIGHT) != pixelScan(world, x, y, WIDTH, HEIGHT))
+					throw new AssertionError("Different result at (" + x + ", " + y + ")");
+		
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			int valid = 0;
+			for (int x = -WIDTH; x < map.getPixelWidth(); x += stepX)
+				for (int y = -HEIGHT; y < map.getPixelHeight(); y += stepY)
+					if (pixelScan(world, x, y, WIDTH, HEIGHT)) valid++;
+			long pixelTime = System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			int validTiles = 0;
+			for (int x = -WIDTH; x < map.getPixelWidth(); x += stepX)
+				for (int y = -HEIGHT; y < map.getPixelHeight(); y += stepY)
+					if (world.validTiles(x, y, WIDTH, HEIGHT)) validTiles++;
+			long tileTime = System.nanoTime() - start;
+			
+			System.out.printf("round %d: pixel scan %.2f ms, tile span %.2f ms (%d and %d valid hitboxes)%n", 
+					round, pixelTime / 1e6, tileTime / 1e6, valid, validTiles);
+		}
+	}
+	
+	/**
+	 * Return whether no pixel of the given hitbox lies on impassable terrain, 
+	 * by looking up the geological feature of each pixel, as validTiles used to.
+	 */
+	private static boolean pixelScan(World world, int x, int y, int width, int height) {
+		for (int i = 0; i < width; i++)
+			for (int j = 1; j < height; j++)
+				if (World.isImpassableTerrain(world.getGeologicalFeature(x + i, y + j)))
+					return false;
+		return true;
+	}
+}
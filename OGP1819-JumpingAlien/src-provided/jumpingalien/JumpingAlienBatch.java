@@ -0,0 +1,232 @@
+package jumpingalien;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import jumpingalien.facade.Facade;
+import jumpingalien.internal.JumpingAlienOptions;
+import jumpingalien.internal.game.HeadlessJumpingAlienGame;
+import jumpingalien.internal.game.InputReplay;
+import jumpingalien.internal.game.InputTrack;
+import jumpingalien.model.TickProfiler;
+
+/**
+ * Plays a level without a window, as fast as possible, with the player's
+ * actions taken from a scripted input track, and reports how each run ended.
+ *
+ * Usage: JumpingAlienBatch level.tmx [-script file] [-tickrate hz]
+ * [-duration seconds] [-runs n] [-profile] [-activitymargin pixels]
+ * [-record file]
+ * 
+ * or: JumpingAlienBatch -replay file [-runs n] [-profile]
+ *
+ * The level is read from the levels folder of the current working directory.
+ * The world is advanced with a fixed time step of 1/tickrate in-game seconds
+ * (default: 60 ticks per second) until the game is over or the given in-game
+ * duration (default: 600 seconds) has passed. With -profile, the time spent
+ * in each phase of a tick and the work done in it are printed as well.
+ * With -activitymargin, only the game objects within the given number of
+ * pixels around the visible window are advanced. With -record, a replay of
+ * the (last) run is written to the given file.
+ * 
+ * With -replay, the level, commands and ticks are taken from a replay
+ * recorded by the game or by this runner, and the final state of the world is
+ * compared with the recorded one: MATCH if they are identical, MISMATCH if
+ * they are not, or PLAYED if the recording was not finished.
+ */
+public class JumpingAlienBatch {
+
+	private static final int VISIBLE_WIDTH = 1024;
+	private static final int VISIBLE_HEIGHT = 768;
+
+	public static void main(String[] args) throws IOException {
+		String level = null;
+		String script = null;
+		String record = null;
+		String replayFile = null;
+		double tickRate = 60;
+		double duration = 600;
+		int runs = 1;
+		boolean profile = false;
+		int activityMargin = -1;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-script":
+				script = args[++i];
+				break;
+			case "-tickrate":
+				try {
+					tickRate = JumpingAlienOptions.parseTickRate(args[++i]);
+				} catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+					System.exit(2);
+				}
+				break;
+			case "-duration":
+				duration = Double.parseDouble(args[++i]);
+				break;
+			case "-runs":
+				runs = Integer.parseInt(args[++i]);
+				break;
+			case "-profile":
+				profile = true;
+				break;
+			case "-activitymargin":
+				activityMargin = Integer.parseInt(args[++i]);
+				break;
+			case "-record":
+				record = args[++i];
+				break;
+			case "-replay":
+				replayFile = args[++i];
+				break;
+			default:
+				if (level != null || args[i].startsWith("-")) {
+					System.out.println("Unknown option " + args[i]);
+					System.exit(2);
+				}
+				level = args[i];
+			}
+		}
+		if ((level == null) == (replayFile == null)) {
+			System.out.println("Usage: JumpingAlienBatch level.tmx [-script file] "
+					+ "[-tickrate hz] [-duration seconds] [-runs n] [-profile] "
+					+ "[-activitymargin pixels] [-record file]");
+			System.out.println("   or: JumpingAlienBatch -replay file [-runs n] "
+					+ "[-profile]");
+			System.exit(2);
+		}
+
+		if (replayFile != null) {
+			InputReplay replay = InputReplay.read(replayFile);
+			boolean allMatch = true;
+			for (int run = 1; run <= runs; run++) {
+				allMatch &= replay(replay, profile, run);
+			}
+			System.exit(allMatch ? 0 : 1);
+		}
+
+		InputTrack track = (script != null) ? InputTrack.read(script)
+				: InputTrack.parse(Collections.emptyList());
+
+		boolean allOk = true;
+		for (int run = 1; run <= runs; run++) {
+			track.rewind();
+			allOk &= play(level, track, 1.0 / tickRate, duration, profile,
+					activityMargin, record, run);
+		}
+		System.exit(allOk ? 0 : 1);
+	}
+
+	/**
+	 * Play the given level once and print the outcome. Returns false if the
+	 * level could not be played.
+	 */
+	private static boolean play(String level, InputTrack track, double step,
+			double duration, boolean profile, int activityMargin, String record,
+			int run) {
+		JumpingAlienOptions options = new JumpingAlienOptions();
+		options.setFixedTimeStep(step);
+		options.setMaxTicksPerUpdate(1);
+		options.setProfileTicks(profile);
+		options.setActivityMargin(activityMargin);
+		options.setRecordFile(record);
+		HeadlessJumpingAlienGame game = createGame(options, level,
+				VISIBLE_WIDTH, VISIBLE_HEIGHT);
+		if (game == null) {
+			return false;
+		}
+
+		long start = System.nanoTime();
+		game.start();
+		long ticks = 0;
+		String outcome = null;
+		while (outcome == null) {
+			if (!game.isRunning()) {
+				boolean won = game.getWorldInfoProvider().didPlayerWin()
+						.orElse(false);
+				outcome = won ? "WON" : "LOST";
+			} else if (game.getElapsedTime() >= duration) {
+				outcome = "TIMEOUT";
+			} else {
+				double before = game.getElapsedTime();
+				track.issueActionsUntil(before, game.getActionHandler());
+				game.update(step);
+				ticks++;
+				if (game.getElapsedTime() == before) {
+					outcome = "ERROR";
+				}
+			}
+		}
+		double wallTime = (System.nanoTime() - start) / 1e9;
+		game.finishRecording();
+
+		System.out.println(String.format(
+				"%s run %d: %s after %.3f s in-game, %d HP, %d ticks, "
+						+ "%.3f s wall time, %.1f simulated s per wall s",
+				level, run, outcome, game.getElapsedTime(),
+				game.getAlienInfoProvider().getAlienHealth().orElse(0), ticks,
+				wallTime, game.getElapsedTime() / wallTime));
+		if (profile) {
+			TickProfiler.Sample sample = game.getTickProfiler().takeSample();
+			System.out.println("  " + sample.phasesToString());
+			System.out.println("  " + sample.countsToString());
+		}
+		return !outcome.equals("ERROR");
+	}
+
+	/**
+	 * Play the given replay once, as fast as possible, and print whether the
+	 * world ended up in the recorded state. Returns false if it did not.
+	 */
+	private static boolean replay(InputReplay replay, boolean profile,
+			int run) {
+		JumpingAlienOptions options = new JumpingAlienOptions();
+		options.setProfileTicks(profile);
+		options.setActivityMargin(replay.getActivityMargin());
+		HeadlessJumpingAlienGame game = createGame(options, replay.getLevel(),
+				replay.getVisibleWidth(), replay.getVisibleHeight());
+		if (game == null) {
+			return false;
+		}
+
+		long start = System.nanoTime();
+		game.start();
+		long ticks = replay.play(game);
+		double wallTime = (System.nanoTime() - start) / 1e9;
+		String outcome = !replay.isFinished() ? "PLAYED"
+				: replay.matches(game) ? "MATCH" : "MISMATCH";
+
+		System.out.println(String.format(
+				"%s replay run %d: %s after %.3f s in-game, %d HP, %d of %d ticks, "
+						+ "%d commands, %.3f s wall time, %.1f simulated s per wall s",
+				replay.getLevel(), run, outcome, game.getElapsedTime(),
+				game.getAlienInfoProvider().getAlienHealth().orElse(0), ticks,
+				replay.getNbTicks(), replay.getNbCommands(), wallTime,
+				game.getElapsedTime() / wallTime));
+		if (profile) {
+			TickProfiler.Sample sample = game.getTickProfiler().takeSample();
+			System.out.println("  " + sample.phasesToString());
+			System.out.println("  " + sample.countsToString());
+		}
+		return !outcome.equals("MISMATCH");
+	}
+
+	/**
+	 * Create a headless game on the given level with the given options and
+	 * visible screen size, or print why that failed and return null.
+	 */
+	private static HeadlessJumpingAlienGame createGame(
+			JumpingAlienOptions options, String level, int visibleWidth,
+			int visibleHeight) {
+		HeadlessJumpingAlienGame game = new HeadlessJumpingAlienGame(options,
+				new Facade());
+		game.setVisibleScreenSize(visibleWidth, visibleHeight);
+		if (!game.setMapFile(level)) {
+			System.out.println(game.getCurrentMessage().map(m -> m.getMessage())
+					.orElse("Could not read " + level));
+			return null;
+		}
+		return game;
+	}
+}
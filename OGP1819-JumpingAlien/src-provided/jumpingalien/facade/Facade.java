@@ -1,6 +1,7 @@
 package jumpingalien.facade;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 
 import org.opentest4j.AssertionFailedError;
@@ -14,6 +15,7 @@ import jumpingalien.model.School;
 import jumpingalien.model.Shark;
 import jumpingalien.model.Skullcab;
 import jumpingalien.model.Slime;
+import jumpingalien.model.SlimeIdRegistry;
 import jumpingalien.model.Sneezewort;
 import jumpingalien.model.World;
 import jumpingalien.util.ModelException;
@@ -22,6 +24,11 @@ import jumpingalien.util.Sprite;
 
 public class Facade implements IFacade{
 
+	/**
+	 * The identifications of all the slimes created through this facade.
+	 */
+	private final SlimeIdRegistry slimeIds = new SlimeIdRegistry();
+
 	@Override
 	public boolean isTeamSolution() {
 		return true;
@@ -177,6 +184,7 @@ public class Facade implements IFacade{
 		try {
 		World world = new World(tileSize, nbTilesX, nbTilesY, targetTileCoordinate,
 				 visibleWindowWidth, visibleWindowHeight, geologicalFeatures);
+		world.setSlimeIdRegistry(slimeIds);
 		return world;}
 		catch(IllegalArgumentException e) {
 			throw new ModelException(e.getMessage());
@@ -329,7 +337,7 @@ public class Facade implements IFacade{
 
 	@Override
 	public boolean isDeadGameObject(Object gameObject) throws ModelException {
-		return ((GameObject) gameObject).isDead;
+		return ((GameObject) gameObject).isDead();
 	}
 
 	@Override
@@ -404,7 +412,8 @@ public class Facade implements IFacade{
 
 	@Override
 	public Set<? extends Object> getAllGameObjects(World world) throws ModelException {
-		return world.getAllGameObjects();	
+		// callers may change the set they get, so they get their own copy
+		return new HashSet<Object>(world.getAllGameObjects());	
 		}
 
 	
@@ -445,7 +454,7 @@ public class Facade implements IFacade{
 	public Slime createSlime(long id, int pixelLeftX, int pixelBottomY, School school, Sprite... sprites)
 			throws ModelException {
 		try { 
-			Slime slime = new Slime(id, pixelLeftX, pixelBottomY, school, sprites);
+			Slime slime = new Slime(id, pixelLeftX, pixelBottomY, school, slimeIds, sprites);
 			return slime;
 		} catch (IllegalArgumentException ex) {
 			 throw new ModelException(ex.getMessage());
@@ -458,7 +467,7 @@ public class Facade implements IFacade{
 
 	@Override
 	public void cleanAllSlimeIds() {
-		World.Instance.cleanAllSlimes();
+		slimeIds.clear();
 	}
 
 	@Override
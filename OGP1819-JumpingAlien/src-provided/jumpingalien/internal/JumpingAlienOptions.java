@@ -12,6 +12,36 @@ public class JumpingAlienOptions implements JumpingAlienGameOptions, JumpingAlie
 	 */
 	private double timeScale = 1.0;
 
+	/**
+	 * Length of a fixed simulation tick in seconds, or 0 to advance the world
+	 * once per frame with a variable time step (default: 0).
+	 */
+	private double fixedTimeStep = 0;
+
+	/**
+	 * Maximal number of fixed simulation ticks per frame (default: 8).
+	 */
+	private int maxTicksPerUpdate = 8;
+
+	/**
+	 * Measure the time spent in the phases of advancing the world, and show
+	 * it with the debug info (default: false).
+	 */
+	private boolean profileTicks = false;
+
+	/**
+	 * Number of pixels around the visible window within which game objects
+	 * are advanced, or a negative number to advance all game objects
+	 * (default: -1).
+	 */
+	private int activityMargin = -1;
+
+	/**
+	 * File to which a replay of each game is recorded, or null to not record
+	 * games (default: null).
+	 */
+	private String recordFile = null;
+
 	/**
 	 * Target framerate (default: 30 frames per second).
 	 */
@@ -92,6 +122,51 @@ public class JumpingAlienOptions implements JumpingAlienGameOptions, JumpingAlie
 		this.timeScale = timeScale;
 	}
 
+	@Override
+	public double getFixedTimeStep() {
+		return fixedTimeStep;
+	}
+
+	public void setFixedTimeStep(double fixedTimeStep) {
+		this.fixedTimeStep = fixedTimeStep;
+	}
+
+	@Override
+	public int getMaxTicksPerUpdate() {
+		return maxTicksPerUpdate;
+	}
+
+	public void setMaxTicksPerUpdate(int maxTicksPerUpdate) {
+		this.maxTicksPerUpdate = maxTicksPerUpdate;
+	}
+
+	@Override
+	public boolean getProfileTicks() {
+		return profileTicks;
+	}
+
+	public void setProfileTicks(boolean profileTicks) {
+		this.profileTicks = profileTicks;
+	}
+
+	@Override
+	public int getActivityMargin() {
+		return activityMargin;
+	}
+
+	public void setActivityMargin(int activityMargin) {
+		this.activityMargin = activityMargin;
+	}
+
+	@Override
+	public String getRecordFile() {
+		return recordFile;
+	}
+
+	public void setRecordFile(String recordFile) {
+		this.recordFile = recordFile;
+	}
+
 	@Override
 	public boolean getDebugShowInfo() {
 		return debugShowInfo;
@@ -195,6 +270,27 @@ public class JumpingAlienOptions implements JumpingAlienGameOptions, JumpingAlie
 		this.debugShowEntireWorld = debugShowEntireWorld;
 	}
 
+	/**
+	 * Lowest number of fixed simulation ticks per second that can be chosen,
+	 * since the world cannot be advanced by more than 0.2 seconds at once.
+	 */
+	public static final double MIN_TICK_RATE = 5;
+
+	/**
+	 * Parse a number of fixed simulation ticks per second.
+	 *
+	 * @throws IllegalArgumentException
+	 *             the value is not a finite number of at least MIN_TICK_RATE
+	 */
+	public static double parseTickRate(String value) {
+		double tickRate = Double.parseDouble(value);
+		if (!(tickRate >= MIN_TICK_RATE) || Double.isInfinite(tickRate)) {
+			throw new IllegalArgumentException("Tick rate must be at least "
+					+ MIN_TICK_RATE + " Hz: " + value);
+		}
+		return tickRate;
+	}
+
 	public static JumpingAlienOptions parse(String[] args) {
 		JumpingAlienOptions options = new JumpingAlienOptions();
 
@@ -207,6 +303,21 @@ public class JumpingAlienOptions implements JumpingAlienGameOptions, JumpingAlie
 			case "-timescale":
 				options.timeScale = Double.parseDouble(args[++i]);
 				break;
+			case "-tickrate":
+				options.fixedTimeStep = 1.0 / parseTickRate(args[++i]);
+				break;
+			case "-maxticks":
+				options.maxTicksPerUpdate = Integer.parseInt(args[++i]);
+				break;
+			case "-profileticks":
+				options.profileTicks = Boolean.parseBoolean(args[++i]);
+				break;
+			case "-activitymargin":
+				options.activityMargin = Integer.parseInt(args[++i]);
+				break;
+			case "-record":
+				options.recordFile = args[++i];
+				break;
 			case "-debuginfo":
 				options.debugShowInfo = Boolean.parseBoolean(args[++i]);
 				break;
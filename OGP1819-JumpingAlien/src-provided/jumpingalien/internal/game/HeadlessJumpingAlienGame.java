@@ -0,0 +1,53 @@
+package jumpingalien.internal.game;
+
+import jumpingalien.facade.IFacade;
+import jumpingalien.internal.gui.sprites.SizeOnlySprites;
+import jumpingalien.util.Sprite;
+
+/**
+ * A game that is never painted. The world is built from the level file in the
+ * same way as for {@link JumpingAlienGame}, but with sprites that only have a
+ * size, so that no images are loaded.
+ *
+ * Time only advances when {@link #update(double)} is called, which can be as
+ * often as the CPU allows.
+ */
+public class HeadlessJumpingAlienGame extends JumpingAlienGame {
+
+	public HeadlessJumpingAlienGame(JumpingAlienGameOptions options,
+			IFacade facade) {
+		super(options, facade);
+	}
+
+	@Override
+	public void start() {
+		super.start();
+		// the first update of a game is skipped (see doUpdate)
+		update(0);
+	}
+
+	@Override
+	protected Sprite[] getAlienSprites() {
+		return SizeOnlySprites.createAlienSprites();
+	}
+
+	@Override
+	protected Sprite[] getSkullcabSprites() {
+		return SizeOnlySprites.createSkullcabSprites();
+	}
+
+	@Override
+	protected Sprite[] getSneezewortSprites() {
+		return SizeOnlySprites.createSneezewortSprites();
+	}
+
+	@Override
+	protected Sprite[] getSharkSprites() {
+		return SizeOnlySprites.createSharkSprites();
+	}
+
+	@Override
+	protected Sprite[] getSlimeSprites() {
+		return SizeOnlySprites.createSlimeSprites();
+	}
+}
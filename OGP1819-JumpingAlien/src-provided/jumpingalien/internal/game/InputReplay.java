@@ -0,0 +1,254 @@
+package jumpingalien.internal.game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A replay of a game written by a {@link ReplayRecorder}: the level and screen
+ * settings it was played with, followed by the player's commands and the time
+ * steps of the ticks in between, in the order in which they happened.
+ *
+ * Playing a replay back in a game that is started on the same level with the
+ * same settings executes the same commands between the same ticks, so that
+ * the world ends up in exactly the same state. Nothing waits for real time,
+ * so a headless game plays a replay as fast as the CPU allows.
+ *
+ * The file starts with a header
+ *
+ * <pre>
+ * int    magic ("JARP")
+ * short  version
+ * UTF    level file name
+ * int    visible width, int visible height, int activity margin
+ * </pre>
+ *
+ * followed by records that each start with a byte:
+ *
+ * <pre>
+ * TICKS    int count, double time step
+ * COMMAND  byte index of the command in ACTIONS
+ * END      double elapsed in-game time, long checksum of the final world
+ * </pre>
+ *
+ * A replay whose recording was not finished, e.g. because its game crashed
+ * or its window was closed, has no END record and cannot be checked after
+ * playing it.
+ */
+public class InputReplay {
+
+	static final int MAGIC = 0x4A415250;
+
+	static final short VERSION = 1;
+
+	static final byte END = 0;
+
+	static final byte TICKS = 1;
+
+	static final byte COMMAND = 2;
+
+	/**
+	 * The commands that can be recorded, by their index in a replay.
+	 */
+	static final List<String> ACTIONS = Collections.unmodifiableList(Arrays
+			.asList("startJump", "endJump", "startMoveLeft", "startMoveRight",
+					"endMoveLeft", "endMoveRight", "startDuck", "endDuck"));
+
+	private String level;
+
+	private int visibleWidth;
+
+	private int visibleHeight;
+
+	private int activityMargin;
+
+	/**
+	 * The records of this replay, from the first record to the END record or
+	 * the end of the file.
+	 */
+	private ByteBuffer records;
+
+	private long nbTicks = 0;
+
+	private int nbCommands = 0;
+
+	private boolean finished = false;
+
+	private double elapsedTime;
+
+	private long checksum;
+
+	public static InputReplay read(String fileName) throws IOException {
+		return parse(ByteBuffer.wrap(Files.readAllBytes(Paths.get(fileName))));
+	}
+
+	/**
+	 * Read a replay from the given buffer, from its position to its limit.
+	 *
+	 * @throws IllegalArgumentException
+	 *             the buffer does not hold a replay of this version
+	 */
+	public static InputReplay parse(ByteBuffer buffer) {
+		try {
+			InputReplay replay = new InputReplay();
+			if (buffer.getInt() != MAGIC) {
+				throw new IllegalArgumentException("Not a replay");
+			}
+			short version = buffer.getShort();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported replay version "
+						+ version);
+			}
+			byte[] level = new byte[buffer.getShort() & 0xFFFF];
+			buffer.get(level);
+			// plain names only: the modified UTF-8 of DataOutput only differs
+			// from UTF-8 for characters that level file names do not use
+			replay.level = new String(level, StandardCharsets.UTF_8);
+			replay.visibleWidth = buffer.getInt();
+			replay.visibleHeight = buffer.getInt();
+			replay.activityMargin = buffer.getInt();
+			replay.records = buffer.slice();
+			replay.scan();
+			return replay;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Replay header is truncated");
+		}
+	}
+
+	/**
+	 * Count the ticks and commands of this replay and read its END record,
+	 * checking that all records are well-formed. A truncated last record, of
+	 * a replay that was being written when its game crashed, is dropped.
+	 */
+	private void scan() {
+		ByteBuffer buffer = records.duplicate();
+		int recordStart = 0;
+		while (buffer.hasRemaining() && !finished) {
+			recordStart = buffer.position();
+			try {
+				byte type = buffer.get();
+				switch (type) {
+				case TICKS:
+					int count = buffer.getInt();
+					buffer.getDouble();
+					if (count <= 0) {
+						throw new IllegalArgumentException("Bad tick count "
+								+ count + " at " + recordStart);
+					}
+					nbTicks += count;
+					break;
+				case COMMAND:
+					int action = buffer.get();
+					if (action < 0 || action >= ACTIONS.size()) {
+						throw new IllegalArgumentException("Unknown command "
+								+ action + " at " + recordStart);
+					}
+					nbCommands++;
+					break;
+				case END:
+					elapsedTime = buffer.getDouble();
+					checksum = buffer.getLong();
+					finished = true;
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown record " + type
+							+ " at " + recordStart);
+				}
+			} catch (BufferUnderflowException e) {
+				buffer.position(recordStart);
+				break;
+			}
+		}
+		records.limit(buffer.position());
+	}
+
+	/**
+	 * Execute the commands and ticks of this replay in the given game, which
+	 * must have been started on the level of this replay with the same
+	 * settings. Playing stops early if the game stops running.
+	 *
+	 * @return the number of ticks that were played
+	 */
+	public long play(JumpingAlienGame game) {
+		ByteBuffer buffer = records.duplicate();
+		long played = 0;
+		while (buffer.hasRemaining()) {
+			switch (buffer.get()) {
+			case TICKS:
+				int count = buffer.getInt();
+				double step = buffer.getDouble();
+				for (int i = 0; i < count; i++) {
+					if (!game.replayTick(step)) {
+						return played;
+					}
+					played++;
+				}
+				break;
+			case COMMAND:
+				game.replayCommand(ACTIONS.get(buffer.get()));
+				break;
+			case END:
+				return played;
+			}
+		}
+		return played;
+	}
+
+	/**
+	 * Whether the given game, after playing this replay, ended up in the same
+	 * state as the recorded game. Always false if the recording was not
+	 * finished.
+	 */
+	public boolean matches(JumpingAlienGame game) {
+		return finished
+				&& Double.doubleToRawLongBits(game.getElapsedTime()) == Double
+						.doubleToRawLongBits(elapsedTime)
+				&& game.getWorldChecksum() == checksum;
+	}
+
+	public String getLevel() {
+		return level;
+	}
+
+	public int getVisibleWidth() {
+		return visibleWidth;
+	}
+
+	public int getVisibleHeight() {
+		return visibleHeight;
+	}
+
+	public int getActivityMargin() {
+		return activityMargin;
+	}
+
+	public long getNbTicks() {
+		return nbTicks;
+	}
+
+	public int getNbCommands() {
+		return nbCommands;
+	}
+
+	/**
+	 * Whether the recording was finished, so that the final state of its
+	 * world is known.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * The in-game time after which the recording was finished, or 0 if it was
+	 * not finished.
+	 */
+	public double getElapsedTime() {
+		return elapsedTime;
+	}
+}
@@ -0,0 +1,152 @@
+package jumpingalien.internal.game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A scripted sequence of player actions, each issued at a given in-game time
+ * through the commands of an {@link IActionHandler}.
+ *
+ * A track is read from a text file with one action per line: the in-game time
+ * in seconds, followed by the name of an {@link IActionHandler} method, e.g.
+ *
+ * <pre>
+ * # time  action
+ * 0.0     startMoveRight
+ * 1.25    startJump
+ * 1.60    endJump
+ * </pre>
+ *
+ * Empty lines and lines starting with '#' are ignored. Actions with the same
+ * time are issued in the order in which they appear in the file.
+ */
+public class InputTrack {
+
+	private static class Action {
+		private final double time;
+		private final String name;
+
+		private Action(double time, String name) {
+			this.time = time;
+			this.name = name;
+		}
+	}
+
+	private final List<Action> actions = new ArrayList<>();
+
+	private int next = 0;
+
+	public static InputTrack read(String fileName) throws IOException {
+		return parse(Files.readAllLines(Paths.get(fileName)));
+	}
+
+	public static InputTrack parse(List<String> lines) {
+		InputTrack track = new InputTrack();
+		int lineNb = 0;
+		for (String line : lines) {
+			lineNb++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] parts = line.split("\\s+");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Line " + lineNb
+						+ ": expected '<time> <action>' but got '" + line + "'");
+			}
+			double time = Double.parseDouble(parts[0]);
+			if (!isValidAction(parts[1])) {
+				throw new IllegalArgumentException("Line " + lineNb
+						+ ": unknown action '" + parts[1] + "'");
+			}
+			track.actions.add(new Action(time, parts[1]));
+		}
+		// stable, so actions with the same time keep their order
+		Collections.sort(track.actions, Comparator.comparingDouble(a -> a.time));
+		return track;
+	}
+
+	static boolean isValidAction(String name) {
+		switch (name) {
+		case "startJump":
+		case "endJump":
+		case "startMoveLeft":
+		case "startMoveRight":
+		case "endMoveLeft":
+		case "endMoveRight":
+		case "startDuck":
+		case "endDuck":
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Issue all actions of this track that are due at the given in-game time
+	 * and have not been issued yet.
+	 *
+	 * @return the number of issued actions
+	 */
+	public int issueActionsUntil(double time, IActionHandler handler) {
+		int issued = 0;
+		while (next < actions.size() && actions.get(next).time <= time) {
+			issue(actions.get(next).name, handler);
+			next++;
+			issued++;
+		}
+		return issued;
+	}
+
+	static void issue(String name, IActionHandler handler) {
+		switch (name) {
+		case "startJump":
+			handler.startJump();
+			break;
+		case "endJump":
+			handler.endJump();
+			break;
+		case "startMoveLeft":
+			handler.startMoveLeft();
+			break;
+		case "startMoveRight":
+			handler.startMoveRight();
+			break;
+		case "endMoveLeft":
+			handler.endMoveLeft();
+			break;
+		case "endMoveRight":
+			handler.endMoveRight();
+			break;
+		case "startDuck":
+			handler.startDuck();
+			break;
+		case "endDuck":
+			handler.endDuck();
+			break;
+		}
+	}
+
+	/**
+	 * Start issuing the actions of this track from the beginning again.
+	 */
+	public void rewind() {
+		next = 0;
+	}
+
+	public int getNbActions() {
+		return actions.size();
+	}
+
+	/**
+	 * The in-game time of the last action of this track, or 0 if it has none.
+	 */
+	public double getDuration() {
+		return actions.isEmpty() ? 0 : actions.get(actions.size() - 1).time;
+	}
+}
@@ -1,12 +1,15 @@
 package jumpingalien.internal.game;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
 
 import jumpingalien.facade.IFacade;
 import jumpingalien.internal.game.AlienInfoProvider;
@@ -21,6 +24,7 @@ import jumpingalien.model.Shark;
 import jumpingalien.model.Skullcab;
 import jumpingalien.model.Slime;
 import jumpingalien.model.Sneezewort;
+import jumpingalien.model.TickProfiler;
 import jumpingalien.model.World;
 import jumpingalien.internal.tmxfile.TMXFileReader;
 import jumpingalien.internal.tmxfile.data.ImageTile;
@@ -79,8 +83,13 @@ public class JumpingAlienGame extends Game {
 	}
 
 	public void restart() {
+		stopRecording();
 		this.world = null;
 		this.alien = null;
+		// the new game starts from scratch, with the same slime ids as the
+		// first one, so that a replay of either game can be played in a new game
+		this.elapsedTime = 0;
+		getFacade().cleanAllSlimeIds();
 		start();
 	}
 	
@@ -118,6 +127,15 @@ public class JumpingAlienGame extends Game {
 
 		createModel();
 
+		if (getOptions().getRecordFile() != null) {
+			try {
+				recorder = ReplayRecorder.create(getOptions().getRecordFile(),
+						this);
+			} catch (IOException e) {
+				recordingFailed(e);
+			}
+		}
+
 		running = true;
 	}
 
@@ -139,10 +157,15 @@ public class JumpingAlienGame extends Game {
 				getTileTypes()));
 
 		setAlien(getFacade().createMazub(map.getInitialPositionX(),
-				map.getInitialPositionY(), JumpingAlienSprites.ALIEN_SPRITESET));
+				map.getInitialPositionY(), getAlienSprites()));
 
 		getFacade().addGameObject(getAlien(), getWorld());
 
+		if (getOptions().getProfileTicks()) {
+			getWorld().setTickProfiler(new TickProfiler());
+		}
+		getWorld().setActivityMargin(getOptions().getActivityMargin());
+
 		for (MapObject obj : map.getObjects()) {
 			addObject(obj);
 		}
@@ -193,14 +216,12 @@ public class JumpingAlienGame extends Game {
 				gameObject = getFacade().createSkullcab(
 						obj.getX(),
 						obj.getY(),
-						new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_UP,
-								JumpingAlienSprites.PLANT_SPRITE_DOWN });
+						getSkullcabSprites());
 			} else {
 				gameObject = getFacade().createSneezewort(
 							obj.getX(),
 							obj.getY(),
-							new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_LEFT,
-									JumpingAlienSprites.PLANT_SPRITE_RIGHT });
+							getSneezewortSprites());
 			}
 			if (gameObject != null)
 				getFacade().addGameObject(gameObject, getWorld());
@@ -211,9 +232,7 @@ public class JumpingAlienGame extends Game {
 			Shark shark = getFacade().createShark(
 					obj.getX(),
 					obj.getY(),
-					new Sprite[] { JumpingAlienSprites.SHARK_SPRITE_REST,
-							JumpingAlienSprites.SHARK_SPRITE_LEFT,
-							JumpingAlienSprites.SHARK_SPRITE_RIGHT });
+					getSharkSprites());
 			if (shark != null)
 				getFacade().addGameObject(shark, getWorld());
 			break;
@@ -223,12 +242,11 @@ public class JumpingAlienGame extends Game {
 			int schoolNb = obj.getIntAttribute("school").orElse(0);
 			School school = getSlimeSchool(schoolNb);
 			Slime slime = getFacade().createSlime(
-					nextSlimeId++,
+					getWorld().getSlimeIdRegistry().nextFreeId(),
 					obj.getX(),
 					obj.getY(),
 					school,
-					new Sprite[] { JumpingAlienSprites.SLIME_SPRITE_RIGHT,
-							JumpingAlienSprites.SLIME_SPRITE_LEFT });
+					getSlimeSprites());
 			if (slime != null)
 				getFacade().addGameObject(slime, getWorld());
 			break;
@@ -239,8 +257,36 @@ public class JumpingAlienGame extends Game {
 			break;
 		}
 	}
-	
-	private long nextSlimeId = 1;
+
+	/*
+	 * Sprites for the game objects created from the level file. Subclasses
+	 * that do not paint the world may return sprites without images.
+	 */
+
+	protected Sprite[] getAlienSprites() {
+		return JumpingAlienSprites.ALIEN_SPRITESET;
+	}
+
+	protected Sprite[] getSkullcabSprites() {
+		return new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_UP,
+				JumpingAlienSprites.PLANT_SPRITE_DOWN };
+	}
+
+	protected Sprite[] getSneezewortSprites() {
+		return new Sprite[] { JumpingAlienSprites.PLANT_SPRITE_LEFT,
+				JumpingAlienSprites.PLANT_SPRITE_RIGHT };
+	}
+
+	protected Sprite[] getSharkSprites() {
+		return new Sprite[] { JumpingAlienSprites.SHARK_SPRITE_REST,
+				JumpingAlienSprites.SHARK_SPRITE_LEFT,
+				JumpingAlienSprites.SHARK_SPRITE_RIGHT };
+	}
+
+	protected Sprite[] getSlimeSprites() {
+		return new Sprite[] { JumpingAlienSprites.SLIME_SPRITE_RIGHT,
+				JumpingAlienSprites.SLIME_SPRITE_LEFT };
+	}
 	
 	private java.util.Map<Integer, School> schools = new HashMap<Integer, School>();
 
@@ -264,6 +310,14 @@ public class JumpingAlienGame extends Game {
 		return world;
 	}
 
+	/**
+	 * The profiler measuring the phases of advancing the world, or null if
+	 * ticks are not profiled.
+	 */
+	public TickProfiler getTickProfiler() {
+		return getWorld() == null ? null : getWorld().getTickProfiler();
+	}
+
 	protected IActionHandler createActionHandler() {
 		return new ActionHandler(this);
 	}
@@ -284,22 +338,112 @@ public class JumpingAlienGame extends Game {
 	protected void doUpdate(double dt) {
 		if (isRunning()) {
 			if (!firstUpdate) {
-				dt = applyTimescale(dt);
 				executePendingCommands();
-				try {
-					advanceTime(dt);
-					elapsedTime += dt;
-				} catch (ModelException e) {
-					addMessage(new Message(MessageType.ERROR, e.getMessage()));
-					System.out.println("Could not advance time by dt=" + dt
-							+ ": " + e.getMessage());
-					e.printStackTrace();
+				if (getOptions().getFixedTimeStep() > 0) {
+					advanceFixedTicks(dt / getOptions().getTimescale());
+				} else {
+					dt = applyTimescale(dt);
+					tryAdvanceTime(dt);
 				}
 			}
 			firstUpdate = false;
 		}
 	}
 
+	private boolean tryAdvanceTime(double dt) {
+		if (recorder != null) {
+			try {
+				recorder.recordTick(dt);
+			} catch (IOException e) {
+				recordingFailed(e);
+			}
+		}
+		try {
+			advanceTime(dt);
+			elapsedTime += dt;
+			if (!isRunning()) {
+				finishRecording();
+			}
+			return true;
+		} catch (ModelException e) {
+			addMessage(new Message(MessageType.ERROR, e.getMessage()));
+			System.out.println("Could not advance time by dt=" + dt
+					+ ": " + e.getMessage());
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * In-game time that has passed but has not been simulated yet, in fixed
+	 * time step mode. Always smaller than one fixed time step after an update.
+	 */
+	private double accumulatedTime = 0;
+
+	private int ticksLastUpdate = 0;
+
+	private double droppedTime = 0;
+
+	/**
+	 * Advance the world with as many ticks of the fixed time step as fit in
+	 * the accumulated in-game time, but no more than the maximal number of
+	 * ticks per update. In-game time beyond that is dropped, so that a slow
+	 * frame does not make the next frames slower still.
+	 * 
+	 * The results of the simulation do not depend on the frame rate: the world
+	 * is always advanced by the same time step.
+	 */
+	protected void advanceFixedTicks(double dt) {
+		double step = getOptions().getFixedTimeStep();
+		int maxTicks = getOptions().getMaxTicksPerUpdate();
+
+		accumulatedTime += dt;
+		if (accumulatedTime >= (maxTicks + 1) * step) {
+			double excess = accumulatedTime - maxTicks * step;
+			droppedTime += excess;
+			accumulatedTime -= excess;
+		}
+
+		ticksLastUpdate = 0;
+		while (accumulatedTime >= step && isRunning()) {
+			if (!tryAdvanceTime(step)) {
+				accumulatedTime = 0;
+				break;
+			}
+			accumulatedTime -= step;
+			ticksLastUpdate++;
+		}
+	}
+
+	/**
+	 * Fraction of a fixed time step that has passed since the last simulated
+	 * tick, to be used by painters to interpolate between the previous and the
+	 * current state of the world. Always 1 if the world is advanced with a
+	 * variable time step.
+	 */
+	public double getInterpolationAlpha() {
+		double step = getOptions().getFixedTimeStep();
+		if (step <= 0) {
+			return 1;
+		}
+		return Math.min(1, accumulatedTime / step);
+	}
+
+	/**
+	 * Number of fixed ticks that were simulated during the last update.
+	 */
+	public int getTicksLastUpdate() {
+		return ticksLastUpdate;
+	}
+
+	/**
+	 * Total in-game time that was not simulated because more than the maximal
+	 * number of fixed ticks per update would have been needed.
+	 */
+	public double getDroppedTime() {
+		return droppedTime;
+	}
+
 	/**
 	 * Scale the given time interval based on the game options.
 	 * 
@@ -361,6 +505,94 @@ public class JumpingAlienGame extends Game {
 		}
 	}
 
+	/**
+	 * Recorder of the replay of the current game, or null if it is not
+	 * recorded.
+	 */
+	private ReplayRecorder recorder;
+
+	@Override
+	protected void executeCommand(Command command) {
+		if (recorder != null) {
+			try {
+				recorder.recordCommand(command.getName());
+			} catch (IOException e) {
+				recordingFailed(e);
+			}
+		}
+		super.executeCommand(command);
+	}
+
+	/**
+	 * Stop recording the replay of the current game, recording the current
+	 * state of its world as its final state. This happens by itself when the
+	 * game is over.
+	 */
+	public void finishRecording() {
+		if (recorder != null) {
+			try {
+				recorder.finish(getElapsedTime(), getWorldChecksum());
+			} catch (IOException e) {
+				System.out.println("Could not finish the replay: "
+						+ e.getMessage());
+			}
+			recorder = null;
+		}
+	}
+
+	/**
+	 * Stop recording the replay of the current game, without recording its
+	 * end if it has not ended yet.
+	 */
+	public void stopRecording() {
+		if (recorder != null) {
+			try {
+				recorder.close();
+			} catch (IOException e) {
+				System.out.println("Could not close the replay: "
+						+ e.getMessage());
+			}
+			recorder = null;
+		}
+	}
+
+	private void recordingFailed(IOException e) {
+		addMessage(new Message(MessageType.ERROR, "Stopped recording: "
+				+ e.getMessage()));
+		System.out.println("Could not record the replay: " + e.getMessage());
+		stopRecording();
+	}
+
+	/**
+	 * Execute the action with the given name, as recorded in a replay, right
+	 * away.
+	 */
+	public void replayCommand(String name) {
+		InputTrack.issue(name, getActionHandler());
+		executePendingCommands();
+	}
+
+	/**
+	 * Advance the world by the given time step, as recorded in a replay.
+	 * Returns false if the game is no longer running or the world could not
+	 * be advanced.
+	 */
+	public boolean replayTick(double dt) {
+		return isRunning() && tryAdvanceTime(dt);
+	}
+
+	/**
+	 * A checksum of the full state of the world. Games whose worlds are in the
+	 * same state, down to the last bit of every position, have the same
+	 * checksum.
+	 */
+	public long getWorldChecksum() {
+		ByteBuffer snapshot = getWorld().createSnapshot();
+		CRC32 crc = new CRC32();
+		crc.update(snapshot);
+		return crc.getValue();
+	}
+
 	public double getElapsedTime() {
 		return elapsedTime;
 	}
@@ -506,12 +738,16 @@ public class JumpingAlienGame extends Game {
 	}
 	
 
+	/*
+	 * The painters ask for the game objects of each kind every frame, so these
+	 * read the snapshot kept by the world instead of a copy made by the facade.
+	 */
 	protected ObjectInfoProvider createObjectInfoProvider() {
 		return new ObjectInfoProvider() {
 
 			@Override
 			public Collection<Sneezewort> getSneezeworts() {
-				return getFacade().getAllGameObjects(getWorld()).stream().filter(Sneezewort.class::isInstance).map(Sneezewort.class::cast).collect(Collectors.toSet());
+				return getWorld().getAllGameObjects().stream().filter(Sneezewort.class::isInstance).map(Sneezewort.class::cast).collect(Collectors.toSet());
 			}
 
 			@Override
@@ -527,7 +763,7 @@ public class JumpingAlienGame extends Game {
 			
 			@Override
 			public Collection<Skullcab> getSkullcabs() {
-				return getFacade().getAllGameObjects(getWorld()).stream().filter(Skullcab.class::isInstance).map(Skullcab.class::cast).collect(Collectors.toSet());
+				return getWorld().getAllGameObjects().stream().filter(Skullcab.class::isInstance).map(Skullcab.class::cast).collect(Collectors.toSet());
 			}
 			
 			@Override
@@ -544,7 +780,7 @@ public class JumpingAlienGame extends Game {
 
 			@Override
 			public Collection<Slime> getSlimes() {
-				return getFacade().getAllGameObjects(getWorld()).stream().filter(Slime.class::isInstance).map(Slime.class::cast).collect(Collectors.toSet());
+				return getWorld().getAllGameObjects().stream().filter(Slime.class::isInstance).map(Slime.class::cast).collect(Collectors.toSet());
 			}
 
 			@Override
@@ -554,7 +790,7 @@ public class JumpingAlienGame extends Game {
 
 			@Override
 			public Collection<Shark> getSharks() {
-				return getFacade().getAllGameObjects(getWorld()).stream().filter(Shark.class::isInstance).map(Shark.class::cast).collect(Collectors.toSet());
+				return getWorld().getAllGameObjects().stream().filter(Shark.class::isInstance).map(Shark.class::cast).collect(Collectors.toSet());
 			}
 
 			@Override
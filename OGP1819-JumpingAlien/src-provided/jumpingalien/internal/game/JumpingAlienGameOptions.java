@@ -6,4 +6,35 @@ public interface JumpingAlienGameOptions extends GameOptions {
 
 	public double getTimescale();
 	public void setTimescale(double value);
+
+	/**
+	 * Length in in-game seconds of a simulation tick, or 0 if the world is
+	 * advanced once per frame with the time that frame took.
+	 */
+	public double getFixedTimeStep();
+
+	/**
+	 * Maximal number of fixed ticks to run for a single frame; in-game time
+	 * that does not fit is dropped.
+	 */
+	public int getMaxTicksPerUpdate();
+
+	/**
+	 * Whether the time spent in the phases of advancing the world is
+	 * measured.
+	 */
+	public boolean getProfileTicks();
+
+	/**
+	 * The number of pixels around the visible window within which game
+	 * objects are advanced, or a negative number if all game objects are
+	 * advanced.
+	 */
+	public int getActivityMargin();
+
+	/**
+	 * The name of the file to which a replay of each game is recorded, or
+	 * null if games are not recorded.
+	 */
+	public String getRecordFile();
 }
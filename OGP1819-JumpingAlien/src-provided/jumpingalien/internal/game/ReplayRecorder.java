@@ -0,0 +1,133 @@
+package jumpingalien.internal.game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a replay of a game to a stream: the player's commands in the order in
+ * which they were executed, and the time steps by which the world was advanced
+ * in between. See {@link InputReplay} for the format and for playing it back.
+ *
+ * Consecutive ticks with the same time step are written as a single run, so a
+ * game with a fixed time step takes a few bytes per command. Every record is
+ * flushed as soon as it is written, so that a replay of a game that crashed
+ * still holds everything up to its last command or run of ticks.
+ */
+public class ReplayRecorder implements Closeable {
+
+	/**
+	 * Maximal number of ticks in a run, so that runs are written regularly
+	 * even if the player does nothing.
+	 */
+	private static final int MAX_RUN_LENGTH = 1024;
+
+	private final DataOutputStream out;
+
+	private int runLength = 0;
+
+	private double runStep;
+
+	private boolean finished = false;
+
+	/**
+	 * Start a replay of a game on the given level, played with the given
+	 * visible screen size and activity margin.
+	 */
+	public ReplayRecorder(OutputStream out, String level, int visibleWidth,
+			int visibleHeight, int activityMargin) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.out.writeInt(InputReplay.MAGIC);
+		this.out.writeShort(InputReplay.VERSION);
+		this.out.writeUTF(level);
+		this.out.writeInt(visibleWidth);
+		this.out.writeInt(visibleHeight);
+		this.out.writeInt(activityMargin);
+		this.out.flush();
+	}
+
+	/**
+	 * Start a replay of the given game, which must have a level file and a
+	 * visible screen size, in a new file with the given name.
+	 */
+	public static ReplayRecorder create(String fileName, JumpingAlienGame game)
+			throws IOException {
+		return new ReplayRecorder(new FileOutputStream(fileName),
+				game.getMapFile(), game.getVisibleScreenWidth(),
+				game.getVisibleScreenHeight(),
+				game.getOptions().getActivityMargin());
+	}
+
+	/**
+	 * Record that the command with the given name was executed after the ticks
+	 * recorded so far.
+	 *
+	 * @throws IllegalArgumentException
+	 *             the name is not the name of an {@link IActionHandler} method
+	 */
+	public void recordCommand(String name) throws IOException {
+		int action = InputReplay.ACTIONS.indexOf(name);
+		if (action < 0) {
+			throw new IllegalArgumentException("Cannot record command " + name);
+		}
+		writeRun();
+		out.writeByte(InputReplay.COMMAND);
+		out.writeByte(action);
+		out.flush();
+	}
+
+	/**
+	 * Record that the world was advanced by the given time step.
+	 */
+	public void recordTick(double dt) throws IOException {
+		if (runLength > 0 && Double.doubleToRawLongBits(dt) != Double
+				.doubleToRawLongBits(runStep)) {
+			writeRun();
+			out.flush();
+		}
+		runStep = dt;
+		runLength++;
+		if (runLength == MAX_RUN_LENGTH) {
+			writeRun();
+			out.flush();
+		}
+	}
+
+	/**
+	 * Record the end of the replay, after the given in-game time, with the
+	 * given checksum of the final state of the world, and close the stream.
+	 */
+	public void finish(double elapsedTime, long checksum) throws IOException {
+		writeRun();
+		out.writeByte(InputReplay.END);
+		out.writeDouble(elapsedTime);
+		out.writeLong(checksum);
+		finished = true;
+		out.close();
+	}
+
+	/**
+	 * Close the stream without recording the end of the game, if it has not
+	 * been finished yet.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (!finished) {
+			writeRun();
+			finished = true;
+			out.close();
+		}
+	}
+
+	private void writeRun() throws IOException {
+		if (runLength > 0) {
+			out.writeByte(InputReplay.TICKS);
+			out.writeInt(runLength);
+			out.writeDouble(runStep);
+			runLength = 0;
+		}
+	}
+}
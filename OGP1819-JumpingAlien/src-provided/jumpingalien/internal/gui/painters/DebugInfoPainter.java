@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.function.Supplier;
 
 import jumpingalien.internal.gui.AlienGameScreen;
+import jumpingalien.model.TickProfiler;
 import ogp.framework.gui.PerformanceStats;
 
 public class DebugInfoPainter extends
@@ -24,6 +25,19 @@ public class DebugInfoPainter extends
 
 		addInfo("Performance", () -> getFPSStats().toString());
 
+		addInfo("Simulation", () -> getGame().getOptions().getFixedTimeStep() > 0
+				? String.format("%.0f Hz | %d ticks last frame | alpha %.2f | dropped %.1fs",
+						1 / getGame().getOptions().getFixedTimeStep(),
+						getGame().getTicksLastUpdate(),
+						getGame().getInterpolationAlpha(),
+						getGame().getDroppedTime())
+				: "variable time step");
+
+		if (getGame().getOptions().getProfileTicks()) {
+			addInfo("Tick phases", () -> getTickProfileSample().phasesToString());
+			addInfo("Tick counts", () -> getTickProfileSample().countsToString());
+		}
+
 		addInfo("Screen size", () -> String.format("%dx%d", getScreenWidth(),
 				getScreenHeight()));
 
@@ -92,6 +106,27 @@ public class DebugInfoPainter extends
 		return getScreen().getFPSStats();
 	}
 
+	private static final long TICK_PROFILE_INTERVAL_NANOS = 500_000_000L;
+
+	private TickProfiler.Sample tickProfileSample = TickProfiler.Sample.EMPTY;
+
+	private long tickProfileSampleTime = System.nanoTime();
+
+	/**
+	 * The measurements of the tick profiler over the last half second, so that
+	 * the numbers are readable.
+	 */
+	private TickProfiler.Sample getTickProfileSample() {
+		TickProfiler profiler = getGame().getTickProfiler();
+		long now = System.nanoTime();
+		if (profiler != null
+				&& now - tickProfileSampleTime >= TICK_PROFILE_INTERVAL_NANOS) {
+			tickProfileSample = profiler.takeSample();
+			tickProfileSampleTime = now;
+		}
+		return tickProfileSample;
+	}
+
 	private final List<Info> information = new ArrayList<>();
 
 	private static class Info {
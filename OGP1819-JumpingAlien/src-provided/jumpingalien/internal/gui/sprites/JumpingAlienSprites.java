@@ -11,8 +11,9 @@ public class JumpingAlienSprites {
 	protected static final int WIDTH = 70;
 	protected static final int FULL_HEIGHT = 97;
 	protected static final int DUCK_HEIGHT = 70;
+	protected static final int ALIEN_SPRITE_COUNT = 30;
 	
-	public static final Sprite[] ALIEN_SPRITESET = new Sprite[30];
+	public static final Sprite[] ALIEN_SPRITESET = new Sprite[ALIEN_SPRITE_COUNT];
 
 	static {
 		/* 0: stand, not ducking, front */
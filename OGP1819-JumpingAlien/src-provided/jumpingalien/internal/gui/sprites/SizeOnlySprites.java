@@ -0,0 +1,88 @@
+package jumpingalien.internal.gui.sprites;
+
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import jumpingalien.util.Sprite;
+
+/**
+ * Sprites with the same sizes as those of {@link JumpingAlienSprites},
+ * but without images, for running the game without painting it.
+ *
+ * The size of each sprite is read from the header of its PNG file; the images
+ * themselves are never decoded.
+ */
+public class SizeOnlySprites {
+
+	private static final Map<String, int[]> sizes = new HashMap<>();
+
+	public static Sprite[] createAlienSprites() {
+		Sprite[] sprites = new Sprite[JumpingAlienSprites.ALIEN_SPRITE_COUNT];
+		for (int i = 0; i < sprites.length; i++) {
+			boolean ducking = (i == 1 || i == 6 || i == 7);
+			sprites[i] = new Sprite("alien " + i, JumpingAlienSprites.WIDTH,
+					ducking ? JumpingAlienSprites.DUCK_HEIGHT
+							: JumpingAlienSprites.FULL_HEIGHT);
+		}
+		return sprites;
+	}
+
+	public static Sprite[] createSkullcabSprites() {
+		return new Sprite[] {
+				createSprite(JumpingAlienSprites.PLANT_LEFT_FILENAME),
+				createSprite(JumpingAlienSprites.PLANT_LEFT_FILENAME) };
+	}
+
+	public static Sprite[] createSneezewortSprites() {
+		return new Sprite[] {
+				createSprite(JumpingAlienSprites.PLANT_LEFT_FILENAME),
+				createSprite(JumpingAlienSprites.PLANT_LEFT_FILENAME) };
+	}
+
+	public static Sprite[] createSharkSprites() {
+		return new Sprite[] {
+				createSprite(JumpingAlienSprites.SHARK_DEAD_FILENAME),
+				createSprite(JumpingAlienSprites.SHARK_LEFT_FILENAME),
+				createSprite(JumpingAlienSprites.SHARK_LEFT_FILENAME) };
+	}
+
+	public static Sprite[] createSlimeSprites() {
+		return new Sprite[] {
+				createSprite(JumpingAlienSprites.SLIME_LEFT_FILENAME),
+				createSprite(JumpingAlienSprites.SLIME_LEFT_FILENAME) };
+	}
+
+	public static Sprite createSprite(String fileName) {
+		int[] size = getImageSize(fileName);
+		return new Sprite(fileName, size[0], size[1]);
+	}
+
+	/**
+	 * Returns the width and height of the given PNG file, as stored in its
+	 * IHDR chunk.
+	 */
+	public static synchronized int[] getImageSize(String fileName) {
+		int[] size = sizes.get(fileName);
+		if (size == null) {
+			try (DataInputStream in = new DataInputStream(new FileInputStream(
+					fileName))) {
+				long signature = in.readLong();
+				in.readInt(); // length of the IHDR chunk
+				int chunkType = in.readInt();
+				if (signature != 0x89504E470D0A1A0AL || chunkType != 0x49484452) {
+					throw new IllegalArgumentException("Not a PNG file: "
+							+ fileName);
+				}
+				size = new int[] { in.readInt(), in.readInt() };
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Could not read " + fileName
+						+ ": " + e.getMessage());
+			}
+			sizes.put(fileName, size);
+		}
+		return size;
+	}
+}
@@ -2,6 +2,7 @@ package jumpingalien.internal.tmxfile.data;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -142,7 +143,7 @@ public class Map {
 	}
 
 	public Set<MapObject> getObjects() {
-		return getObjectGroups().stream().flatMap(og -> og.getObjects().stream()).collect(Collectors.toSet());
+		return getObjectGroups().stream().flatMap(og -> og.getObjects().stream()).collect(Collectors.toCollection(LinkedHashSet::new));
 	}
 
 	public void setAttribute(String name, String value) {
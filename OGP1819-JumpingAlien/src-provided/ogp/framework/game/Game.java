@@ -45,9 +45,13 @@ public abstract class Game {
 
 	protected void executePendingCommands() {
 		for (Command cmd : commandQueue.getAndClearPendingCommands()) {
-			cmd.execute();
+			executeCommand(cmd);
 		}
 	}
+
+	protected void executeCommand(Command command) {
+		command.execute();
+	}
 	
 	public void addMessage(Message message) {
 		messageBox.addMessage(message);
@@ -0,0 +1,225 @@
+package jumpingalien.model;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of terrains that store the geological feature of each tile of a world in one byte in memory,
+ * grouped in square chunks of tiles. All chunks start out as one shared chunk of air,
+ * so large regions of air cost no memory; a chunk gets its own bytes the first time
+ * a tile in it gets another geological feature, and gives them up again when all its tiles are air.
+ *
+ * @invar	Each chunk of this terrain is the shared chunk of air or has at least one tile that is not air.
+ * 		|	chunks[i] == AIR_CHUNK || nbTilesNotAir[i] > 0
+ * @invar	Each chunk of air has the shared rows without impassable tiles.
+ * 		|	chunks[i] != AIR_CHUNK || impassableRows[i] == NO_IMPASSABLE_ROWS
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class ChunkedTerrain implements Terrain {
+
+	/**
+	 * Initialize this terrain with the given number of tiles along both axes, all of them air.
+	 *
+	 * @param 	nbTilesX
+	 * 			The number of tiles along the x-axis.
+	 * @param 	nbTilesY
+	 * 			The number of tiles along the y-axis.
+	 * @post	new.getNbTilesX() == nbTilesX
+	 * @post	new.getNbTilesY() == nbTilesY
+	 * @post	new.getNbChunksX() == (nbTilesX + CHUNK_SIZE - 1) / CHUNK_SIZE
+	 * @post	new.getNbChunksY() == (nbTilesY + CHUNK_SIZE - 1) / CHUNK_SIZE
+	 * @post	for each tile (tileX, tileY)
+	 * 				new.getFeature(tileX, tileY) == 0
+	 * @throws	IllegalArgumentException
+	 * 			nbTilesX < 0 || nbTilesY < 0
+	 * @throws	IllegalArgumentException
+	 * 			(long) getNbChunksX() * getNbChunksY() > Integer.MAX_VALUE
+	 */
+	public ChunkedTerrain(int nbTilesX, int nbTilesY) throws IllegalArgumentException {
+		if (nbTilesX < 0 || nbTilesY < 0)
+			throw new IllegalArgumentException("The number of tiles can not be negative.");
+		NB_TILES_X = nbTilesX;
+		NB_TILES_Y = nbTilesY;
+		NB_CHUNKS_X = (nbTilesX + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		NB_CHUNKS_Y = (nbTilesY + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		if ((long) NB_CHUNKS_X * NB_CHUNKS_Y > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The terrain has too many tiles.");
+		chunks = new byte[NB_CHUNKS_X * NB_CHUNKS_Y][];
+		java.util.Arrays.fill(chunks, AIR_CHUNK);
+		impassableRows = new int[chunks.length][];
+		java.util.Arrays.fill(impassableRows, NO_IMPASSABLE_ROWS);
+		nbTilesNotAir = new short[chunks.length];
+	}
+
+	/**
+	 * Variable registering the number of tiles along the x-axis.
+	 */
+	private final int NB_TILES_X;
+
+	/**
+	 * Variable registering the number of tiles along the y-axis.
+	 */
+	private final int NB_TILES_Y;
+
+	@Override
+	@Basic
+	@Immutable
+	public int getNbTilesX() {
+		return NB_TILES_X;
+	}
+
+	@Override
+	@Basic
+	@Immutable
+	public int getNbTilesY() {
+		return NB_TILES_Y;
+	}
+
+	/**
+	 * Variable registering the base 2 logarithm of the number of tiles along a side of a chunk.
+	 */
+	private static final int CHUNK_SHIFT = 5;
+
+	/**
+	 * Variable registering the number of tiles along a side of a square chunk.
+	 */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	/**
+	 * Variable registering the chunk shared by all chunks of which every tile is air.
+	 * It is never written to.
+	 */
+	private static final byte[] AIR_CHUNK = new byte[CHUNK_SIZE * CHUNK_SIZE];
+
+	/**
+	 * Variable registering the impassable tiles of the shared chunk of air, of which there are none.
+	 * It is never written to.
+	 */
+	private static final int[] NO_IMPASSABLE_ROWS = new int[CHUNK_SIZE];
+
+	/**
+	 * Variable registering the number of chunks along the x-axis.
+	 */
+	private final int NB_CHUNKS_X;
+
+	/**
+	 * Variable registering the number of chunks along the y-axis.
+	 */
+	private final int NB_CHUNKS_Y;
+
+	/**
+	 * Return the number of chunks along the x-axis of this terrain.
+	 */
+	@Basic
+	@Immutable
+	public int getNbChunksX() {
+		return NB_CHUNKS_X;
+	}
+
+	/**
+	 * Return the number of chunks along the y-axis of this terrain.
+	 */
+	@Basic
+	@Immutable
+	public int getNbChunksY() {
+		return NB_CHUNKS_Y;
+	}
+
+	/**
+	 * Variable registering the geological features of the tiles of each chunk, row by row starting
+	 * from the bottom row, for the chunks row by row starting from the bottom row.
+	 */
+	private final byte[][] chunks;
+
+	/**
+	 * Variable registering the number of tiles that are not air in each chunk.
+	 */
+	private final short[] nbTilesNotAir;
+
+	/**
+	 * Variable registering which tiles of each chunk are impassable, as one int per row of the chunk
+	 * starting from the bottom row, in which bit i is set if the i-th tile from the left is impassable.
+	 * A chunk has its own rows for as long as it has its own bytes, so chunks are at most 32 tiles wide.
+	 */
+	private final int[][] impassableRows;
+
+	@Override
+	public int getFeature(int tileX, int tileY) {
+		return chunks[chunkIndex(tileX, tileY)][tileIndex(tileX, tileY)];
+	}
+
+	@Override
+	public void setFeature(int tileX, int tileY, int feature) throws IllegalArgumentException {
+		if (feature < 0 || feature > Byte.MAX_VALUE)
+			throw new IllegalArgumentException("Illegal geological feature.");
+		int chunkIndex = chunkIndex(tileX, tileY);
+		int tileIndex = tileIndex(tileX, tileY);
+		byte[] chunk = chunks[chunkIndex];
+		int oldFeature = chunk[tileIndex];
+		if (oldFeature == feature)
+			return;
+		if (chunk == AIR_CHUNK) {
+			chunk = new byte[CHUNK_SIZE * CHUNK_SIZE];
+			chunks[chunkIndex] = chunk;
+			impassableRows[chunkIndex] = new int[CHUNK_SIZE]; }
+		chunk[tileIndex] = (byte) feature;
+		int[] rows = impassableRows[chunkIndex];
+		int bit = 1 << (tileX & (CHUNK_SIZE - 1));
+		if (World.isImpassableTerrain(feature))
+			rows[tileY & (CHUNK_SIZE - 1)] |= bit;
+		else
+			rows[tileY & (CHUNK_SIZE - 1)] &= ~bit;
+		if (oldFeature == 0)
+			nbTilesNotAir[chunkIndex]++;
+		else if (feature == 0 && --nbTilesNotAir[chunkIndex] == 0) {
+			chunks[chunkIndex] = AIR_CHUNK;
+			impassableRows[chunkIndex] = NO_IMPASSABLE_ROWS; }
+	}
+
+	@Override
+	public boolean hasImpassableTileInRow(int minTileX, int maxTileX, int tileY) {
+		if (minTileX > maxTileX)
+			return false;
+		int row = tileY & (CHUNK_SIZE - 1);
+		int firstChunk = (tileY >> CHUNK_SHIFT) * NB_CHUNKS_X + (minTileX >> CHUNK_SHIFT);
+		int lastChunk = firstChunk + (maxTileX >> CHUNK_SHIFT) - (minTileX >> CHUNK_SHIFT);
+		int firstMask = -1 << (minTileX & (CHUNK_SIZE - 1));
+		int lastMask = -1 >>> (CHUNK_SIZE - 1 - (maxTileX & (CHUNK_SIZE - 1)));
+		if (firstChunk == lastChunk)
+			return (impassableRows[firstChunk][row] & firstMask & lastMask) != 0;
+		if ((impassableRows[firstChunk][row] & firstMask) != 0)
+			return true;
+		for (int chunk = firstChunk + 1; chunk < lastChunk; chunk++)
+			if (impassableRows[chunk][row] != 0)
+				return true;
+		return (impassableRows[lastChunk][row] & lastMask) != 0;
+	}
+
+	/**
+	 * Return the number of chunks of this terrain that have their own bytes, because not all their tiles are air.
+	 */
+	public int getNbAllocatedChunks() {
+		int count = 0;
+		for (byte[] chunk : chunks)
+			if (chunk != AIR_CHUNK)
+				count++;
+		return count;
+	}
+
+	/**
+	 * Return the index in chunks of the chunk containing the given tile position.
+	 */
+	private int chunkIndex(int tileX, int tileY) {
+		return (tileY >> CHUNK_SHIFT) * NB_CHUNKS_X + (tileX >> CHUNK_SHIFT);
+	}
+
+	/**
+	 * Return the index within its chunk of the given tile position.
+	 */
+	private static int tileIndex(int tileX, int tileY) {
+		return ((tileY & (CHUNK_SIZE - 1)) << CHUNK_SHIFT) | (tileX & (CHUNK_SIZE - 1));
+	}
+}
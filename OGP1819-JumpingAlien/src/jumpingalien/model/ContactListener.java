@@ -0,0 +1,52 @@
+package jumpingalien.model;
+
+/**
+ * An interface for game objects whose rules depend on the game objects they touch.
+ * A listener asks its world to update its contacts (see World.updateContacts) whenever its rules
+ * need them, and is told about every contact that began, persisted or ended since the previous update,
+ * instead of checking all game objects near it itself.
+ * A contact is shared by both game objects touching each other, so it is active for both of them
+ * as soon as one of them has seen it begin, and its end is told to both of them.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+public interface ContactListener {
+
+	/**
+	 * Check whether this listener wants to be told about its contacts with the given game object.
+	 *
+	 * @param 	other
+	 * 			The game object that may touch this listener.
+	 */
+	boolean isInterestedInContactWith(GameObject other);
+
+	/**
+	 * Called when this listener starts touching the given game object.
+	 *
+	 * @param 	other
+	 * 			The game object that is touched.
+	 * @param 	dt
+	 * 			The time that has passed for this listener since it last updated its contacts.
+	 */
+	void contactBegan(GameObject other, double dt);
+
+	/**
+	 * Called when this listener still touches the given game object.
+	 *
+	 * @param 	other
+	 * 			The game object that is touched.
+	 * @param 	dt
+	 * 			The time that has passed for this listener since it last updated its contacts.
+	 */
+	void contactPersisted(GameObject other, double dt);
+
+	/**
+	 * Called when this listener stops touching the given game object, or when either of them
+	 * leaves its world.
+	 *
+	 * @param 	other
+	 * 			The game object that is no longer touched.
+	 */
+	void contactEnded(GameObject other);
+}
@@ -1,6 +1,13 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
 import be.kuleuven.cs.som.annotate.Basic;
@@ -33,8 +40,8 @@ import jumpingalien.util.Sprite;
 	 *          The y-coordinate of this new game object in pixels.
 	 * @param   sprites
 	 *          The sprites for this new game object.
-	 * @effect	setPixelPosition(new Position<Integer>(x, y))
-	 * @effect	setPosition(new Position<Double>(((double) x)/100, ((double) y)/100))
+	 * @effect	setPixelPosition(x, y)
+	 * @effect	setPosition(((double) x)/100, ((double) y)/100)
 	 * @effect	setAllSprites(sprites)
 	 * @throws 	IllegalArgumentException !isValidCoordinate(((double) x)/100) || !isValidCoordinate(((double) y)/100)
 	 */
@@ -44,8 +51,8 @@ import jumpingalien.util.Sprite;
 		if (!isValidCoordinate(doubleX) || !isValidCoordinate(doubleY))
 			throw new IllegalArgumentException("No valid coordinate.");
 		
-		setPixelPosition(new Position<Integer>(x, y));
-		setPosition(new Position<Double>(doubleX, doubleY));
+		setPixelPosition(x, y);
+		setPosition(doubleX, doubleY);
 		setAllSprites(sprites);
 	}
 	
@@ -88,6 +95,15 @@ import jumpingalien.util.Sprite;
 	 * Variable registering whether this game object is dead.
 	 */
 	public boolean isDead = false;
+
+	/**
+	 * Return whether this game object is dead.
+	 * 
+	 * @return	result == this.isDead
+	 */
+	public boolean isDead() {
+		return isDead;
+	}
 	
 	
 	/**
@@ -213,119 +229,165 @@ import jumpingalien.util.Sprite;
 	/**  
 	 * Returns a position as defined in class position that represents the coordinates  
 	 * of the given game object.
-	 * Coordinates are expressed in meters.
+	 * Coordinates are expressed in meters. A new position is created on every call, 
+	 * so the model itself uses getPositionX() and getPositionY() instead.
+	 * 
+	 * @return	result == new Position<Double>(getPositionX(), getPositionY())
 	 */
 	public Position<Double> getPosition() {
-		return position; }
+		return new Position<Double>(positionX, positionY); }
+	
+	/**
+	 * Returns the x-coordinate of this game object in meters.
+	 */
+	@Basic
+	public double getPositionX() {
+		return positionX; }
+	
+	/**
+	 * Returns the y-coordinate of this game object in meters.
+	 */
+	@Basic
+	public double getPositionY() {
+		return positionY; }
 
 	/**
 	 * Set the position of this game object to the given position.
 	 * 
 	 * @param 	position
 	 * 		  	The new position for this game object.
-	 * @post	The position of this game object is equal to the given position.
-	 * 		|	new.getPosition() == position
-	 * @effect	setPixelPosition()
-	 *  	
+	 * @effect	setPosition(position.getX(), position.getY())
 	 */
 	public void setPosition(Position<Double> position) throws IllegalArgumentException {
-		this.position = position; 
-		setPixelPosition();		
+		setPosition(position.getX(), position.getY());
+	}
+	
+	/**
+	 * Set the position of this game object to the given coordinates in meters.
+	 * 
+	 * @param 	x
+	 * 		  	The new x-coordinate for this game object.
+	 * @param 	y
+	 * 		  	The new y-coordinate for this game object.
+	 * @post	The position of this game object is equal to the given position.
+	 * 		|	new.getPositionX() == x && new.getPositionY() == y
+	 * @effect	setPixelPosition()
+	 * @effect	If this game object belongs to a world, that world is notified of the move.
+	 * 		|	if (getWorld() != null) then getWorld().gameObjectMoved(this)
+	 */
+	public void setPosition(double x, double y) {
+		this.positionX = x;
+		this.positionY = y;
+		setPixelPosition();
+		if (hasAsWorld != null)
+			hasAsWorld.gameObjectMoved(this);
 	}
 	
 	/**
-	*	Returns the pixel position of this GameObject.
+	*	Returns the pixel position of this GameObject. A new position is created on every call, 
+	*	so the model itself uses getPixelX() and getPixelY() instead.
 	*
-	*	@return		result == new.pixelPosition
+	*	@return		result == new Position<Integer>(getPixelX(), getPixelY())
 	*/
 	public Position<Integer> getPixelPosition() {
-		return pixelPosition;
+		return new Position<Integer>(pixelX, pixelY);
 	}
 	
+	/**
+	 * Returns the x-coordinate of the bottom-left pixel of this game object.
+	 */
+	@Basic
+	public int getPixelX() {
+		return pixelX; }
+	
+	/**
+	 * Returns the y-coordinate of the bottom-left pixel of this game object.
+	 */
+	@Basic
+	public int getPixelY() {
+		return pixelY; }
 	
 	/**
 	*	Returns the pixel position of this Position.
 	*
-	*	@post	 	If the pixel position of a position is wrongly rounded, the rounding error is fixed.
 	*	@return		The pixel position of this GameObject.
-	*			|	new Position<Integer>(x, y)
+	*			|	new Position<Integer>(toPixel(position.getX()), toPixel(position.getY()))
 	*/
 	public Position<Integer> getPixelPosition(Position<Double> position) {
-		int x;
-		int y;
-		
-		if (position.getX() < 0 && position.getX() > -0.01) 
-			x = -1;
-	
-		else if (position.getX()*100 - (int)(position.getX()*100) >= 0.999999) 
-			x = (int)(position.getX()*100) +1;
-		
-		else 
-			x = (int)(position.getX()*100);
-		
-		if (position.getY() < 0 && position.getY() > -0.01) 
-			y = -1;
+		return new Position<Integer>(toPixel(position.getX()), toPixel(position.getY())); 	
+	}
 	
-		else if (position.getY()*100 - (int)(position.getY()*100) >= 0.999999) 
-			y = (int)(position.getY()*100) +1;
-		
+	/**
+	 * Returns the pixel coordinate of the given coordinate in meters.
+	 * If the pixel coordinate would be wrongly rounded, the rounding error is fixed.
+	 * 
+	 * @param 	coordinate
+	 * 			The coordinate in meters.
+	 * @return	if (coordinate < 0 && coordinate > -0.01) 
+	 * 				then result == -1
+	 * 			else if (coordinate*100 - (int)(coordinate*100) >= 0.999999)
+	 * 				then result == (int)(coordinate*100) + 1
+	 * 			else result == (int)(coordinate*100)
+	 */
+	public static int toPixel(double coordinate) {
+		if (coordinate < 0 && coordinate > -0.01) 
+			return -1;
+		else if (coordinate*100 - (int)(coordinate*100) >= 0.999999) 
+			return (int)(coordinate*100) + 1;
 		else 
-			y = (int) (position.getY()*100);
-		
-		return new Position<Integer>(x, y); 	
+			return (int)(coordinate*100);
 	}
 	
 	/**
 	*	Sets the pixelPosition of this game object to the updated pixel position.
 	*
 	* @post		If the pixel position of a position is wrongly rounded, the rounding error is fixed.
+	* 		|	new.getPixelX() == toPixel(getPositionX()) && new.getPixelY() == toPixel(getPositionY())
 	*/
 	public void setPixelPosition() {
-		
-		
-		if (getPosition().getX() < 0 && getPosition().getX() > -0.01) 
-			pixelPosition.setX(-1);
-	
-		else if (getPosition().getX()*100 - (int)(getPosition().getX()*100) >= 0.999999) 
-			pixelPosition.setX((int)(getPosition().getX()*100) +1);
-		
-		else 
-			pixelPosition.setX((int)(getPosition().getX()*100));
-		
-		if (getPosition().getY() < 0 && getPosition().getY() > -0.01) 
-			pixelPosition.setY(-1);
-	
-		else if (getPosition().getY()*100 - (int)(getPosition().getY()*100) >= 0.999999)
-			pixelPosition.setY((int)(getPosition().getY()*100) +1);
-		
-		else 
-			pixelPosition.setY((int)(getPosition().getY()*100));
-
+		pixelX = toPixel(positionX);
+		pixelY = toPixel(positionY);
 	}
 
 	/**
-	 * Set the position of this game object to the given position.
+	 * Set the pixel position of this game object to the given pixel coordinates.
 	 * 
-	 * @param 	pixelPosition
-	 * 		  	The new pixel position for this game object.
-	 * @post	The position of this game object is equal to the given position.
-	 * 		|	new.pixelPosition = pixelPosition;
-	 *  	
-	 */
-	public void setPixelPosition(Position<Integer> pixelPosition) throws IllegalArgumentException {
-		this.pixelPosition = pixelPosition; 
-		
+	 * @param 	x
+	 * 		  	The new x-coordinate of the bottom-left pixel of this game object.
+	 * @param 	y
+	 * 		  	The new y-coordinate of the bottom-left pixel of this game object.
+	 * @post	new.getPixelX() == x && new.getPixelY() == y
+	 */
+	public void setPixelPosition(int x, int y) {
+		this.pixelX = x;
+		this.pixelY = y;
 	}
 	
 	/**
-	 * Variable registering the position of the new game object in meters.
+	 * Variable registering the x-coordinate of this game object in meters.
 	 */
-	protected Position<Double> position;
+	protected double positionX;
 	
 	/**
-	 * Variable registering the position of the new game object in pixels.
+	 * Variable registering the y-coordinate of this game object in meters.
 	 */
-	protected Position<Integer> pixelPosition;
+	protected double positionY;
+	
+	/**
+	 * Variable registering the x-coordinate of the bottom-left pixel of this game object.
+	 */
+	protected int pixelX;
+	
+	/**
+	 * Variable registering the y-coordinate of the bottom-left pixel of this game object.
+	 */
+	protected int pixelY;
+	
+	/**
+	 * Variable registering the index of the cell of the grid of its world this game object is registered in,
+	 * or -1 if it is not registered in a grid.
+	 */
+	int gridCell = -1;
 	
 	/**
 	 * Variable registering whether a new position of a game object would be a valid position.
@@ -341,15 +403,81 @@ import jumpingalien.util.Sprite;
 	
 	/**
 	 * Try if a new position is a valid position for this gameObject if this gameObject is of class Mazub.
+	 * 
+	 * @return	result == isAccessiblePosition(newPosition.getX(), newPosition.getY())
 	 */
 	public boolean isAccessiblePosition(Position<Double> newPosition) {
+		return isAccessiblePosition(newPosition.getX(), newPosition.getY());
+	}
+	
+	/**
+	 * Try if the given coordinates in meters are a valid position for this gameObject.
+	 */
+	public boolean isAccessiblePosition(double x, double y) {
 		return false;
 	}
 	
 	/**
 	*	Change the actual position of this GameObject to a new position.
+	*
+	* @effect	changeActualPosition(newPosition.getX(), newPosition.getY())
 	*/
 	public void changeActualPosition(Position<Double> newPosition) throws IllegalArgumentException {
+		changeActualPosition(newPosition.getX(), newPosition.getY());
+	}
+	
+	/**
+	*	Change the actual position of this GameObject to the given coordinates in meters.
+	*/
+	public void changeActualPosition(double x, double y) throws IllegalArgumentException {
+	}
+	
+	/**
+	 * Move this game object to the given coordinates in meters if it can stand there, without throwing 
+	 * an exception if it can't. Game objects that do not move by themselves ignore the given position.
+	 * 
+	 * @param 	x
+	 * 			The x-coordinate to move to.
+	 * @param 	y
+	 * 			The y-coordinate to move to.
+	 * @return	MovementResult.MOVED if this game object now stands at (x, y),
+	 * 			MovementResult.LEFT_WORLD if it has been terminated because (x, y) is outside of its world,
+	 * 			MovementResult.BLOCKED otherwise.
+	 */
+	protected MovementResult moveTo(double x, double y) {
+		return MovementResult.MOVED;
+	}
+	
+	/**
+	 * Move this game object to the given coordinates in meters during the advancement of time, and tell 
+	 * how the movement was blocked if it could not move there. No exception is thrown.
+	 * 
+	 * @param 	x
+	 * 			The x-coordinate to move to.
+	 * @param 	y
+	 * 			The y-coordinate to move to.
+	 * @return	if (Double.isNaN(x) || Double.isNaN(y))
+	 * 				then result == MovementResult.BLOCKED
+	 * @return	if (!moveTo(x, y).isBlocked())
+	 * 				then result == moveTo(x, y)
+	 * @return	else if (!isAccessiblePosition(x, getPositionY()))
+	 * 				then result == MovementResult.BLOCKED_X
+	 * @return	else if (isAccessiblePosition(getPositionX(), y))
+	 * 				then result == MovementResult.BLOCKED_DIAGONALLY
+	 * 			else result == MovementResult.BLOCKED_Y
+	 */
+	public MovementResult resolveMovement(double x, double y) {
+		if (Double.isNaN(x) || Double.isNaN(y)) 
+			return MovementResult.BLOCKED;
+		MovementResult result = moveTo(x, y);
+		if (result != MovementResult.BLOCKED) 
+			return result;
+		
+		if (!isAccessiblePosition(x, getPositionY())) 
+			return MovementResult.BLOCKED_X;
+		if (isAccessiblePosition(getPositionX(), y)) 
+			return MovementResult.BLOCKED_DIAGONALLY;
+		return MovementResult.BLOCKED_Y;
 	}
 	
 	/**
@@ -357,7 +485,7 @@ import jumpingalien.util.Sprite;
 	*
 	* @param 	newPosition
 	*			The new position for this gameObject
-	* @effect	changeActualPosition(position)
+	* @effect	changeActualPosition(newPosition[0], newPosition[1])
 	* @throws 	IllegalArgumentException
 	*			Given position is null.
 	*		|	if(newPosition == null)
@@ -371,8 +499,9 @@ import jumpingalien.util.Sprite;
 		if(newPosition.length != 2) 
 			throw new IllegalArgumentException("Given position is not good size."); 
 		
-		position = new Position(newPosition[0], newPosition[1]);
-		changeActualPosition(position);
+		positionX = newPosition[0];
+		positionY = newPosition[1];
+		changeActualPosition(newPosition[0], newPosition[1]);
 	}
 	
 	/**
@@ -693,119 +822,98 @@ import jumpingalien.util.Sprite;
 	 */
 	protected World hasAsWorld;
 
+	/**
+	 * Check whether this game object is touching the given game object, as last seen by a listener
+	 * of either of them when it updated its contacts.
+	 *
+	 * @param 	other
+	 * 			The game object to check.
+	 * @return	result == contacts.contains(other)
+	 */
+	public boolean hasAsContact(GameObject other) {
+		return contacts.contains(other);
+	}
+
+	/**
+	 * Variable registering the game objects this game object is touching, as last seen by a listener
+	 * of either of them when it updated its contacts (see World.updateContacts).
+	 */
+	final List<GameObject> contacts = new ArrayList<GameObject>(0);
+
+	/**
+	 * Returns the geological features of all the tiles this GameObject is currently in, as a bit mask.
+	 * The perimeter of the current sprite is included.
+	 * @return	if (this.getWorld() == null) then
+	 * 				result == 0
+	 * @return	result == this.getWorld().getGeologicalFeaturesIn(getPixelX(), getPixelY(),
+	 * 				getPixelX() + getCurrentSprite().getWidth(), getPixelY() + getCurrentSprite().getHeight())
+	 */
+	public int getGeologicalFeatures() {
+		if (this.getWorld() == null)
+			return 0;
+		int leftX = getPixelX();
+		int underY = getPixelY();
+		return this.getWorld().getGeologicalFeaturesIn(leftX, underY, 
+				leftX + getCurrentSprite().getWidth(), underY + getCurrentSprite().getHeight());
+	}
+	
 	/**
 	 * Returns whether or not this GameObject is currently in water.
-	 * @return	for integer i between the left and right x position of this gameObject
-	 * 				for integer j between the upper and lower y position of this gameObject
-	 * 					if (this.getWorld().getGeologicalFeature(i, j) == 2) then
-	 * 						result == true
-	 * 			
+	 * @return	result == (getGeologicalFeatures() & Tile.WATER.getMask()) != 0
 	 */
 	public boolean isInWater() {
-				
-		int width = getCurrentSprite().getWidth();
-		int height = getCurrentSprite().getHeight();
-		int leftX = getPixelPosition().getX();
-		int rightX = getPixelPosition().getX() + width ;
-		int underY = getPixelPosition().getY();
-		int upperY = getPixelPosition().getY() + height;
-		
-		if (this.getWorld() != null) {
-			for(int i = leftX; i<= rightX; i++) {
-				for(int j = underY; j<= upperY; j++) {
-					if (this.getWorld().getGeologicalFeature(i, j) == 2) {				
-					return true; } } } }	
-		return false;	
+		return (getGeologicalFeatures() & Tile.WATER.getMask()) != 0;
 	}
 	
 	/**
 	 * Returns whether or not this GameObject is currently submerged in water.
 	 * @return	for integer i between the left and right x position of this gameObject
-	 * 					if (this.getWorld().getGeologicalFeature(i, getPixelPosition().getY() + height) == 2) then
+	 * 					if (this.getWorld().getGeologicalFeature(i, getPixelY() + height) == 2) then
 	 * 						result == true		
 	 */
 	public boolean submergedInWater() {
 		int width = getCurrentSprite().getWidth();
 		int height = getCurrentSprite().getHeight();
-		int leftX = getPixelPosition().getX();
-		int rightX = getPixelPosition().getX() + width ;
-		int upperY = getPixelPosition().getY() + height;
+		int leftX = getPixelX();
+		int rightX = getPixelX() + width ;
+		int upperY = getPixelY() + height;
 		
-		if (this.getWorld() != null) {
-			for(int i = leftX; i<= rightX; i++) {
-					if (this.getWorld().getGeologicalFeature(i, upperY) == 2) {				
-					return true; } } }
+		if (this.getWorld() != null) 
+			return this.getWorld().hasGeologicalFeatureIn(leftX, upperY, rightX, upperY, Tile.WATER);
 		return false;	
 	}
 	
 	/**
 	 Returns whether or not this GameObject is currently in magma.
-	 * @return	for integer i between the left and right x position of this gameObject
-	 * 				for integer j between the upper and lower y position of this gameObject
-	 * 					if (this.getWorld().getGeologicalFeature(i, j) == 3) then
-	 * 						result == true
-	 * 			
+	 * @return	result == (getGeologicalFeatures() & Tile.MAGMA.getMask()) != 0
 	 */
 	public boolean isInMagma() {
-		int width = getCurrentSprite().getWidth();
-		int height = getCurrentSprite().getHeight();
-		int leftX = getPixelPosition().getX();
-		int rightX = getPixelPosition().getX() + width;
-		int underY = getPixelPosition().getY();
-		int upperY = getPixelPosition().getY() + height;
-		
-		if (this.getWorld() != null) {
-			for(int i = leftX; i<= rightX; i++) {
-				for(int j = underY; j<= upperY; j++) {
-					if (this.getWorld().getGeologicalFeature(i, j) == 3) {
-							return true; } } } }
-		return false;	
+		return (getGeologicalFeatures() & Tile.MAGMA.getMask()) != 0;
 	}
 	
 	/**
 	 Returns whether or not this GameObject is currently in gas.
-	 * @return	for integer i between the left and right x position of this gameObject
-	 * 				for integer j between the upper and lower y position of this gameObject
-	 * 					if (this.getWorld().getGeologicalFeature(i, j) == 5) then
-	 * 						result == true
-	 * 			
+	 * @return	result == (getGeologicalFeatures() & Tile.GAS.getMask()) != 0
 	 */
 	public boolean isInGas() {
-		int width = getCurrentSprite().getWidth() ;
-		int height = getCurrentSprite().getHeight()  ;
-		int leftX = getPixelPosition().getX() ;
-		int rightX = getPixelPosition().getX() + width;
-		int underY = getPixelPosition().getY()  ;
-		int upperY = getPixelPosition().getY() + height;
-		
-		if (this.getWorld() != null) {
-			for(int i = leftX; i<= rightX; i++) {
-				for(int j = underY; j<= upperY; j++) {
-					if (this.getWorld().getGeologicalFeature(i, j) == 5) {
-							return true; } } } }
-		return false;	
+		return (getGeologicalFeatures() & Tile.GAS.getMask()) != 0;
 	}
 	
 	/**
 	 * Check whether this game object is on ground.
-	 * @post	isOnGround is changed to true, if and only if this plant has solid ground beneath it.
-	 * 		|	for(int i = leftX; i<= rightX; i++) {
-	 * 		|	if (new.getWorld().getGeologicalFeature(i, y) == 1 
-	 *		|		|| this.getWorld().getGeologicalFeature(i, y-1) == 1) 
-	 *					then new.isOnGround == true	
-	 *  
+	 * @return	True if and only if there is solid ground in the lowest row of pixels of this game object
+	 * 			or in the row beneath it, not counting the left and right perimeter.
+	 * 		|	result == this.getWorld().hasGeologicalFeatureIn(getPixelX()+1, getPixelY()-1, 
+	 * 		|		getPixelX() + getAllSprites()[0].getWidth()-1, getPixelY(), Tile.SOLID_GROUND)
 	 */
 	public boolean isOnGround() {
-		int width = getAllSprites()[0].getWidth();
-		int leftX = getPixelPosition().getX()+1;
-		int rightX = getPixelPosition().getX() + width-1;
-		int y = getPixelPosition().getY();
+		int width = allSprites[0].getWidth();
+		int leftX = getPixelX()+1;
+		int rightX = getPixelX() + width-1;
+		int y = getPixelY();
 		
-		if (this.getWorld() != null) {
-		for(int i = leftX; i<= rightX; i++) {
-			if (this.getWorld().getGeologicalFeature(i, y) == 1 
-					|| this.getWorld().getGeologicalFeature(i, y-1) == 1) {
-				return true; } } }
+		if (this.getWorld() != null) 
+			return this.getWorld().hasGeologicalFeatureIn(leftX, y-1, rightX, y, Tile.SOLID_GROUND);
 		return false;	
 	}
 	
@@ -814,16 +922,16 @@ import jumpingalien.util.Sprite;
 	 * Check whether this game object is next to another game object.
 	 *
 	 * @param	 other
-	 * @return	!(((new.getPixelPosition().getX()+(new.getCurrentSprite().getWidth())) < other.getPixelPosition().getX() ) 
-	 *			|| ((other.getPixelPosition().getX()+(other.getCurrentSprite().getWidth())) < new.getPixelPosition().getX() )
-	 *			|| ((new.getPixelPosition().getY()+ (new.getCurrentSprite().getHeight() )) < other.getPixelPosition().getY() )
-	 *			|| ((other.getPixelPosition().getY() + (other.getCurrentSprite().getHeight())) < new.getPixelPosition().getY() ))
+	 * @return	!(((new.getPixelX()+(new.getCurrentSprite().getWidth())) < other.getPixelX() ) 
+	 *			|| ((other.getPixelX()+(other.getCurrentSprite().getWidth())) < new.getPixelX() )
+	 *			|| ((new.getPixelY()+ (new.getCurrentSprite().getHeight() )) < other.getPixelY() )
+	 *			|| ((other.getPixelY() + (other.getCurrentSprite().getHeight())) < new.getPixelY() ))
 	 */
 	public boolean isNextTo(GameObject other) {
-		return (!(((this.getPixelPosition().getX()+(this.getCurrentSprite().getWidth())) < other.getPixelPosition().getX() ) 
-				|| ((other.getPixelPosition().getX()+(other.getCurrentSprite().getWidth())) < this.getPixelPosition().getX() )
-				|| ((this.getPixelPosition().getY()+ (this.getCurrentSprite().getHeight() )) < other.getPixelPosition().getY() )
-				|| ((other.getPixelPosition().getY() + (other.getCurrentSprite().getHeight())) < this.getPixelPosition().getY() )));
+		return (!(((this.getPixelX()+(this.getCurrentSprite().getWidth())) < other.getPixelX() ) 
+				|| ((other.getPixelX()+(other.getCurrentSprite().getWidth())) < this.getPixelX() )
+				|| ((this.getPixelY()+ (this.getCurrentSprite().getHeight() )) < other.getPixelY() )
+				|| ((other.getPixelY() + (other.getCurrentSprite().getHeight())) < this.getPixelY() )));
 	}
 
 	/**
@@ -847,10 +955,10 @@ import jumpingalien.util.Sprite;
 	 */
 	public boolean collidesWith(GameObject other) {
 		
-		return (!(((this.getPixelPosition().getX()+(this.getCurrentSprite().getWidth()-1)) < other.getPixelPosition().getX() ) 
-				|| ((other.getPixelPosition().getX()+(other.getCurrentSprite().getWidth()-1)) < this.getPixelPosition().getX() )
-				|| ((this.getPixelPosition().getY() + (this.getCurrentSprite().getHeight()-1 )) < other.getPixelPosition().getY() )
-				|| ((other.getPixelPosition().getY() + (other.getCurrentSprite().getHeight() -1)) < this.getPixelPosition().getY() )));
+		return (!(((this.getPixelX()+(this.getCurrentSprite().getWidth()-1)) < other.getPixelX() ) 
+				|| ((other.getPixelX()+(other.getCurrentSprite().getWidth()-1)) < this.getPixelX() )
+				|| ((this.getPixelY() + (this.getCurrentSprite().getHeight()-1 )) < other.getPixelY() )
+				|| ((other.getPixelY() + (other.getCurrentSprite().getHeight() -1)) < this.getPixelY() )));
 	}
 	
 	/**
@@ -861,7 +969,7 @@ import jumpingalien.util.Sprite;
 	 *						restult == true
 	 *  
 	 */
-	public boolean isOverlappingWithGameObject(Set<Object> gameObjectsCopy) {
+	public boolean isOverlappingWithGameObject(Collection<? extends Object> gameObjectsCopy) {
 		for (Object i : gameObjectsCopy) {
 			if (i != this && !(i instanceof Plant)) {
 				if (this.collidesWith((GameObject) i)) {
@@ -889,12 +997,13 @@ import jumpingalien.util.Sprite;
 	 * Check whether this game object is overlapping with another game object.
 	 * 
 	 * @return	True if and only if this game object is overlapping with another mazub or another plant.
-	 *		|	result == (isOverlappingWithMazub(getWorld().getAllGameObjects()) 
-	 *		|			|| isOverlappingWithPlant(getWorld().getAllGameObjects()))
+	 *		|	result == (isOverlappingWithMazub(getWorld().getGameObjectsNear(this)) 
+	 *		|			|| isOverlappingWithPlant(getWorld().getGameObjectsNear(this)))
 	 */
 	public boolean isOverlapping() {
-		return(isOverlappingWithGameObject(getWorld().getAllGameObjects()) 
-				|| isOverlappingWithPlant(getWorld().getAllGameObjects()));
+		List<GameObject> nearbyGameObjects = getWorld().getGameObjectsNear(this);
+		return(isOverlappingWithGameObject(nearbyGameObjects) 
+				|| isOverlappingWithPlant(nearbyGameObjects));
 	}
 	
 	/**
@@ -907,7 +1016,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Mazub && i != this) && (this.collidesWith((Mazub) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithMazub(Set<Object> gameObjectsCopy) {			
+	public boolean isOverlappingWithMazub(Collection<? extends Object> gameObjectsCopy) {			
 		for (Object i:gameObjectsCopy) {
 				if (i instanceof Mazub && i != this) {
 					if (this.collidesWith((Mazub) i)) {
@@ -925,7 +1034,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Plant && i != this) && (this.collidesWith((Plant) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithPlant(Set<Object> gameObjectsCopy) {		
+	public boolean isOverlappingWithPlant(Collection<? extends Object> gameObjectsCopy) {		
 		for (Object i:gameObjectsCopy) {		
 				if (i instanceof Plant && i != this) {
 					if (this.collidesWith((Plant) i)) {
@@ -943,7 +1052,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Skullcab && i != this) && (this.collidesWith((Skullcab) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithSkullcab(Set<Object> gameObjectsCopy) {		
+	public boolean isOverlappingWithSkullcab(Collection<? extends Object> gameObjectsCopy) {		
 		for (Object i:gameObjectsCopy) {		
 				if (i instanceof Skullcab && i != this) {
 					if (this.collidesWith((Skullcab) i)) {
@@ -961,7 +1070,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Sneezewort && i != this) && (this.collidesWith((Sneezewort) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithSneezewort(Set<Object> gameObjectsCopy) {		
+	public boolean isOverlappingWithSneezewort(Collection<? extends Object> gameObjectsCopy) {		
 		for (Object i:gameObjectsCopy) {		
 				if (i instanceof Sneezewort && i != this) {
 					if (this.collidesWith((Sneezewort) i)) {
@@ -979,7 +1088,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Slime && i != this) && (this.collidesWith((Slime) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithSlime(Set<Object> gameObjectsCopy) {	
+	public boolean isOverlappingWithSlime(Collection<? extends Object> gameObjectsCopy) {	
 		for (Object i:gameObjectsCopy) {		
 				if (i instanceof Slime && i != this) {
 					if (this.collidesWith((Slime) i)) {
@@ -997,7 +1106,7 @@ import jumpingalien.util.Sprite;
 	 *		|			if ((i instanceof Shark && i != this) && (this.collidesWith((Shark) i))) then
 	 *		|				result == true
 	 */
-	public boolean isOverlappingWithShark(Set<Object> gameObjectsCopy) {
+	public boolean isOverlappingWithShark(Collection<? extends Object> gameObjectsCopy) {
 		for (Object i:gameObjectsCopy) {		
 				if (i instanceof Shark && i != this) {
 					if (this.collidesWith((Shark) i)) {
@@ -1020,6 +1129,13 @@ import jumpingalien.util.Sprite;
 	 */
 	public boolean wouldOverlapWithPlant = false;
 	
+	/**
+	 * Variable registering the game objects the probes of the current step of this game object overlapped with
+	 * or stood on top of, so that the flags set by those probes only apply to the game objects that set them.
+	 * Each game object is registered once, however many probes hit it, and is looked up by identity.
+	 */
+	final Set<GameObject> probedGameObjects = Collections.newSetFromMap(new IdentityHashMap<GameObject, Boolean>());
+	
 	/**
 	 * Start moving this game object to the left or to the right, depending on the given direction. The sign of its 
 	 * velocity or acceleration depends on its orientation.
@@ -1027,8 +1143,228 @@ import jumpingalien.util.Sprite;
 	public void startMove(String direction) {
 	}
 	
-	public void advanceTime(double dt) throws IllegalArgumentException {	
+	/**
+	 * Return an upper bound on the distance in meters this game object can move along either axis
+	 * when it advances the given time.
+	 * 
+	 * @param 	dt
+	 * 			The time to advance.
+	 * @return	result == Math.max(Math.max(Math.abs(horizontalVelocity), maxHorizontalVelocity) 
+	 * 				+ Math.max(Math.abs(horizontalAcceleration), Math.abs(STANDARD_HORIZONTAL_ACCELERATION))*dt,
+	 * 				Math.max(Math.abs(verticalVelocity), maxVerticalVelocity) 
+	 * 				+ Math.max(Math.abs(verticalAcceleration), Math.abs(STANDARD_VERTICAL_ACCELERATION))*dt)*dt
+	 */
+	public double getMaximalDisplacement(double dt) {
+		double horizontalSpeed = Math.max(Math.abs(horizontalVelocity), maxHorizontalVelocity) 
+				+ Math.max(Math.abs(horizontalAcceleration), Math.abs(STANDARD_HORIZONTAL_ACCELERATION))*dt;
+		double verticalSpeed = Math.max(Math.abs(verticalVelocity), maxVerticalVelocity) 
+				+ Math.max(Math.abs(verticalAcceleration), Math.abs(STANDARD_VERTICAL_ACCELERATION))*dt;
+		return Math.max(horizontalSpeed, verticalSpeed)*dt;
+	}
+	
+	public void advanceTime(double dt) throws IllegalArgumentException {
+	}
+
+	/**
+	 * Catch up with the given time, during which this game object was dormant because it was outside the
+	 * activity region of its world (see World.setActivityMargin). This game object has just woken up
+	 * and is advanced normally afterwards.
+	 * Game objects stay where they fell asleep, as if no time had passed, unless they can catch up more cheaply
+	 * than by advancing all that time.
+	 *
+	 * @param 	time
+	 * 			The time this game object was dormant.
+	 */
+	protected void advanceDormantTime(double time) {
+	}
+
+	/**
+	 * Check whether this game object is dormant, because it is outside the activity region of its world.
+	 */
+	@Basic
+	public boolean isDormant() {
+		return isDormant;
+	}
+
+	/**
+	 * Variable registering whether this game object is dormant.
+	 */
+	boolean isDormant = false;
+
+	/**
+	 * Variable registering the time of the world of this game object at which this game object fell asleep.
+	 */
+	double dormantSince;
+
+	/**
+	 * Variable registering the number of game objects that were added to the world of this game object
+	 * before this game object, which orders the game objects of that world as they were added.
+	 */
+	long additionNumber;
+
+	/**
+	 * Variable registering the directions a game object can have moved in last, at their number in a snapshot.
+	 */
+	private static final String[] DIRECTIONS = { null, "right", "left", "up", "down" };
+
+	/**
+	 * Write the state of this game object that can change after it has been created to the given buffer.
+	 * Its world, its contacts and its place in the grid of its world are written by its world instead
+	 * (see World.writeSnapshot); its sprites are fixed when it is created, so only the index of its current sprite is written.
+	 * Subclasses with state of their own write it after the state of this class.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to write to.
+	 * @throws	IllegalArgumentException
+	 * 			This game object moved last in a direction that has no number in a snapshot,
+	 * 			or its current sprite is not one of its sprites.
+	 */
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		int direction = Arrays.asList(DIRECTIONS).indexOf(lastDirection);
+		if (direction < 0)
+			throw new IllegalArgumentException("Unknown direction " + lastDirection + ".");
+		int sprite = -1;
+		for (int i = 0; i < allSprites.length && sprite < 0; i++)
+			if (allSprites[i] == currentSprite)
+				sprite = i;
+		if (sprite < 0 && currentSprite != null)
+			throw new IllegalArgumentException("The current sprite is not one of the sprites of this game object.");
+		buffer.put((byte) direction);
+		buffer.putInt((isHorizontalMoving ? 1 : 0) | (isVerticalMoving ? 1 << 1 : 0) | (isDucking ? 1 << 2 : 0)
+				| (isJumping ? 1 << 3 : 0) | (isFalling ? 1 << 4 : 0) | (isOnGround ? 1 << 5 : 0) | (isDead ? 1 << 6 : 0)
+				| (affectLifeTime ? 1 << 7 : 0) | (isTerminated ? 1 << 8 : 0) | (isValidNewPosition ? 1 << 9 : 0)
+				| (isOnTopOfOtherGameObject ? 1 << 10 : 0) | (wouldOverlapWithMazub ? 1 << 11 : 0)
+				| (wouldOverlapWithSlime ? 1 << 12 : 0) | (wouldOverlapWithPlant ? 1 << 13 : 0) | (isDormant ? 1 << 14 : 0));
+		buffer.putDouble(t);
+		buffer.putDouble(timeMovingLeft);
+		buffer.putDouble(timeMovingRight);
+		buffer.putDouble(timeNotMoving);
+		buffer.putDouble(timeInMagma);
+		buffer.putDouble(timeInWater);
+		buffer.putDouble(timeInGas);
+		buffer.putDouble(timeBlocked);
+		buffer.putDouble(lifeTime);
+		buffer.putDouble(DEATH_LIFETIME);
+		buffer.putDouble(positionX);
+		buffer.putDouble(positionY);
+		buffer.putInt(pixelX);
+		buffer.putInt(pixelY);
+		buffer.putInt(orientation);
+		buffer.putDouble(horizontalVelocity);
+		buffer.putDouble(STANDARD_HORIZONTAL_VELOCITY);
+		buffer.putDouble(minHorizontalVelocity);
+		buffer.putDouble(maxHorizontalVelocity);
+		buffer.putDouble(verticalVelocity);
+		buffer.putDouble(STANDARD_VERTICAL_VELOCITY);
+		buffer.putDouble(maxVerticalVelocity);
+		buffer.putDouble(horizontalAcceleration);
+		buffer.putDouble(STANDARD_HORIZONTAL_ACCELERATION);
+		buffer.putDouble(verticalAcceleration);
+		buffer.putInt(sprite);
+		buffer.putInt(hitPoints);
+		buffer.putInt(maxHitPoints);
+		buffer.putDouble(dormantSince);
+		buffer.putLong(additionNumber);
+	}
+
+	/**
+	 * Read the state of this game object written by writeState from the given buffer.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @throws	IllegalArgumentException
+	 * 			The state was not written by a game object of the same class with as many sprites.
+	 */
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		int direction = buffer.get();
+		if (direction < 0 || direction >= DIRECTIONS.length)
+			throw new IllegalArgumentException("Unknown direction in snapshot.");
+		lastDirection = DIRECTIONS[direction];
+		int flags = buffer.getInt();
+		isHorizontalMoving = (flags & 1) != 0;
+		isVerticalMoving = (flags & 1 << 1) != 0;
+		isDucking = (flags & 1 << 2) != 0;
+		isJumping = (flags & 1 << 3) != 0;
+		isFalling = (flags & 1 << 4) != 0;
+		isOnGround = (flags & 1 << 5) != 0;
+		isDead = (flags & 1 << 6) != 0;
+		affectLifeTime = (flags & 1 << 7) != 0;
+		isTerminated = (flags & 1 << 8) != 0;
+		isValidNewPosition = (flags & 1 << 9) != 0;
+		isOnTopOfOtherGameObject = (flags & 1 << 10) != 0;
+		wouldOverlapWithMazub = (flags & 1 << 11) != 0;
+		wouldOverlapWithSlime = (flags & 1 << 12) != 0;
+		wouldOverlapWithPlant = (flags & 1 << 13) != 0;
+		isDormant = (flags & 1 << 14) != 0;
+		t = buffer.getDouble();
+		timeMovingLeft = buffer.getDouble();
+		timeMovingRight = buffer.getDouble();
+		timeNotMoving = buffer.getDouble();
+		timeInMagma = buffer.getDouble();
+		timeInWater = buffer.getDouble();
+		timeInGas = buffer.getDouble();
+		timeBlocked = buffer.getDouble();
+		lifeTime = buffer.getDouble();
+		DEATH_LIFETIME = buffer.getDouble();
+		positionX = buffer.getDouble();
+		positionY = buffer.getDouble();
+		pixelX = buffer.getInt();
+		pixelY = buffer.getInt();
+		orientation = buffer.getInt();
+		horizontalVelocity = buffer.getDouble();
+		STANDARD_HORIZONTAL_VELOCITY = buffer.getDouble();
+		minHorizontalVelocity = buffer.getDouble();
+		maxHorizontalVelocity = buffer.getDouble();
+		verticalVelocity = buffer.getDouble();
+		STANDARD_VERTICAL_VELOCITY = buffer.getDouble();
+		maxVerticalVelocity = buffer.getDouble();
+		horizontalAcceleration = buffer.getDouble();
+		STANDARD_HORIZONTAL_ACCELERATION = buffer.getDouble();
+		verticalAcceleration = buffer.getDouble();
+		int sprite = buffer.getInt();
+		if (sprite >= allSprites.length)
+			throw new IllegalArgumentException("Unknown sprite in snapshot.");
+		currentSprite = (sprite < 0) ? null : allSprites[sprite];
+		hitPoints = buffer.getInt();
+		maxHitPoints = buffer.getInt();
+		dormantSince = buffer.getDouble();
+		additionNumber = buffer.getLong();
+	}
+
+	/**
+	 * Move the given buffer past the state written by writeState of a game object like this game object,
+	 * checking it as readState does, without changing this game object.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @throws	IllegalArgumentException
+	 * 			The state was not written by a game object of the same class with as many sprites.
+	 * @throws	BufferUnderflowException
+	 * 			The buffer ends before the state does.
+	 */
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		int direction = buffer.get();
+		if (direction < 0 || direction >= DIRECTIONS.length)
+			throw new IllegalArgumentException("Unknown direction in snapshot.");
+		// the flags, the times up to the position, the pixel position and orientation, and the velocities
+		skipBytes(buffer, Integer.BYTES + 12 * Double.BYTES + 3 * Integer.BYTES + 10 * Double.BYTES);
+		int sprite = buffer.getInt();
+		if (sprite >= allSprites.length)
+			throw new IllegalArgumentException("Unknown sprite in snapshot.");
+		// the hit points, the maximum hit points, the time of falling asleep and the addition number
+		skipBytes(buffer, 2 * Integer.BYTES + Double.BYTES + Long.BYTES);
+	}
+
+	/**
+	 * Move the given buffer past the given number of bytes.
+	 * 
+	 * @throws	BufferUnderflowException
+	 * 			buffer.remaining() < nbBytes
+	 */
+	static void skipBytes(ByteBuffer buffer, int nbBytes) throws BufferUnderflowException {
+		if (buffer.remaining() < nbBytes)
+			throw new BufferUnderflowException();
+		buffer.position(buffer.position() + nbBytes);
 	}
 
 }
-	
\ No newline at end of file
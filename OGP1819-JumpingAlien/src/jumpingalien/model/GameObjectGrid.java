@@ -0,0 +1,413 @@
+package jumpingalien.model;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import jumpingalien.util.Sprite;
+
+/**
+ * A class of uniform grids that divide the pixels of a world into square cells, used to look up
+ * the game objects near a given area without walking every game object of the world.
+ * Each game object is registered in the cell containing its bottom-left pixel.
+ * Cells are stored in chunks of consecutive cells, and a chunk is only allocated once a game object enters
+ * one of its cells, so that a large world with few game objects takes little memory.
+ *
+ * @invar	Each game object in this grid is registered in exactly one cell.
+ * 		|	gameObject.gridCell == cellIndex(gameObject.getPixelX(), gameObject.getPixelY())
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class GameObjectGrid {
+
+	/**
+	 * Initialize this grid covering a world with the given width and height in pixels.
+	 *
+	 * @param 	widthInPixels
+	 * 			The width in pixels of the world covered by this grid.
+	 * @param 	heightInPixels
+	 * 			The height in pixels of the world covered by this grid.
+	 * @post	new.getNbCellsX() == Math.max(1, (widthInPixels + CELL_SIZE - 1) / CELL_SIZE)
+	 * @post	new.getNbCellsY() == Math.max(1, (heightInPixels + CELL_SIZE - 1) / CELL_SIZE)
+	 * @throws	IllegalArgumentException
+	 * 			(long) getNbCellsX() * getNbCellsY() > Integer.MAX_VALUE
+	 */
+	@SuppressWarnings("unchecked")
+	public GameObjectGrid(int widthInPixels, int heightInPixels) throws IllegalArgumentException {
+		NB_CELLS_X = Math.max(1, (widthInPixels + CELL_SIZE - 1) / CELL_SIZE);
+		NB_CELLS_Y = Math.max(1, (heightInPixels + CELL_SIZE - 1) / CELL_SIZE);
+		if ((long) NB_CELLS_X * NB_CELLS_Y > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("The grid has too many cells.");
+		NB_CELLS = NB_CELLS_X * NB_CELLS_Y;
+		chunks = (List<GameObject>[][]) new List<?>[(int) (((long) NB_CELLS + CHUNK_LENGTH - 1) >> CHUNK_SHIFT)][];
+	}
+
+	/**
+	 * Variable registering the length in pixels of the side of a square cell.
+	 */
+	public static final int CELL_SIZE = 128;
+
+	/**
+	 * Variable registering the number of cells along the x-axis.
+	 */
+	private final int NB_CELLS_X;
+
+	/**
+	 * Variable registering the number of cells along the y-axis.
+	 */
+	private final int NB_CELLS_Y;
+
+	/**
+	 * Return the number of cells along the x-axis of this grid.
+	 */
+	@Basic
+	@Immutable
+	public int getNbCellsX() {
+		return NB_CELLS_X;
+	}
+
+	/**
+	 * Return the number of cells along the y-axis of this grid.
+	 */
+	@Basic
+	@Immutable
+	public int getNbCellsY() {
+		return NB_CELLS_Y;
+	}
+
+	/**
+	 * Variable registering the number of cells of this grid.
+	 */
+	private final int NB_CELLS;
+
+	/**
+	 * Variable registering the base 2 logarithm of the number of cells in a chunk.
+	 */
+	private static final int CHUNK_SHIFT = 8;
+
+	/**
+	 * Variable registering the number of consecutive cells in a chunk.
+	 */
+	private static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+
+	/**
+	 * Variable registering the game objects in each cell, by chunk of consecutive cells. Chunks are created
+	 * the first time a game object enters one of their cells, and cells the first time a game object enters them.
+	 */
+	private final List<GameObject>[][] chunks;
+
+	/**
+	 * Return the game objects in the cell with the given index, or null if no game object has entered that cell.
+	 *
+	 * @param 	index
+	 * 			The index of the cell.
+	 */
+	private List<GameObject> getCell(int index) {
+		List<GameObject>[] chunk = chunks[index >> CHUNK_SHIFT];
+		return chunk == null ? null : chunk[index & (CHUNK_LENGTH - 1)];
+	}
+
+	/**
+	 * Set the game objects in the cell with the given index to the given list, creating its chunk if needed.
+	 *
+	 * @param 	index
+	 * 			The index of the cell.
+	 * @param 	cell
+	 * 			The game objects in the cell.
+	 * @post	new.getCell(index) == cell
+	 */
+	@SuppressWarnings("unchecked")
+	private void setCell(int index, List<GameObject> cell) {
+		List<GameObject>[] chunk = chunks[index >> CHUNK_SHIFT];
+		if (chunk == null) {
+			chunk = (List<GameObject>[]) new List<?>[CHUNK_LENGTH];
+			chunks[index >> CHUNK_SHIFT] = chunk; }
+		chunk[index & (CHUNK_LENGTH - 1)] = cell;
+	}
+
+	/**
+	 * Return the game objects in the cell with the given index, creating the cell if needed.
+	 *
+	 * @param 	index
+	 * 			The index of the cell.
+	 */
+	private List<GameObject> getOrCreateCell(int index) {
+		List<GameObject> cell = getCell(index);
+		if (cell == null) {
+			cell = new ArrayList<GameObject>();
+			setCell(index, cell); }
+		return cell;
+	}
+
+	/**
+	 * Variable registering the largest width of any sprite of a game object that has been in this grid.
+	 */
+	private int maxObjectWidth;
+
+	/**
+	 * Variable registering the largest height of any sprite of a game object that has been in this grid.
+	 */
+	private int maxObjectHeight;
+
+	/**
+	 * Return the index of the cell along one axis for the given pixel coordinate, clamped to the grid.
+	 *
+	 * @param 	pixel
+	 * 			The pixel coordinate to convert.
+	 * @param 	nbCells
+	 * 			The number of cells along the axis.
+	 * @return	result == Math.min(nbCells - 1, Math.max(0, pixel / CELL_SIZE))
+	 */
+	private static int cellCoordinate(int pixel, int nbCells) {
+		if (pixel < 0)
+			return 0;
+		return Math.min(nbCells - 1, pixel / CELL_SIZE);
+	}
+
+	/**
+	 * Return the index of the cell containing the given pixel.
+	 *
+	 * @param 	pixelX
+	 * 			The x-position of the pixel.
+	 * @param 	pixelY
+	 * 			The y-position of the pixel.
+	 * @return	result == cellCoordinate(pixelY, NB_CELLS_Y) * NB_CELLS_X + cellCoordinate(pixelX, NB_CELLS_X)
+	 */
+	public int cellIndex(int pixelX, int pixelY) {
+		return cellCoordinate(pixelY, NB_CELLS_Y) * NB_CELLS_X + cellCoordinate(pixelX, NB_CELLS_X);
+	}
+
+	/**
+	 * Register the given game object in the cell containing its bottom-left pixel.
+	 *
+	 * @param 	object
+	 * 			The game object to be registered.
+	 * @post	object.gridCell == cellIndex(object.getPixelX(), object.getPixelY())
+	 */
+	public void add(GameObject object) {
+		for (Sprite sprite : object.allSprites) {
+			maxObjectWidth = Math.max(maxObjectWidth, sprite.getWidth());
+			maxObjectHeight = Math.max(maxObjectHeight, sprite.getHeight()); }
+
+		int index = cellIndex(object.getPixelX(), object.getPixelY());
+		getOrCreateCell(index).add(object);
+		object.gridCell = index;
+	}
+
+	/**
+	 * Remove the given game object from this grid.
+	 *
+	 * @param 	object
+	 * 			The game object to be removed.
+	 * @post	object.gridCell == -1
+	 */
+	public void remove(GameObject object) {
+		List<GameObject> cell = object.gridCell < 0 ? null : getCell(object.gridCell);
+		if (cell != null)
+			cell.remove(object);
+		object.gridCell = -1;
+	}
+
+	/**
+	 * Move the given game object to the cell containing its current bottom-left pixel, if it changed cell.
+	 *
+	 * @param 	object
+	 * 			The game object that has moved.
+	 * @effect	if (object.gridCell != cellIndex(object.getPixelX(), object.getPixelY()))
+	 * 				then remove(object) && add(object)
+	 */
+	public void update(GameObject object) {
+		if (object.gridCell < 0)
+			return;
+		int index = cellIndex(object.getPixelX(), object.getPixelY());
+		if (index != object.gridCell) {
+			getCell(object.gridCell).remove(object);
+			getOrCreateCell(index).add(object);
+			object.gridCell = index; }
+	}
+
+	/**
+	 * Return the game objects of this grid that may touch or overlap the given rectangle of pixels.
+	 * Game objects further away are never returned, but the result may contain game objects that
+	 * do not touch the rectangle.
+	 *
+	 * @param 	exclude
+	 * 			A game object that must not be part of the result, or null.
+	 * @param 	left
+	 * 			The left-most x-position of the rectangle.
+	 * @param 	bottom
+	 * 			The lowest y-position of the rectangle.
+	 * @param 	right
+	 * 			The right-most x-position of the rectangle.
+	 * @param 	top
+	 * 			The highest y-position of the rectangle.
+	 * @param 	result
+	 * 			The list to fill, whose previous content is discarded. Callers that look up nearby game objects
+	 * 			on every step pass the same list each time, so that the lookup allocates nothing.
+	 * @return	result
+	 * @post	Each game object o of this grid with o != exclude
+	 * 			and o.getPixelX() >= left - maxObjectWidth && o.getPixelX() <= right
+	 * 			and o.getPixelY() >= bottom - maxObjectHeight && o.getPixelY() <= top
+	 * 			is in new.result.
+	 */
+	public List<GameObject> getGameObjectsNear(GameObject exclude, int left, int bottom, int right, int top,
+			List<GameObject> result) {
+		result.clear();
+		int minCellX = cellCoordinate(left - maxObjectWidth, NB_CELLS_X);
+		int maxCellX = cellCoordinate(right, NB_CELLS_X);
+		int minCellY = cellCoordinate(bottom - maxObjectHeight, NB_CELLS_Y);
+		int maxCellY = cellCoordinate(top, NB_CELLS_Y);
+
+		for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+				List<GameObject> cell = getCell(cellY * NB_CELLS_X + cellX);
+				if (cell != null) {
+					for (GameObject object : cell) {
+						if (object != exclude)
+							result.add(object); } } } }
+		return result;
+	}
+
+	/**
+	 * Return the indices of the cells that getGameObjectsNear looks at for the given rectangle of pixels.
+	 *
+	 * @param 	left
+	 * 			The left-most x-position of the rectangle.
+	 * @param 	bottom
+	 * 			The lowest y-position of the rectangle.
+	 * @param 	right
+	 * 			The right-most x-position of the rectangle.
+	 * @param 	top
+	 * 			The highest y-position of the rectangle.
+	 * @return	Each cell holding a game object that getGameObjectsNear(null, left, bottom, right, top, result)
+	 * 			may return is in the result, and each cell appears once.
+	 */
+	public int[] getCellsNear(int left, int bottom, int right, int top) {
+		int minCellX = cellCoordinate(left - maxObjectWidth, NB_CELLS_X);
+		int maxCellX = cellCoordinate(right, NB_CELLS_X);
+		int minCellY = cellCoordinate(bottom - maxObjectHeight, NB_CELLS_Y);
+		int maxCellY = cellCoordinate(top, NB_CELLS_Y);
+
+		int[] result = new int[(maxCellX - minCellX + 1) * (maxCellY - minCellY + 1)];
+		int i = 0;
+		for (int cellY = minCellY; cellY <= maxCellY; cellY++)
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+				result[i++] = cellY * NB_CELLS_X + cellX;
+		return result;
+	}
+
+	/**
+	 * Return the number of cells of this grid.
+	 */
+	@Basic
+	@Immutable
+	public int getNbCells() {
+		return NB_CELLS;
+	}
+
+	/**
+	 * Remove all game objects from this grid.
+	 *
+	 * @post	Each game object that was in this grid has gridCell == -1.
+	 */
+	public void clear() {
+		for (int i = 0; i < chunks.length; i++) {
+			if (chunks[i] != null) {
+				for (List<GameObject> cell : chunks[i]) {
+					if (cell != null) {
+						for (GameObject object : cell)
+							object.gridCell = -1; } }
+				chunks[i] = null; } }
+	}
+
+	/**
+	 * Write the game objects in each cell of this grid to the given buffer, in the order in which they are
+	 * registered in their cell, since that order is the order in which getGameObjectsNear returns them.
+	 *
+	 * @param 	buffer
+	 * 			The buffer to write to.
+	 * @param 	indices
+	 * 			The numbers by which the game objects of this grid are written.
+	 */
+	void writeState(ByteBuffer buffer, Map<GameObject, Integer> indices) {
+		buffer.putInt(maxObjectWidth);
+		buffer.putInt(maxObjectHeight);
+		int countPosition = buffer.position();
+		buffer.putInt(0);
+		int nbCells = 0;
+		for (int i = 0; i < chunks.length; i++) {
+			if (chunks[i] != null) {
+				for (int j = 0; j < CHUNK_LENGTH; j++) {
+					List<GameObject> cell = chunks[i][j];
+					if (cell != null && !cell.isEmpty()) {
+						buffer.putInt((i << CHUNK_SHIFT) | j);
+						buffer.putInt(cell.size());
+						for (GameObject object : cell)
+							buffer.putInt(indices.get(object));
+						nbCells++; } } } }
+		buffer.putInt(countPosition, nbCells);
+	}
+
+	/**
+	 * Replace the game objects in this grid by those written by writeState to the given buffer.
+	 *
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @param 	gameObjects
+	 * 			The game objects by their number in the buffer.
+	 * @throws	IllegalArgumentException
+	 * 			The buffer refers to a cell or game object that does not exist.
+	 */
+	void readState(ByteBuffer buffer, List<GameObject> gameObjects) throws IllegalArgumentException {
+		clear();
+		maxObjectWidth = buffer.getInt();
+		maxObjectHeight = buffer.getInt();
+		int nbCells = buffer.getInt();
+		for (int i = 0; i < nbCells; i++) {
+			int index = buffer.getInt();
+			int size = buffer.getInt();
+			if (index < 0 || index >= NB_CELLS || size < 0 || size > gameObjects.size())
+				throw new IllegalArgumentException("Unknown cell in snapshot.");
+			List<GameObject> cell = new ArrayList<GameObject>(size);
+			for (int j = 0; j < size; j++) {
+				int object = buffer.getInt();
+				if (object < 0 || object >= gameObjects.size())
+					throw new IllegalArgumentException("Unknown game object in snapshot.");
+				cell.add(gameObjects.get(object));
+				gameObjects.get(object).gridCell = index; }
+			setCell(index, cell); }
+	}
+
+	/**
+	 * Move the given buffer past the game objects of a grid like this grid written by writeState, checking them
+	 * as readState does, without changing this grid.
+	 *
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @param 	nbGameObjects
+	 * 			The number of game objects that can be referred to in the buffer.
+	 * @throws	IllegalArgumentException
+	 * 			The buffer refers to a cell or game object that does not exist.
+	 * @throws	BufferUnderflowException
+	 * 			The buffer ends before the game objects of the grid do.
+	 */
+	void skipState(ByteBuffer buffer, int nbGameObjects) throws IllegalArgumentException, BufferUnderflowException {
+		GameObject.skipBytes(buffer, 2 * Integer.BYTES);
+		int nbCells = buffer.getInt();
+		for (int i = 0; i < nbCells; i++) {
+			int index = buffer.getInt();
+			int size = buffer.getInt();
+			if (index < 0 || index >= NB_CELLS || size < 0 || size > nbGameObjects)
+				throw new IllegalArgumentException("Unknown cell in snapshot.");
+			for (int j = 0; j < size; j++) {
+				int object = buffer.getInt();
+				if (object < 0 || object >= nbGameObjects)
+					throw new IllegalArgumentException("Unknown game object in snapshot."); } }
+	}
+}
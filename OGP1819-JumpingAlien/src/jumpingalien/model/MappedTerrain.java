@@ -0,0 +1,134 @@
+package jumpingalien.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of terrains backed by a memory-mapped file holding the geological feature of each tile
+ * of a world in one byte, row by row starting from the bottom row. Only the parts of the file
+ * that are read or written are paged in by the operating system, so levels far larger than
+ * the memory of the game can be played, and changes to the terrain are written through to the file.
+ * A file that is too short is extended with air; the bytes already in the file must be valid geological features.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class MappedTerrain implements Terrain {
+
+	/**
+	 * Initialize this terrain with the given number of tiles along both axes, backed by the given file.
+	 *
+	 * @param 	file
+	 * 			The file holding the geological features of the tiles.
+	 * @param 	nbTilesX
+	 * 			The number of tiles along the x-axis.
+	 * @param 	nbTilesY
+	 * 			The number of tiles along the y-axis.
+	 * @post	new.getNbTilesX() == nbTilesX
+	 * @post	new.getNbTilesY() == nbTilesY
+	 * @post	file.length() >= (long) nbTilesX * nbTilesY
+	 * @throws	IllegalArgumentException
+	 * 			file == null || nbTilesX <= 0 || nbTilesY < 0
+	 * @throws	IOException
+	 * 			The file can not be opened, extended or mapped.
+	 */
+	public MappedTerrain(File file, int nbTilesX, int nbTilesY) throws IllegalArgumentException, IOException {
+		if (file == null)
+			throw new IllegalArgumentException("No file given.");
+		if (nbTilesX <= 0 || nbTilesY < 0)
+			throw new IllegalArgumentException("Illegal number of tiles.");
+		NB_TILES_X = nbTilesX;
+		NB_TILES_Y = nbTilesY;
+		ROW_SHIFT = 31 - Integer.numberOfLeadingZeros(Math.max(1, Integer.MAX_VALUE / nbTilesX));
+		int rowsPerBuffer = 1 << ROW_SHIFT;
+		buffers = new MappedByteBuffer[(int) (((long) nbTilesY + rowsPerBuffer - 1) >> ROW_SHIFT)];
+		try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+			long size = (long) nbTilesX * nbTilesY;
+			if (data.length() < size)
+				data.setLength(size);
+			FileChannel channel = data.getChannel();
+			for (int i = 0; i < buffers.length; i++) {
+				long rows = Math.min(rowsPerBuffer, nbTilesY - ((long) i << ROW_SHIFT));
+				buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+						((long) i << ROW_SHIFT) * nbTilesX, rows * nbTilesX); } }
+	}
+
+	/**
+	 * Variable registering the number of tiles along the x-axis.
+	 */
+	private final int NB_TILES_X;
+
+	/**
+	 * Variable registering the number of tiles along the y-axis.
+	 */
+	private final int NB_TILES_Y;
+
+	@Override
+	@Basic
+	@Immutable
+	public int getNbTilesX() {
+		return NB_TILES_X;
+	}
+
+	@Override
+	@Basic
+	@Immutable
+	public int getNbTilesY() {
+		return NB_TILES_Y;
+	}
+
+	/**
+	 * Variable registering the base 2 logarithm of the number of rows of tiles mapped by each buffer,
+	 * since a single buffer can map at most Integer.MAX_VALUE bytes.
+	 */
+	private final int ROW_SHIFT;
+
+	/**
+	 * Variable registering the buffers mapping consecutive bands of rows of the file.
+	 */
+	private final MappedByteBuffer[] buffers;
+
+	@Override
+	public int getFeature(int tileX, int tileY) {
+		return buffers[tileY >> ROW_SHIFT].get(rowStart(tileY) + tileX);
+	}
+
+	@Override
+	public void setFeature(int tileX, int tileY, int feature) throws IllegalArgumentException {
+		if (feature < 0 || feature > Byte.MAX_VALUE)
+			throw new IllegalArgumentException("Illegal geological feature.");
+		buffers[tileY >> ROW_SHIFT].put(rowStart(tileY) + tileX, (byte) feature);
+	}
+
+	@Override
+	public boolean hasImpassableTileInRow(int minTileX, int maxTileX, int tileY) {
+		MappedByteBuffer buffer = buffers[tileY >> ROW_SHIFT];
+		int rowStart = rowStart(tileY);
+		for (int tileX = minTileX; tileX <= maxTileX; tileX++)
+			if (World.isImpassableTerrain(buffer.get(rowStart + tileX)))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Return the index in its buffer of the first tile of the given row.
+	 */
+	private int rowStart(int tileY) {
+		return (tileY & ((1 << ROW_SHIFT) - 1)) * NB_TILES_X;
+	}
+
+	/**
+	 * Write all changes to this terrain that are not yet in its file to the file.
+	 */
+	public void flush() {
+		for (MappedByteBuffer buffer : buffers)
+			buffer.force();
+	}
+}
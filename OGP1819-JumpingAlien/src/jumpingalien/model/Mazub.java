@@ -3,7 +3,11 @@ package jumpingalien.model;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import be.kuleuven.cs.som.annotate.Basic;
@@ -23,7 +27,7 @@ import jumpingalien.util.Sprite;
  */
 
 @SuppressWarnings("all")
-public class Mazub extends GameObject implements HorizontalMoving, VerticalMoving{
+public class Mazub extends GameObject implements HorizontalMoving, VerticalMoving, ContactListener{
 	/**
 	 * Initialize this Mazub with given x-coordinate, y-coordinate in pixels and sprites. Mazub is not moving yet
 	 * and is facing to the front. Its maximum vertical velocity is 8 meters per second.
@@ -267,7 +271,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	 */
 	@Override
 	public boolean isVerticalMoving() {
-		return (this.getVelocity()[1] != 0); }
+		return (this.getVerticalVelocity() != 0); }
 	
 	/**
 	 * Returns if this Mazub is not moving.
@@ -280,41 +284,50 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	}
 	
 	/**
-	 * Check whether this newPosition is an accessible position for this Mazub.
-	 * @param	newPosition
-	 * 			the position which has to be checked 
+	 * Variable registering the game objects hit by the probe of isAccessiblePosition that is being checked,
+	 * which only join probedGameObjects once the terrain turns out to be passable.
+	 */
+	private final List<GameObject> probeHits = new ArrayList<GameObject>(4);
+	
+	/**
+	 * Check whether the given coordinates in meters are an accessible position for this Mazub.
+	 * @param	newX
+	 * 			the x-coordinate which has to be checked 
+	 * @param	newY
+	 * 			the y-coordinate which has to be checked 
 	 * Return 	returns false if this new position is in solid ground or if it makes this mazub overlap with another gameobject
-	 * 		|	result == false if  !this.getWorld().validTiles(x, y, width, height) || this.getWorld().onTopOfOtherGameObject(mazub, gameObjectsCopy)
-	 * 					|| mazub.isOverlappingWithGameObject(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithSlime = true if newPositionedShark.isOverlappingWithSlime(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithMazub = true if newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)
+	 * 		|	result == false if (probe & (World.PROBE_BLOCKED_BY_TERRAIN | World.PROBE_ON_TOP_OF_GAME_OBJECT 
+	 * 		|					| World.PROBE_OVERLAPS_GAME_OBJECT)) != 0
+	 * 		|	with probe == getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight())
+	 * @post	new.wouldOverlapWithPlant = true if (probe & World.PROBE_OVERLAPS_PLANT) != 0 and the terrain is passable
+	 * @post	new.wouldOverlapWithSlime = true if (probe & World.PROBE_OVERLAPS_SLIME) != 0 and the terrain is passable
+	 * @post	new.isOnTopOfOtherGameObject = true if (probe & World.PROBE_ON_TOP_OF_GAME_OBJECT) != 0 and the terrain is passable
 	 */
 	@Override
-	public boolean isAccessiblePosition(Position<Double> newPosition) {
-		int x = getPixelPosition(newPosition).getX();
-		int y = getPixelPosition(newPosition).getY();
-		int width = getCurrentSprite().getWidth();
-		int height = getCurrentSprite().getHeight();
-		
-		Mazub mazub = new Mazub(x, y, this.getAllSprites());
-		mazub.currentSprite = this.getCurrentSprite();
-		Set<Object> gameObjectsCopy = this.getWorld().getAllGameObjects();
-		gameObjectsCopy.remove(this);
+	public boolean isAccessiblePosition(double newX, double newY) {
+		int x = toPixel(newX);
+		int y = toPixel(newY);
+		int probe = this.getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight(),
+				probeHits);
 
-		if(!this.getWorld().validTiles(x, y, width, height)) 
-			return false; 
+		if((probe & World.PROBE_BLOCKED_BY_TERRAIN) != 0) {
+			// No flags are set for this probe, so the game objects it hit do not count either.
+			probeHits.clear();
+			return false; }
+		probedGameObjects.addAll(probeHits);
+		probeHits.clear();
 	
-		if (mazub.isOverlappingWithPlant(gameObjectsCopy)) 
+		if ((probe & World.PROBE_OVERLAPS_PLANT) != 0) 
 			wouldOverlapWithPlant = true;
 		
-		if (mazub.isOverlappingWithSlime(gameObjectsCopy)) 
+		if ((probe & World.PROBE_OVERLAPS_SLIME) != 0) 
 			wouldOverlapWithSlime = true;
 		
-		if (this.getWorld().onTopOfOtherGameObject(mazub, gameObjectsCopy) ) {
+		if ((probe & World.PROBE_ON_TOP_OF_GAME_OBJECT) != 0) {
 			isOnTopOfOtherGameObject = true;	
 			return false; }
 		
-		if (mazub.isOverlappingWithGameObject(gameObjectsCopy)) 
+		if ((probe & World.PROBE_OVERLAPS_GAME_OBJECT) != 0) 
 			return false;
 		
 		return true; }
@@ -322,59 +335,63 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	/**
 	*	Change the actual position of this Mazub to a new position.
 	*
-	*	@param 		newPosition
-	*				The position of this new position for Mazub
-	*	@post 		the new position of this Mazub is newPosition
-	* 			|	new.getPosition() = newPosition
+	*	@param 		newX
+	*				The x-coordinate of the new position for Mazub
+	*	@param 		newY
+	*				The y-coordinate of the new position for Mazub
+	*	@post 		the new position of this Mazub is (newX, newY)
+	* 			|	new.getPositionX() == newX && new.getPositionY() == newY
 	* 	@throws 	IllegalArgumentException
-	*				this newPosition is not a valid position for class position
-	*			|	!isAccessiblePosition(newPosition) || 	
-	*				Double.isNaN((double) newPosition.getX()) || Double.isNaN((double) newPosition.getY())		
+	*				(newX, newY) is not a valid position for this Mazub
+	*			|	!isAccessiblePosition(newX, newY) || 	
+	*				Double.isNaN(newX) || Double.isNaN(newY)		
 	*/
 	@Override
-	public void changeActualPosition(Position<Double> newPosition) throws IllegalArgumentException {
-		
-		
-		if (Double.isNaN((double) newPosition.getX()) || Double.isNaN((double) newPosition.getY())) 
+	public void changeActualPosition(double newX, double newY) throws IllegalArgumentException {
+		if (Double.isNaN(newX) || Double.isNaN(newY)) 
 			throw new IllegalArgumentException("Cannot be NaN."); 
-		if (getWorld() == null) {
-			setPosition(newPosition);		
-			return;	}
-
-		else {		
-			if (getWorld().positionOutsideWorld(newPosition)) {
+		if (moveTo(newX, newY) == MovementResult.BLOCKED) 
+			throw new IllegalArgumentException("Cannot be overlapping with another game object or can't be on impassable terrain."); 
+	}
+	
+	/**
+	 * Move this Mazub to the given position if it can stand there.
+	 * 
+	 * @param 	newX
+	 * 			The x-coordinate to move to.
+	 * @param 	newY
+	 * 			The y-coordinate to move to.
+	 * @effect	if (getWorld() == null || (!getWorld().positionOutsideWorld(newX, newY) && isAccessiblePosition(newX, newY)))
+	 * 				then setPosition(newX, newY)
+	 * @effect	if (getWorld() != null && getWorld().positionOutsideWorld(newX, newY))
+	 * 				then terminate()
+	 * @return	MovementResult.LEFT_WORLD if getWorld() != null && getWorld().positionOutsideWorld(newX, newY),
+	 * 			else MovementResult.BLOCKED if !isAccessiblePosition(newX, newY),
+	 * 			else MovementResult.MOVED
+	 */
+	@Override
+	protected MovementResult moveTo(double newX, double newY) {
+		if (getWorld() != null) {
+			if (getWorld().positionOutsideWorld(newX, newY)) {
 				terminate();	
-				return; }
-			if(!isAccessiblePosition(newPosition)) 
-				throw new IllegalArgumentException("Cannot be overlapping with another game object or can't be on impassable terrain."); 
+				return MovementResult.LEFT_WORLD; }
+			if(!isAccessiblePosition(newX, newY)) 
+				return MovementResult.BLOCKED; 
 		}	
-		setPosition(newPosition);
+		setPosition(newX, newY);
+		return MovementResult.MOVED;
 	}
 	
 	/**
 	 * Check whether this Mazub is on ground.
 	 * 
-	 * @post	isOnGround is changed to true, if and only if this Mazub has solid ground beneath it.
-	 * 		|	for(int i = leftX; i<= rightX; i++) {
-	 * 		|	if (this.getWorld().getGeologicalFeature(i, y) == 1 
-	 *		|		|| this.getWorld().getGeologicalFeature(i, y-1) == 1) 
-	 *					then new.isOnGround == true	
-	 *  
+	 * @return	True if and only if there is solid ground in the lowest row of pixels of this Mazub
+	 * 			or in the row beneath it, not counting the left and right perimeter.
+	 * 		|	result == this.getWorld().hasGeologicalFeatureIn(getPixelX()+1, getPixelY()-1, 
+	 * 		|		getPixelX() + getAllSprites()[0].getWidth()-1, getPixelY(), Tile.SOLID_GROUND)
 	 */
 	public boolean isOnGround() {
-		int width = getAllSprites()[0].getWidth();
-		int leftX = getPixelPosition().getX()+1;
-		int rightX = getPixelPosition().getX() + width-1;
-		int y = getPixelPosition().getY();
-		
-		if (this.getWorld() != null) {
-			for(int i = leftX; i<= rightX; i++) {
-				if (this.getWorld().getGeologicalFeature(i, y) == 1 
-						|| this.getWorld().getGeologicalFeature(i, y-1) == 1) 
-					return true; 				
-			}	
-		}
-		return false;	
+		return super.isOnGround();	
 	}
 			
 	/**
@@ -409,7 +426,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 			setCurrentSprite(); }
 		else if (direction == "left") {
 			lastDirection = "left";
-			if (getPosition().getX() != 0) { 
+			if (getPositionX() != 0) { 
 				this.currentSprite = getAllSprites()[8 + NUMBER_OF_ALTERNATING_SPRITES/2];
 				setOrientation(-1); 
 				setHorizontalVelocity(-minHorizontalVelocity);
@@ -479,17 +496,14 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	 * 												/Math.abs(getHorizontalVelocity()))
 	 */
 	public void endDuck() {		
-		Mazub mazubstanding = new Mazub(getPixelPosition().getX(),getPixelPosition().getY(),this.getAllSprites());
-		Set<Object> gameObjectsCopy = this.getWorld().getAllGameObjects();
-		gameObjectsCopy.remove(this);
-		if (isDucking && !mazubstanding.isOverlappingWithGameObject(gameObjectsCopy)&& getWorld().validTiles(getPixelPosition().getX(),
-				getPixelPosition().getY(),allSprites[0].getWidth(),
-				allSprites[0].getHeight())) {
+		int probe = getWorld().probeHitbox(this, getPixelX(), getPixelY(), 
+				allSprites[0].getWidth(), allSprites[0].getHeight());
+		if (isDucking && (probe & (World.PROBE_OVERLAPS_GAME_OBJECT | World.PROBE_BLOCKED_BY_TERRAIN)) == 0) {
 			isDucking = false;
 		
 			if (isHorizontalMoving) {
 				setHorizontalAcceleration(STANDARD_HORIZONTAL_ACCELERATION*getHorizontalVelocity()/Math.abs(getHorizontalVelocity())); 
-				if (getVelocity()[0] > 0) 
+				if (getHorizontalVelocity() > 0) 
 					currentSprite = getAllSprites()[8];	
 				else 
 					currentSprite = getAllSprites()[8 + NUMBER_OF_ALTERNATING_SPRITES/2]; 			
@@ -595,7 +609,114 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 		t = 0.01/((Math.sqrt(Math.pow(Math.abs(getHorizontalVelocity()), 2)
 				+ Math.pow(Math.abs(getVerticalVelocity()), 2) )) + 	
 				((Math.sqrt(Math.pow(Math.abs(getHorizontalAcceleration()), 2)
-						+ Math.pow(Math.abs(getVerticalAcceleration()), 2) )) * dt));	
+						+ Math.pow(Math.abs(getVerticalAcceleration()), 2) )) * dt));
+	}
+
+	/**
+	 * Return the horizontal acceleration with which this mazub moves during a free movement of the given time.
+	 * Once this mazub has reached its maximum horizontal velocity, every small step of time t still speeds it up
+	 * before its velocity is brought back to the maximum, so the free movement does so too.
+	 *
+	 * @param 	time
+	 * 			The time of the free movement, a multiple of t.
+	 * @return	if (Math.abs(getHorizontalVelocity()) >= maxHorizontalVelocity
+	 * 				&& getHorizontalVelocity()*getHorizontalAcceleration() > 0)
+	 * 				then result == getHorizontalAcceleration()*t/time
+	 * 			else result == getHorizontalAcceleration()
+	 */
+	public double getFreeHorizontalAcceleration(double time) {
+		if (Math.abs(getHorizontalVelocity()) >= maxHorizontalVelocity
+				&& getHorizontalVelocity()*getHorizontalAcceleration() > 0)
+			return getHorizontalAcceleration()*t/time;
+		return getHorizontalAcceleration();
+	}
+
+	/**
+	 * Return the longest time, at most the given time, during which this mazub can move freely.
+	 * A mazub moves freely if the rectangle swept by its sprite holds no impassable terrain,
+	 * no water, magma or gas and no other game objects, if it stays on the ground or stays in the air,
+	 * if its horizontal velocity does not reach its maximum and if its sprite does not alternate.
+	 * Such a movement can be made in a single step, because none of the small steps of time t 
+	 * would have been blocked or would have changed anything but the position, velocity and timers of this mazub.
+	 * The time is a multiple of t, so the steps after it are the same as before.
+	 *
+	 * @param 	dt
+	 * 			The time left to advance.
+	 * @return	result == 0 || (result >= 2*t && result <= dt && isFreeMovement(result))
+	 */
+	public double getFreeMovementTime(double dt) {
+		if (this.getWorld() == null || t <= 0)
+			return 0;
+
+		double time = dt;
+		double horizontalVelocity = getHorizontalVelocity();
+		double horizontalAcceleration = getHorizontalAcceleration();
+		if (horizontalAcceleration != 0) {
+			if (horizontalVelocity*horizontalAcceleration <= 0)
+				return 0;
+			if (Math.abs(horizontalVelocity) < maxHorizontalVelocity)
+				time = Math.min(time, (maxHorizontalVelocity - Math.abs(horizontalVelocity))/Math.abs(horizontalAcceleration)); }
+
+		if (isHorizontalMoving && !isDucking && !isJumping)
+			time = Math.min(time, 0.075 - Math.max(timeMovingRight, timeMovingLeft));
+		else if (!isHorizontalMoving && timeNotMoving < 1)
+			time = Math.min(time, 1 - timeNotMoving);
+
+		int steps = (int) (time/t);
+		while (steps >= 2) {
+			if (isFreeMovement(steps*t))
+				return steps*t;
+			steps /= 2; }
+		return 0;
+	}
+
+	/**
+	 * Check whether this mazub can move freely during the given time.
+	 *
+	 * @param 	time
+	 * 			The time to move.
+	 * @return	False if the rectangle swept by the sprite of this mazub holds impassable terrain,
+	 * 			water, magma, gas, pixels outside of its world or other game objects,
+	 * 			or if this mazub would land or leave the ground.
+	 */
+	public boolean isFreeMovement(double time) {
+		World world = this.getWorld();
+		double startX = getPositionX();
+		double startY = getPositionY();
+		double endX = startX + getHorizontalVelocity()*time + getFreeHorizontalAcceleration(time)*time*time/2;
+		double endY = startY + getVerticalVelocity()*time + getVerticalAcceleration()*time*time/2;
+		double minY = Math.min(startY, endY);
+		double maxY = Math.max(startY, endY);
+		if (getVerticalAcceleration() != 0) {
+			double apexTime = -getVerticalVelocity()/getVerticalAcceleration();
+			if (apexTime > 0 && apexTime < time) {
+				double apexY = startY + getVerticalVelocity()*apexTime + getVerticalAcceleration()*apexTime*apexTime/2;
+				minY = Math.min(minY, apexY);
+				maxY = Math.max(maxY, apexY); } }
+
+		int left = toPixel(Math.min(startX, endX));
+		int right = toPixel(Math.max(startX, endX));
+		int bottom = toPixel(minY);
+		int top = toPixel(maxY);
+		int width = getCurrentSprite().getWidth();
+		int height = getCurrentSprite().getHeight();
+
+		int fluids = Tile.WATER.getMask() | Tile.MAGMA.getMask() | Tile.GAS.getMask() | World.OUTSIDE_WORLD_MASK;
+		if ((world.getGeologicalFeaturesIn(left - 1, bottom - 1, right + width, top + height) & fluids) != 0)
+			return false;
+		if (!world.validTiles(left, bottom, right - left + width, top - bottom + height))
+			return false;
+
+		int groundRight = right + getAllSprites()[0].getWidth() - 1;
+		if (isOnGround()) {
+			if (bottom != top || !world.isFilledWithGeologicalFeature(left + 1, bottom - 1, groundRight, bottom,
+					Tile.SOLID_GROUND))
+				return false; }
+		else if (world.hasGeologicalFeatureIn(left + 1, bottom - 1, groundRight, top, Tile.SOLID_GROUND))
+			return false;
+
+		return world.getGameObjectsNear(this, left - 2, bottom - 2,
+				right - left + width + 4, top - bottom + height + 4).isEmpty();
 	}
 
 	//part of advancetime
@@ -622,18 +743,21 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	
 	//part of advancetime
 	public void setFluidTimers(double t) {
-		if(this.isInMagma()) 
+		int features = getGeologicalFeatures();
+		boolean inMagma = (features & Tile.MAGMA.getMask()) != 0;
+		boolean inGas = (features & Tile.GAS.getMask()) != 0;
+		if(inMagma) 
 			timeInMagma += t; 
 		else {
 			firstTimeInMagma = true;
 			timeInMagma = 0; }
-		if(this.isInWater() && !(this.isInGas() || this.isInMagma()))   
+		if((features & Tile.WATER.getMask()) != 0 && !(inGas || inMagma))   
 			timeInWater += t; 
 		else {
 			firstTimeInWater = true;
 			timeInWater = 0;
 			effectiveTimeInWater = 0; }
-		if(this.isInGas()) 
+		if(inGas) 
 			timeInGas += t;
 		else {
 			firstTimeInGas = true;
@@ -642,12 +766,12 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	
 	//part of advancetime
 	public void setMovementTimers(double t) {
-		if (isHorizontalMoving && getVelocity()[0] > 0 && !isDucking && !isJumping) 
+		if (isHorizontalMoving && getHorizontalVelocity() > 0 && !isDucking && !isJumping) 
 			timeMovingRight += t; 
 		else 
 			timeMovingRight = 0; 
 		
-		if (isHorizontalMoving && getVelocity()[0] < 0 && !isDucking && !isJumping) 
+		if (isHorizontalMoving && getHorizontalVelocity() < 0 && !isDucking && !isJumping) 
 			timeMovingLeft += t; 
 		else 
 			timeMovingLeft = 0; 
@@ -658,7 +782,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 		else if (isHorizontalMoving) {
 			timeNotMoving = 0;
 			
-			if (getVelocity()[0] > 0) 
+			if (getHorizontalVelocity() > 0) 
 				lastDirection = "right";
 			else 
 				lastDirection = "left"; }
@@ -699,8 +823,8 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 		if (!isHorizontalMoving) {
 			if (timeNotMoving >= 1) {
 				if (!isDucking) {
-					if (this.getWorld() != null && this.getWorld().validTiles(getPixelPosition().getX(),
-							getPixelPosition().getY(),allSprites[0].getWidth(),
+					if (this.getWorld() != null && this.getWorld().validTiles(getPixelX(),
+							getPixelY(),allSprites[0].getWidth(),
 							allSprites[0].getHeight())) 
 						currentSprite = getAllSprites()[0]; 
 					}
@@ -835,13 +959,17 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 			this.isDead = true;
 			return;	}
 		
+		int features = getGeologicalFeatures();
+		boolean inMagma = (features & Tile.MAGMA.getMask()) != 0;
+		boolean inGas = (features & Tile.GAS.getMask()) != 0;
+		
 		if (this.getWorld() != null) {
 				hitPointsByGameObjects();				
-			if (this.getWorld().outsideBoundaries(getPixelPosition().getX(), getPixelPosition().getY())) {
+			if (this.getWorld().outsideBoundaries(getPixelX(), getPixelY())) {
 				terminate();
 				return; } 
 			
-			if (this.isInMagma()) {				
+			if (inMagma) {				
 				if(firstTimeInMagma) {				
 					this.addHitPoints(-50);
 					firstTimeInMagma = false;
@@ -850,7 +978,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 					this.addHitPoints((int) ((-250)*timeInMagma + 0.2)); 
 					return; } }		
 			
-			if (this.isInWater() && !this.isInMagma() && !this.isInGas()) {
+			if ((features & Tile.WATER.getMask()) != 0 && !inMagma && !inGas) {
 				if(timeInWater >= 0.2) {
 					effectiveTimeInWater += timeInWater;
 					while(effectiveTimeInWater >= 0.2) {		
@@ -858,7 +986,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 						effectiveTimeInWater -= 0.2; }
 					effectiveTimeInWater -= timeInWater; } } }
 		
-			if (this.isInGas() && !this.isInMagma()) {	
+			if (inGas && !inMagma) {	
 				if(firstTimeInGas) {			
 					this.addHitPoints(-4);
 					firstTimeInGas = false;
@@ -875,11 +1003,48 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 			isDead = true; }		
 	}
 	
+	/**
+	 * Check whether this mazub wants to be told about its contacts with the given game object.
+	 * 
+	 * @return	result == (other instanceof Skullcab)
+	 */
+	@Override
+	public boolean isInterestedInContactWith(GameObject other) {
+		return other instanceof Skullcab;
+	}
+	
+	/**
+	 * Let the given skullcab count the time this mazub has moved while overlapping with it.
+	 * 
+	 * @effect	((Skullcab) other).contactBegan(this, dt)
+	 */
+	@Override
+	public void contactBegan(GameObject other, double dt) {
+		((Skullcab) other).contactBegan(this, dt);
+	}
+	
+	/**
+	 * Let the given skullcab count the time this mazub has moved while overlapping with it.
+	 * 
+	 * @effect	((Skullcab) other).contactPersisted(this, dt)
+	 */
+	@Override
+	public void contactPersisted(GameObject other, double dt) {
+		((Skullcab) other).contactPersisted(this, dt);
+	}
+	
+	/**
+	 * The given skullcab is told itself that its contact with this mazub ended.
+	 */
+	@Override
+	public void contactEnded(GameObject other) {
+	}
+	
 	//part of advancetime
 	public void hitPointsByGameObjects() {
 
-		for (Object i : getWorld().getAllGameObjects()) {			
-			if (isOnTopOfOtherGameObject || this.isNextTo((GameObject) i)) {
+		for (Object i : getWorld().getGameObjectsNear(this)) {			
+			if (probedGameObjects.contains(i) || this.isNextTo((GameObject) i)) {
 				if (i instanceof Plant) {
 						if (this.collidesWith((GameObject) i)) {	
 							if (this.getHitPoints() < 500) {		
@@ -915,7 +1080,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 							} 
 						}
 				else if (i instanceof Slime) {
-						if (this.collidesWith((GameObject) i) || isOnTopOfOtherGameObject || wouldOverlapWithSlime) {
+						if (this.collidesWith((GameObject) i) || probedGameObjects.contains(i)) {
 						if (!this.isStationary()) {
 							if (timeNoDamageFromSlime == 0) {
 								timeNoDamageFromSlime += 0.6;
@@ -935,6 +1100,8 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 	@Override
 	public void advanceTime(double dt) throws IllegalArgumentException {
 		setSmallDt(dt);	
+		TickProfiler profiler = (getWorld() != null) ? getWorld().tickProfiler : null;
+		long start = 0;
 		if(getHitPoints() == 0) {
 			isDead = true; }
 		
@@ -943,6 +1110,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 			isOnTopOfOtherGameObject = false;
 			wouldOverlapWithSlime = false;
 			wouldOverlapWithPlant = false;
+			probedGameObjects.clear();
 			
 		if (!isDead && getHitPoints() != 0) {
 			
@@ -953,59 +1121,65 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 			while (dt > 0 && !isDead) {
 					if (t > dt) {
 						t = dt; }
-				dt -= t;
+				
+				//Taking a single larger step if nothing can happen to this mazub in the meantime.
+				if (profiler != null) {
+					profiler.count(TickProfiler.COUNT_SUBSTEPS);
+					start = profiler.startPhase(); }
+				double step = t;
+				double horizontalAcceleration = getHorizontalAcceleration();
+				double freeMovementTime = getFreeMovementTime(dt);
+				if (freeMovementTime > t) {
+					step = freeMovementTime;
+					horizontalAcceleration = getFreeHorizontalAcceleration(step); }
+				dt -= step;
+				if (profiler != null) 
+					profiler.endPhase(TickProfiler.PHASE_STEP_PLANNING, start);
 				
 				
 				//Updating how long this mazub is in magma/water/gas
-				setFluidTimers(t);
+				setFluidTimers(step);
 	
-				if (this.getWorld() != null) {
-				for (Object i : this.getWorld().getAllGameObjects()) {
-					if (i instanceof Skullcab) {
-						if (this.collidesWith((GameObject) i)) {
-							((Skullcab) i).timeOverlappingWithMazub += t; }
-						
-						else {
-							((Skullcab) i).timeOverlappingWithMazub = 0;
-							((Skullcab) i).firstTimeOverlappingWithMazub = true; } } }  }
+				if (profiler != null) 
+					start = profiler.startPhase();
+				if (this.getWorld() != null) 
+					this.getWorld().updateContacts(this, step);
+				if (profiler != null) 
+					profiler.endPhase(TickProfiler.PHASE_CONTACTS, start);
 				
 	
 	
 				//Updating how long this mazub is moving in a certain direction in case it is moving
-				setMovementTimers(t);
+				setMovementTimers(step);
 	
 				//Updating how long this mazub hasn't been damaged by a slime or shark.
-				setNoDamageTimers(t);
+				setNoDamageTimers(step);
 				
 				//Implementing all aspects concerning the horizontal and vertical movement.
 				
-				try {	
-					
-					changeActualPosition(new Position<Double>(getPosition().getX()+getHorizontalVelocity()
-					*t+getHorizontalAcceleration()
-					*Math.pow(t, 2)/2,
-					getPosition().getY()+getVerticalVelocity()
-					*t+getVerticalAcceleration()*Math.pow(t, 2)/2));
+				if (profiler != null) 
+					start = profiler.startPhase();
+				MovementResult movement = resolveMovement(getPositionX()+getHorizontalVelocity()
+				*step+horizontalAcceleration
+				*Math.pow(step, 2)/2,
+				getPositionY()+getVerticalVelocity()
+				*step+getVerticalAcceleration()*Math.pow(step, 2)/2);
+				if (profiler != null) 
+					profiler.endPhase(TickProfiler.PHASE_MOVEMENT, start);
+				
+				if (!movement.isBlocked()) {
 					
-					setHorizontalVelocity(getHorizontalVelocity()+t*getHorizontalAcceleration());
+					setHorizontalVelocity(getHorizontalVelocity()+step*horizontalAcceleration);
 	
-					setVerticalVelocity(getVerticalVelocity()+t*getVerticalAcceleration());
+					setVerticalVelocity(getVerticalVelocity()+step*getVerticalAcceleration());
 					
 	
-				} catch (IllegalArgumentException ex) {
+				} else {
 	
 					//als zowel de horizontale verplaatsing en de verticale verplaatsing apart mogelijk zijn, maar niet
 					//tesamen, dan mag mazub de beweging niet uitvoeren
 		
-					if (isAccessiblePosition(new Position<Double>(getPosition().getX()+getHorizontalVelocity()
-					*t+getHorizontalAcceleration()
-					*Math.pow(t, 2)/2,
-					getPosition().getY())) && 
-					isAccessiblePosition(new Position<Double>(getPosition().getX(),
-					getPosition().getY()+getVerticalVelocity()
-					*t+getVerticalAcceleration()*Math.pow(t, 2)/2)) 
-					 
-					) {
+					if (movement == MovementResult.BLOCKED_DIAGONALLY) {
 					setHorizontalVelocity(0);
 	
 					setVerticalVelocity(0);
@@ -1016,16 +1190,7 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 					return; }
 	
 					//als maar 1 van de twee wel kan veranderen dan deze veranderen, andere niet
-					else if (isAccessiblePosition(new Position<Double>(getPosition().getX()+getHorizontalVelocity()
-					*t+getHorizontalAcceleration()
-					*Math.pow(t, 2)/2,
-					getPosition().getY()))) {
-	
-	
-						
-						if (isAccessiblePosition(new Position<Double>(getPosition().getX(),getPosition().getY()+
-								getVerticalVelocity()*t+getVerticalAcceleration()*Math.pow(t, 2)/2))) {
-							setVerticalAcceleration(0); }
+					else if (movement == MovementResult.BLOCKED_Y) {
 						
 						if (isOnGround() || isOnTopOfOtherGameObject) 
 							setVerticalAcceleration(0);
@@ -1033,16 +1198,16 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 						
 						else if (!isOnGround()) {
 							setVerticalAcceleration(STANDARD_VERTICAL_ACCELERATION);
-							dt += t; 
+							dt += step; 
 							}
 	
 						setVerticalVelocity(0);
-						setHorizontalVelocity(getHorizontalVelocity()+t*getHorizontalAcceleration()); 
+						setHorizontalVelocity(getHorizontalVelocity()+step*getHorizontalAcceleration()); 
 						}
 					
 					else {
 						if (isHorizontalMoving) {
-						if (getVelocity()[0] > 0) {
+						if (getHorizontalVelocity() > 0) {
 							lastDirection = "right";} 
 						else {
 							lastDirection = "left"; }
@@ -1050,12 +1215,19 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 						}
 						setCurrentSpriteEndedMove();
 	
-						setVerticalVelocity(getVerticalVelocity()+t*getVerticalAcceleration()); 
+						setVerticalVelocity(getVerticalVelocity()+step*getVerticalAcceleration()); 
 						} 
 					}
 			
+				if (profiler != null) 
+					start = profiler.startPhase();
 				setCurrentHitPoints();
-				setCurrentSprite(); } } 
+				if (profiler != null) {
+					profiler.endPhase(TickProfiler.PHASE_HIT_POINTS, start);
+					start = profiler.startPhase(); }
+				setCurrentSprite(); 
+				if (profiler != null) 
+					profiler.endPhase(TickProfiler.PHASE_SPRITES, start); } } 
 	
 		else {
 			DEATH_LIFETIME -= dt;
@@ -1065,10 +1237,35 @@ public class Mazub extends GameObject implements HorizontalMoving, VerticalMovin
 		
 		if(getHitPoints() == 0) {
 			isDead = true; }
-	} 
-	
-}
-
+	}
 
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.put((byte) ((firstTimeOverlappingWithShark ? 1 : 0) | (firstTimeOverlappingWithSlime ? 1 << 1 : 0)
+				| (firstTimeInWater ? 1 << 2 : 0) | (firstTimeInMagma ? 1 << 3 : 0) | (firstTimeInGas ? 1 << 4 : 0)));
+		buffer.putDouble(effectiveTimeInWater);
+		buffer.putDouble(timeNoDamageFromSlime);
+		buffer.putDouble(timeNoDamageFromShark);
+	}
 
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		int flags = buffer.get();
+		firstTimeOverlappingWithShark = (flags & 1) != 0;
+		firstTimeOverlappingWithSlime = (flags & 1 << 1) != 0;
+		firstTimeInWater = (flags & 1 << 2) != 0;
+		firstTimeInMagma = (flags & 1 << 3) != 0;
+		firstTimeInGas = (flags & 1 << 4) != 0;
+		effectiveTimeInWater = buffer.getDouble();
+		timeNoDamageFromSlime = buffer.getDouble();
+		timeNoDamageFromShark = buffer.getDouble();
+	}
 
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, 1 + 3 * Double.BYTES);
+	}
+}
@@ -0,0 +1,31 @@
+package jumpingalien.model;
+
+import be.kuleuven.cs.som.annotate.Value;
+
+/**
+ * An enumeration introducing the different outcomes of moving a game object to a new position
+ * during the advancement of time.
+ * 
+ * MOVED means the game object now stands at the new position.
+ * LEFT_WORLD means the new position lies outside of its world, so the game object has been terminated.
+ * BLOCKED means the game object could not move, without telling which part of the movement was blocked.
+ * BLOCKED_X means the horizontal part of the movement on its own is blocked.
+ * BLOCKED_Y means the horizontal part of the movement on its own is possible, but the vertical part is blocked.
+ * BLOCKED_DIAGONALLY means both parts of the movement are possible on their own, but not together.
+ * 
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@Value
+public enum MovementResult {
+	MOVED, LEFT_WORLD, BLOCKED, BLOCKED_X, BLOCKED_Y, BLOCKED_DIAGONALLY;
+	
+	/**
+	 * Return whether the game object did not reach the new position, but is still in its world.
+	 * 
+	 * @return	result == (this != MOVED && this != LEFT_WORLD)
+	 */
+	public boolean isBlocked() {
+		return (this != MOVED && this != LEFT_WORLD);
+	}
+}
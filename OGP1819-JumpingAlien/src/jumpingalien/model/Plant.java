@@ -1,5 +1,8 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 import be.kuleuven.cs.som.annotate.Raw;
 import jumpingalien.util.Sprite;
 
@@ -85,6 +88,41 @@ public class Plant extends GameObject {
 			isFalling = false; }
 	}
 
+	/**
+	 * The time in seconds after which a living plant is back where it was, moving in the same direction.
+	 */
+	protected static final double OSCILLATION_PERIOD = 1.0;
+
+	/**
+	 * The longest time in seconds a plant is advanced at once while it catches up with the time it was dormant.
+	 */
+	private static final double MAX_DORMANT_STEP = 0.2;
+
+	/**
+	 * Catch up with the given time this plant was dormant. The whole oscillation periods it lived through
+	 * only shorten its lifetime, since it is back where it was after each of them;
+	 * the rest of the time is advanced normally.
+	 *
+	 * @param 	time
+	 * 			The time this plant was dormant.
+	 * @effect	if (!isDead) then
+	 * 				the lifetime of this plant is shortened by periods * OSCILLATION_PERIOD,
+	 * 				with periods == Math.floor(Math.min(time, lifeTime) / OSCILLATION_PERIOD)
+	 * @effect	The remaining time is advanced with advanceTime, in steps of at most MAX_DORMANT_STEP,
+	 * 			until it has passed or this plant is terminated.
+	 */
+	@Override
+	protected void advanceDormantTime(double time) {
+		if (!isDead) {
+			double periods = Math.floor(Math.min(time, lifeTime) / OSCILLATION_PERIOD);
+			lifeTime -= periods * OSCILLATION_PERIOD;
+			time -= periods * OSCILLATION_PERIOD; }
+		while (time > 0 && !isTerminated) {
+			double step = Math.min(time, MAX_DORMANT_STEP);
+			advanceTime(step);
+			time -= step; }
+	}
+
 	/**
 	 * Variable registering how many times this plant is eaten.
 	 */
@@ -104,4 +142,28 @@ public class Plant extends GameObject {
 	 * Variable registering the time this game object is moving down continuously.
 	 */
 	public double timeMovingDown;
+
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.putInt(amountOfTimesEaten);
+		buffer.put((byte) (eatenWhileDead ? 1 : 0));
+		buffer.putDouble(timeMovingUp);
+		buffer.putDouble(timeMovingDown);
+	}
+
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		amountOfTimesEaten = buffer.getInt();
+		eatenWhileDead = buffer.get() != 0;
+		timeMovingUp = buffer.getDouble();
+		timeMovingDown = buffer.getDouble();
+	}
+
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, Integer.BYTES + 1 + 2 * Double.BYTES);
+	}
 }
@@ -1,7 +1,10 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -58,15 +61,15 @@ public class School {
 	 * @param world
 	 * 			The world to which this School will belong
 	 * @throws IllegalArgumentException
-	 * 			world.getAllSchools().size() >= 10
+	 * 			world.getNbSchools() >= world.getMaxNbSchools()
 	 * @effect 	world.assSchool(this)
 	 * @post	new.hasAsWorld = world
 	 */
 	public void setWorld(World world) throws IllegalArgumentException {
 		
 		if (world != null) {		
-			if (world.getAllSchools().size() >= 10) {
-				throw new IllegalArgumentException("Already 10 schools in this world."); } 
+			if (world.getNbSchools() >= world.getMaxNbSchools()) {
+				throw new IllegalArgumentException("Already " + world.getMaxNbSchools() + " schools in this world."); } 
 			else { 
 			world.addSchool(this);
 			hasAsWorld = world; } }
@@ -104,7 +107,29 @@ public class School {
 	/**
 	 * Variable registering all the Slimes in this School.
 	 */
-	public Set<Slime> allSlimes = new HashSet<Slime>();
+	final Set<Slime> allSlimes = new HashSet<Slime>();
+
+	/**
+	 * Variable registering a read-only view on all the Slimes in this School.
+	 */
+	private final Set<Slime> slimesView = Collections.unmodifiableSet(allSlimes);
+
+	/**
+	 * Returns a read-only view on all the Slimes in this School, which follows the changes to this School
+	 * without copying its Slimes.
+	 * @return result == allSlimes, unmodifiable
+	 */
+	public Set<Slime> getSlimes() {
+		return slimesView;
+	}
+
+	/**
+	 * Returns the number of Slimes in this School.
+	 * @return result == getSlimes().size()
+	 */
+	public int getNbSlimes() {
+		return allSlimes.size();
+	}
 
 	/**
 	 * Returns a copy of the collection of all the Slimes in this School.
@@ -139,11 +164,46 @@ public class School {
 	 * Returns if this School has a certain Slime in it.
 	 * @param slime
 	 * 			The Slime for which it is checked if it is in this School.
-	 * @return	result == getAllSlimes().contains(slime)
+	 * @return	result == getSlimes().contains(slime)
 	 */
 	public boolean hasAsSlime(Slime slime) {
-		return(getAllSlimes().contains(slime));
+		return(allSlimes.contains(slime));
 	}
+
+	/**
+	 * Returns the number of hit points every Slime of this School has lost because another Slime
+	 * of this School got hit, since this School was created.
+	 * Each Slime only takes the part of this damage dealt while it is in this School, when its hit points
+	 * are next looked at, so that a hit costs the same for a School of any size.
+	 */
+	@Basic
+	public int getDamage() {
+		return damage;
+	}
+
+	/**
+	 * Let every Slime of this School but the given Slime lose one hit point.
+	 * @param slime
+	 * 			The Slime of this School that got hit.
+	 * @effect	slime.applySchoolDamage()
+	 * @post	new.getDamage() == getDamage() + 1
+	 * @post	the damage dealt to the given slime is registered as taken.
+	 * @throws IllegalArgumentException
+	 * 			slime.getCurrentSchool() != this
+	 */
+	public void damageSlimesOtherThan(Slime slime) throws IllegalArgumentException {
+		if (slime.getCurrentSchool() != this)
+			throw new IllegalArgumentException("Not in school!");
+		slime.applySchoolDamage();
+		damage++;
+		slime.skipSchoolDamage();
+	}
+
+	/**
+	 * Variable registering the number of hit points every Slime of this School has lost because another Slime
+	 * of this School got hit.
+	 */
+	private int damage;
 	
 	/**
 	 * Terminate this School.
@@ -152,9 +212,28 @@ public class School {
 	public void terminate() {
 		terminated = true;
 	}
-	
-	
-	
-	
-}
 
+	/**
+	 * Write the state of this School to the given buffer, apart from its slimes, which belong to its world
+	 * (see World.writeSnapshot).
+	 */
+	void writeState(ByteBuffer buffer) {
+		buffer.put((byte) (terminated ? 1 : 0));
+		buffer.putInt(damage);
+	}
+
+	/**
+	 * Read the state of this School written by writeState from the given buffer.
+	 */
+	void readState(ByteBuffer buffer) {
+		terminated = buffer.get() != 0;
+		damage = buffer.getInt();
+	}
+
+	/**
+	 * Move the given buffer past the state written by writeState of a school, without changing this school.
+	 */
+	void skipState(ByteBuffer buffer) throws BufferUnderflowException {
+		GameObject.skipBytes(buffer, 1 + Integer.BYTES);
+	}
+}
@@ -1,5 +1,7 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import java.util.HashSet;
@@ -205,83 +207,96 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 	 */
 	@Override
 	public boolean isVerticalMoving() {
-		return (this.getVelocity()[1] != 0); }
+		return (this.getVerticalVelocity() != 0); }
 
 	
 	/**
-	 * Check whether this newPosition is an accessible position for this Shark.
-	 * Return 	result == newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)
-	 * 						&& !this.getWorld().validTiles(x, y, width, height)
-	 * 						&& newPositionedShark.isOverlappingWithGameObject(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithSlime = true if newPositionedShark.isOverlappingWithSlime(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithMazub = true if newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)
+	 * Check whether the given coordinates in meters are an accessible position for this Shark.
+	 * Return 	result == (probe & (World.PROBE_OVERLAPS_MAZUB | World.PROBE_BLOCKED_BY_TERRAIN | World.PROBE_OVERLAPS_GAME_OBJECT)) == 0
+	 * 			with probe == getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight())
+	 * @post	new.wouldOverlapWithSlime = true if (probe & World.PROBE_OVERLAPS_SLIME) != 0
+	 * @post	new.wouldOverlapWithMazub = true if (probe & World.PROBE_OVERLAPS_MAZUB) != 0
 	 */
 	@Override
-	public boolean isAccessiblePosition(Position<Double> newPosition) {
+	public boolean isAccessiblePosition(double newX, double newY) {
 		
-		int x = getPixelPosition(newPosition).getX();
-		int y = getPixelPosition(newPosition).getY();
-		int width = getCurrentSprite().getWidth();
-		int height = getCurrentSprite().getHeight();
-		
-			GameObject newPositionedShark = new GameObject(x, y, this.getAllSprites());		
-			newPositionedShark.currentSprite = this.getCurrentSprite();
-			Set<Object> gameObjectsCopy = this.getWorld().getAllGameObjects();
-			gameObjectsCopy.remove(this);
+		int x = toPixel(newX);
+		int y = toPixel(newY);
+		int probe = this.getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight(),
+				probedGameObjects);
 
-			if (newPositionedShark.isOverlappingWithSlime(gameObjectsCopy)) 
-				wouldOverlapWithSlime = true;
-			
-			if (newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)) 
-				wouldOverlapWithMazub = true;
-			
-			if (newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)) 	
-				return false;
-			
-			if(!this.getWorld().validTiles(x, y, width, height)) 
-				return false;
+		if ((probe & World.PROBE_OVERLAPS_SLIME) != 0)
+			wouldOverlapWithSlime = true;
 
-			if (newPositionedShark.isOverlappingWithGameObject(gameObjectsCopy)) 
-				return false;		
-			
-			return true; 		
+		if ((probe & World.PROBE_OVERLAPS_MAZUB) != 0)
+			wouldOverlapWithMazub = true;
+
+		if ((probe & World.PROBE_OVERLAPS_MAZUB) != 0)
+			return false;
+
+		if((probe & World.PROBE_BLOCKED_BY_TERRAIN) != 0)
+			return false;
+
+		if ((probe & World.PROBE_OVERLAPS_GAME_OBJECT) != 0)
+			return false;
+
+		return true; 		
 	}
 	
 	/**
 	 * Changes the position of this Shark to a new position
-	 * @param	newPosition
-	 * 			The new Position for this Shark.
-	 * @effect 	setPosition(newPosition)
-	 * @effect	if positionOutsideWorld(newPosition) then terminate()
+	 * @param	newX
+	 * 			The new x-coordinate for this Shark.
+	 * @param	newY
+	 * 			The new y-coordinate for this Shark.
+	 * @effect 	setPosition(newX, newY)
+	 * @effect	if positionOutsideWorld(newX, newY) then terminate()
 	 * @throws	IllegalArgumentException
-	 * 			Double.isNaN(newPosition.getX()) || Double.isNaN(newPosition.getY())
+	 * 			Double.isNaN(newX) || Double.isNaN(newY)
 	 * @throws	IllegalArgumentException
-	 * 			! validTiles(newPosition)
+	 * 			! validTiles(newX, newY)
 	 * @throws	IllegalArgumentException
-	 * 			!isAccessiblePosition(newPosition)
+	 * 			!isAccessiblePosition(newX, newY)
 	 */
 	@Override
-	public void changeActualPosition(Position<Double> newPosition) throws IllegalArgumentException {
-		if (Double.isNaN(newPosition.getX()) || Double.isNaN(newPosition.getY())) {
+	public void changeActualPosition(double newX, double newY) throws IllegalArgumentException {
+		if (Double.isNaN(newX) || Double.isNaN(newY)) {
 			throw new IllegalArgumentException("Cannot be NaN."); }
-		
-		if (getWorld() == null) {
-			setPosition(newPosition);
-			return;	}
-
-		if (!getWorld().validTiles((int) (newPosition.getX()*100), 
-				(int) (newPosition.getY()*100), getCurrentSprite().getWidth(), getCurrentSprite().getHeight() )) {
-			throw new IllegalArgumentException("Cannot be changed to a place with solid ground or ice.");}
-		
-		else {
-			if (getWorld().positionOutsideWorld(newPosition)) {
+		if (moveTo(newX, newY) == MovementResult.BLOCKED) 
+			throw new IllegalArgumentException("Cannot be changed to a place with solid ground or ice or be overlapping."); 
+	}
+	
+	/**
+	 * Move this Shark to the given position if it can stand there.
+	 * 
+	 * @param 	newX
+	 * 			The x-coordinate to move to.
+	 * @param 	newY
+	 * 			The y-coordinate to move to.
+	 * @effect	if (getWorld() == null || (getWorld().validTiles((int) (newX*100), (int) (newY*100), 
+	 * 				getCurrentSprite().getWidth(), getCurrentSprite().getHeight()) 
+	 * 				&& !getWorld().positionOutsideWorld(newX, newY) && isAccessiblePosition(newX, newY)))
+	 * 				then setPosition(newX, newY)
+	 * @return	MovementResult.BLOCKED if the tiles at (newX, newY) are not valid,
+	 * 			else MovementResult.LEFT_WORLD if getWorld().positionOutsideWorld(newX, newY), after terminate(),
+	 * 			else MovementResult.BLOCKED if !isAccessiblePosition(newX, newY),
+	 * 			else MovementResult.MOVED
+	 */
+	@Override
+	protected MovementResult moveTo(double newX, double newY) {
+		if (getWorld() != null) {
+			if (!getWorld().validTiles((int) (newX*100), 
+					(int) (newY*100), getCurrentSprite().getWidth(), getCurrentSprite().getHeight() )) 
+				return MovementResult.BLOCKED;
+			if (getWorld().positionOutsideWorld(newX, newY)) {
 				terminate();
-				return; }
-
-			if(!isAccessiblePosition(newPosition)) 
-				throw new IllegalArgumentException("Cannot be overlapping."); 
-			}
-		setPosition(newPosition); }
+				return MovementResult.LEFT_WORLD; }
+			if(!isAccessiblePosition(newX, newY)) 
+				return MovementResult.BLOCKED; 
+		}
+		setPosition(newX, newY); 
+		return MovementResult.MOVED;
+	}
 	
 	
 	@Override
@@ -363,6 +378,20 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 		}
 	}
 	
+	/**
+	 * Return an upper bound on the distance in meters this Shark can move along either axis
+	 * when it advances the given time. A shark may start a jump while advancing.
+	 * 
+	 * @param 	dt
+	 * 			The time to advance.
+	 * @return	result == Math.max(super.getMaximalDisplacement(dt), 
+	 * 				(2 + Math.abs(STANDARD_VERTICAL_ACCELERATION)*dt)*dt)
+	 */
+	@Override
+	public double getMaximalDisplacement(double dt) {
+		return Math.max(super.getMaximalDisplacement(dt), (2 + Math.abs(STANDARD_VERTICAL_ACCELERATION)*dt)*dt);
+	}
+	
 	/**
 	 * Ends the jump for this Shark.
 	 * @effect if getVerticalVelocity() > 0 then setVerticalVelocity(0)
@@ -377,13 +406,26 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 
 	/**
 	 * Places this Shark on top of solid ground incase it is inside solid ground.
+	 * This shark is raised in steps of 0.01 meter until it is no longer on ground, and then lowered 
+	 * by one step; the lowest position at which it is no longer on ground is looked up in its world,
+	 * instead of checking the terrain after each step.
 	 * 
+	 * @effect	setPosition(getPositionX(), y - 0.01), with y the result of adding 0.01 to getPositionY()
+	 * 			until toPixel(y) is a y-position at which this shark is not on ground.
 	 */
 	public void placeOnTopOfGround() {
-		while (this.isOnGround()) {
-			setPosition(new Position(getPosition().getX(), getPosition().getY() + 0.01 ));
-		}
-		setPosition(new Position(getPosition().getX(), getPosition().getY() - 0.01));
+		double y = getPositionY();
+		World world = getWorld();
+		if (world != null) {
+			int left = getPixelX() + 1;
+			int right = getPixelX() + getAllSprites()[0].getWidth() - 1;
+			int offGround = world.getLowestPositionOffGround(left, right, toPixel(y));
+			while (toPixel(y) < offGround) {
+				y += 0.01;
+				// A step may skip a row of pixels; the rows above it were not checked yet.
+				if (toPixel(y) > offGround) 
+					offGround = world.getLowestPositionOffGround(left, right, toPixel(y)); } }
+		setPosition(getPositionX(), y - 0.01);
  	}
 	
 	/**
@@ -422,16 +464,13 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 	//part of advancetime
 	public void hitPointsByGameObjects() {
 		
-		for (Object i : getWorld().getAllGameObjects()) {
-	
-			Set<Object> gameObjectsCopy = new HashSet<Object>();
-			gameObjectsCopy.add((Object) i);
+		for (Object i : getWorld().getGameObjectsNear(this)) {
 		
 				if (i instanceof Slime && i != this) {					
-					if ( this.collidesWith((GameObject) i)  || this.isNextTo((GameObject) i) || wouldOverlapWithSlime) {
+					if ( this.collidesWith((GameObject) i)  || this.isNextTo((GameObject) i) || probedGameObjects.contains(i)) {
 						this.addHitPoints(10); } }
 				if (i instanceof Mazub && i != this) {				
-					if ((this.isNextTo((GameObject) i) || wouldOverlapWithMazub)  && ((Mazub) i).firstTimeOverlappingWithShark) {
+					if ((this.isNextTo((GameObject) i) || probedGameObjects.contains(i))  && ((Mazub) i).firstTimeOverlappingWithShark) {
 							if (timeNoDamageFromMazub == 0) {
 								timeNoDamageFromMazub += 0.6;
 							((Mazub) i).firstTimeOverlappingWithShark = false;
@@ -485,7 +524,7 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 		if (isOnGround()) {
 			placeOnTopOfGround(); }
 		
-		if ((submergedInWater() && getVelocity()[1] < 0) || (isOnGround() && getVelocity()[1] < 0 )) {			
+		if ((submergedInWater() && getVerticalVelocity() < 0) || (isOnGround() && getVerticalVelocity() < 0 )) {			
 			setVerticalVelocity(0);
 			setVerticalAcceleration(0); }
 
@@ -539,19 +578,19 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 			
 			startJump(); }
 
-		if (isHorizontalMoving && (getVelocity()[0] > 0 || getAcceleration()[0] > 0)) {
+		if (isHorizontalMoving && (getHorizontalVelocity() > 0 || getHorizontalAcceleration() > 0)) {
 			timeMovingRight += t_copy; }
 		
 		else {
 			timeMovingRight = 0; }
 		
-		if (isHorizontalMoving && (getVelocity()[0] < 0 || getAcceleration()[0] < 0)) {
+		if (isHorizontalMoving && (getHorizontalVelocity() < 0 || getHorizontalAcceleration() < 0)) {
 			timeMovingLeft += t_copy; }
 		
 		else {
 			timeMovingLeft = 0; }
 		
-		if (getVelocity()[0] == 0) {
+		if (getHorizontalVelocity() == 0) {
 			if (timeResting - t_copy <= 0) {
 				timeResting = 0;
 			}
@@ -599,6 +638,8 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 			
 			wouldOverlapWithSlime = false;
 			
+			probedGameObjects.clear();
+			
 			isDoneJumping = false;
 			
 			setPeriodTimers(t, dt);
@@ -612,27 +653,20 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 			setCorrectMovement();
 	
 			
-			try {
-				changeActualPosition(new Position(getPosition().getX()+getHorizontalVelocity()*t_copy + getHorizontalAcceleration()
-				*Math.pow(t_copy, 2)/2,
-				getPosition().getY()+getVerticalVelocity()
-				*t_copy+getVerticalAcceleration()*Math.pow(t_copy, 2)/2));
-	
+			MovementResult movement = resolveMovement(getPositionX()+getHorizontalVelocity()*t_copy 
+					+ getHorizontalAcceleration()*Math.pow(t_copy, 2)/2,
+					getPositionY()+getVerticalVelocity()
+					*t_copy+getVerticalAcceleration()*Math.pow(t_copy, 2)/2);
+			
+			if (!movement.isBlocked()) {
 				setHorizontalVelocity((getHorizontalVelocity()+t_copy*getHorizontalAcceleration()));
 				setVerticalVelocity(getVerticalVelocity()+t_copy*getVerticalAcceleration());
 			
-				}catch (IllegalArgumentException ex) {
+				} else {
 						
 					//als zowel de horizontale verplaatsing en de verticale verplaatsing apart mogelijk zijn, maar niet
 					//tesamen, dan mag mazub de beweging niet uitvoeren
-					if (isAccessiblePosition(new Position(getPosition().getX()+getHorizontalVelocity()
-					*t_copy+getHorizontalAcceleration()
-					*Math.pow(t_copy, 2)/2,
-					getPosition().getY())) && 
-					isAccessiblePosition(new Position(getPosition().getX(),
-					getPosition().getY()+getVerticalVelocity()
-					*t_copy+getVerticalAcceleration()*Math.pow(t_copy, 2)/2)) 
-					) {
+					if (movement == MovementResult.BLOCKED_DIAGONALLY) {
 					
 						setHorizontalVelocity(0);
 						setVerticalVelocity(0);
@@ -642,19 +676,12 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 					
 					
 					//als maar 1 van de twee wel kan veranderen dan deze veranderen, andere niet
-					else if (isAccessiblePosition(new Position(getPosition().getX()+getHorizontalVelocity()
-					*t_copy+getHorizontalAcceleration()
-					*Math.pow(t_copy, 2)/2,
-					getPosition().getY()))) {
+					else if (movement == MovementResult.BLOCKED_Y) {
 	
 						if (!isOnGround()) {
 							setVerticalAcceleration(STANDARD_VERTICAL_ACCELERATION);
 							}
 						
-						else if (isAccessiblePosition(new Position(getPosition().getX(),getPosition().getY()+
-								getVerticalVelocity()*t_copy+getVerticalAcceleration()*Math.pow(t_copy, 2)/2))) {
-							setVerticalAcceleration(0); }
-						
 						if (isOnGround()) {
 							setVerticalAcceleration(0); }
 						
@@ -668,6 +695,35 @@ public class Shark extends GameObject implements HorizontalMoving, VerticalMovin
 			setCurrentHitPoints(); } }
 	}
 
-	
-}
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.put((byte) ((firstTimeOutOfWater ? 1 : 0) | (isDoneJumping ? 1 << 1 : 0)));
+		buffer.putDouble(timeResting);
+		buffer.putDouble(timeBlockedBySlime);
+		buffer.putDouble(timeNoDamageFromMazub);
+		buffer.putDouble(timeOutOfWater);
+		buffer.putDouble(effectiveTimeOutOfWater);
+		buffer.putDouble(t_copy);
+	}
 
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		int flags = buffer.get();
+		firstTimeOutOfWater = (flags & 1) != 0;
+		isDoneJumping = (flags & 1 << 1) != 0;
+		timeResting = buffer.getDouble();
+		timeBlockedBySlime = buffer.getDouble();
+		timeNoDamageFromMazub = buffer.getDouble();
+		timeOutOfWater = buffer.getDouble();
+		effectiveTimeOutOfWater = buffer.getDouble();
+		t_copy = buffer.getDouble();
+	}
+
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, 1 + 6 * Double.BYTES);
+	}
+}
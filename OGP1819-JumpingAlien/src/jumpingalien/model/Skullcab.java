@@ -1,5 +1,8 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import jumpingalien.util.Sprite;
@@ -15,7 +18,7 @@ import jumpingalien.util.Sprite;
  * 
  */
 @SuppressWarnings("all")
-public class Skullcab extends Plant implements VerticalMoving{
+public class Skullcab extends Plant implements VerticalMoving, ContactListener{
 
 	/**
 	 * Initialize this new skullcab with given x-position, given y position and given sprites.
@@ -143,7 +146,7 @@ public class Skullcab extends Plant implements VerticalMoving{
 		 */
 		@Override
 		public boolean isVerticalMoving() {
-			return (this.getVelocity()[1] != 0); }
+			return (this.getVerticalVelocity() != 0); }
 		
 
 		
@@ -170,24 +173,31 @@ public class Skullcab extends Plant implements VerticalMoving{
 				}
 			else if (direction == "down") {
 				lastDirection = "down";
-				if (getPosition().getY() != 0) { 
+				if (getPositionY() != 0) { 
 					setVerticalVelocity(-0.5);
 					setOrientation(-1); 
 					currentSprite = allSprites[1]; } } 
 		}
 		
 		
+		/**
+		 * Variable registering how long this skullcab has been overlapping with Mazub, 
+		 * counted from the beginning of their contact by both of them.
+		 */
 		double timeOverlappingWithMazub = 0;
 		
 		double effectiveTimeOverlappingWithMazub;
 		
+		/**
+		 * Variable registering whether Mazub has not eaten from this skullcab yet during their current contact.
+		 */
 		boolean firstTimeOverlappingWithMazub = true;
 		
 
 		//part of advancetime
 		public void setTimers(double t) {
 			//Updating how long this plant is moving in a certain direction in case it is moving
-			if (isVerticalMoving && getVelocity()[1] > 0) {
+			if (isVerticalMoving && getVerticalVelocity() > 0) {
 				
 				timeMovingUp += t; }
 				
@@ -195,18 +205,56 @@ public class Skullcab extends Plant implements VerticalMoving{
 				
 				timeMovingUp = 0; }
 			
-			if (isVerticalMoving && getVelocity()[1] < 0) {
+			if (isVerticalMoving && getVerticalVelocity() < 0) {
 				timeMovingDown += t; }
 			else {
 				timeMovingDown = 0; }
 			//Updating how long this plant would be overlapping with Mazub, if they are overlapping.
 			
-			if (this.getWorld() != null) {
-				if(this.getWorld().getMazub() != null && this.collidesWithMazub())
-					timeOverlappingWithMazub += t;
-				else {				
-					timeOverlappingWithMazub = 0;
-					firstTimeOverlappingWithMazub = true; } } }
+			if (this.getWorld() != null) 
+				this.getWorld().updateContacts(this, t); }
+		
+		/**
+		 * Check whether this skullcab wants to be told about its contacts with the given game object.
+		 * 
+		 * @return	result == (other instanceof Mazub)
+		 */
+		@Override
+		public boolean isInterestedInContactWith(GameObject other) {
+			return other instanceof Mazub;
+		}
+		
+		/**
+		 * Start counting how long this skullcab overlaps with the given mazub.
+		 * 
+		 * @effect	contactPersisted(other, dt)
+		 */
+		@Override
+		public void contactBegan(GameObject other, double dt) {
+			contactPersisted(other, dt);
+		}
+		
+		/**
+		 * Count how long this skullcab overlaps with the given mazub.
+		 * 
+		 * @post	new.timeOverlappingWithMazub == timeOverlappingWithMazub + dt
+		 */
+		@Override
+		public void contactPersisted(GameObject other, double dt) {
+			timeOverlappingWithMazub += dt;
+		}
+		
+		/**
+		 * Stop counting how long this skullcab overlaps with the given mazub.
+		 * 
+		 * @post	new.timeOverlappingWithMazub == 0
+		 * @post	new.firstTimeOverlappingWithMazub == true
+		 */
+		@Override
+		public void contactEnded(GameObject other) {
+			timeOverlappingWithMazub = 0;
+			firstTimeOverlappingWithMazub = true;
+		}
 		
 		@Override
 		public void advanceTime(double dt) throws IllegalArgumentException {
@@ -240,8 +288,8 @@ public class Skullcab extends Plant implements VerticalMoving{
 					setTimers(t);
 
 					//Implementing all aspects concerning the horizontal movement.
-					setPosition(new Position(getPosition().getX(),
-							getPosition().getY()+getVerticalVelocity()*t));
+					setPosition(getPositionX(),
+							getPositionY()+getVerticalVelocity()*t);
 					
 					if (timeMovingUp >= 0.5) 
 						startMove("down"); 
@@ -262,7 +310,7 @@ public class Skullcab extends Plant implements VerticalMoving{
 				
 					if (this.getWorld() != null) {
 						
-						if (this.getWorld().outsideBoundaries(getPixelPosition().getX(), getPixelPosition().getY())) {
+						if (this.getWorld().outsideBoundaries(getPixelX(), getPixelY())) {
 							terminate();
 							return; } 
 						
@@ -292,5 +340,26 @@ public class Skullcab extends Plant implements VerticalMoving{
 							isDead = true; }
 						if (this.getHitPoints() > 3 - amountOfTimesEaten)
 							setHitPoints(3-amountOfTimesEaten); } }
+
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.put((byte) (firstTimeOverlappingWithMazub ? 1 : 0));
+		buffer.putDouble(timeOverlappingWithMazub);
+		buffer.putDouble(effectiveTimeOverlappingWithMazub);
+	}
+
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		firstTimeOverlappingWithMazub = buffer.get() != 0;
+		timeOverlappingWithMazub = buffer.getDouble();
+		effectiveTimeOverlappingWithMazub = buffer.getDouble();
 	}
 
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, 1 + 2 * Double.BYTES);
+	}
+}
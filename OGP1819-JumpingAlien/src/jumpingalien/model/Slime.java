@@ -1,5 +1,7 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.Set;
 
 import be.kuleuven.cs.som.annotate.Basic;
@@ -18,9 +20,13 @@ import jumpingalien.util.Sprite;
  */
 public class Slime extends GameObject implements HorizontalMoving{
 	
-	public Slime(long id, int x, int y, School school, Sprite...sprites) throws IllegalArgumentException{
+	public Slime(long id, int x, int y, School school, SlimeIdRegistry slimeIds, Sprite...sprites) 
+			throws IllegalArgumentException{
 		super(x, y, sprites);
+		if (slimeIds == null) 
+			throw new IllegalArgumentException("No registry for the ID.");
 		this.id = id;
+		this.slimeIds = slimeIds;
 		setMaxHorizontalVelocity(2.5);
 		STANDARD_HORIZONTAL_ACCELERATION = 0.7;
 		setHorizontalAcceleration(STANDARD_HORIZONTAL_ACCELERATION);
@@ -33,7 +39,7 @@ public class Slime extends GameObject implements HorizontalMoving{
 		school.addAsSlime(this);}	
 		if(id < 0 && !(id != (int) id)) {
 			throw new IllegalArgumentException("No valid ID.");	}	
-		World.Instance.addSlimeId((int)id);
+		slimeIds.add(id);
 	}
 	
 	
@@ -156,78 +162,111 @@ public class Slime extends GameObject implements HorizontalMoving{
 	}
 	
 	/**
-	 * Check whether this newPosition is an accessible position for this Slime.
-	 * Return 	result == newPositionedSlime.isOverlappingWithMazub(gameObjectsCopy)
-	 * 						&& !this.getWorld().validTiles(x, y, width, height)
-	 * 						&& newPositionedSlime.isOverlappingWithGameObject(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithSlime = true if newPositionedShark.isOverlappingWithSlime(gameObjectsCopy)
-	 * @post	new.wouldOverlapWithMazub = true if newPositionedShark.isOverlappingWithMazub(gameObjectsCopy)
+	 * Check whether the given coordinates in meters are an accessible position for this Slime.
+	 * Return 	result == (probe & (World.PROBE_BLOCKED_BY_TERRAIN | World.PROBE_OVERLAPS_GAME_OBJECT)) == 0
+	 * 			with probe == getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight())
+	 * @post	new.wouldOverlapWithSlime = true if (probe & World.PROBE_OVERLAPS_SLIME) != 0
+	 * @post	new.wouldOverlapWithMazub = true if (probe & World.PROBE_OVERLAPS_MAZUB) != 0
 	 */
 	@Override
-	public boolean isAccessiblePosition(Position<Double> newPosition) {
+	public boolean isAccessiblePosition(double newX, double newY) {
 		
-		int x = getPixelPosition(newPosition).getX();
-		int y = getPixelPosition(newPosition).getY();
-		int width = getCurrentSprite().getWidth();
-		int height = getCurrentSprite().getHeight();
-		
-			GameObject newPositionedSlime = new GameObject(x, y, 
-					 this.getAllSprites());		
-			newPositionedSlime.currentSprite = this.getCurrentSprite();
-			Set<Object> gameObjectsCopy = this.getWorld().getAllGameObjects();
-			gameObjectsCopy.remove(this);
-
-			if (newPositionedSlime.isOverlappingWithMazub(gameObjectsCopy)) 
-				wouldOverlapWithMazub = true;	
-			
-			if (newPositionedSlime.isOverlappingWithSlime(gameObjectsCopy)) 
-				wouldOverlapWithSlime = true;
+		int x = toPixel(newX);
+		int y = toPixel(newY);
+		int probe = this.getWorld().probeHitbox(this, x, y, getCurrentSprite().getWidth(), getCurrentSprite().getHeight(),
+				probedGameObjects);
 
-			if(!this.getWorld().validTiles(x, y, width, height)) 
-				return false;
-			
-			if (newPositionedSlime.isOverlappingWithGameObject(gameObjectsCopy)) 
-				return false;		
-			
-			return true; 	
+		if ((probe & World.PROBE_OVERLAPS_MAZUB) != 0)
+			wouldOverlapWithMazub = true;
+
+		if ((probe & World.PROBE_OVERLAPS_SLIME) != 0)
+			wouldOverlapWithSlime = true;
+
+		if((probe & World.PROBE_BLOCKED_BY_TERRAIN) != 0)
+			return false;
+
+		if ((probe & World.PROBE_OVERLAPS_GAME_OBJECT) != 0)
+			return false;
+
+		return true; 	
 	}
 	
 	/**
 	 * Changes the position of this Slime to a new position
-	 * @param	newPosition
-	 * 			The new Position for this Slime.
-	 * @effect 	setPosition(newPosition)
-	 * @effect	if positionOutsideWorld(newPosition) then terminate()
+	 * @param	newX
+	 * 			The new x-coordinate for this Slime.
+	 * @param	newY
+	 * 			The new y-coordinate for this Slime.
+	 * @effect 	setPosition(newX, newY)
+	 * @effect	if positionOutsideWorld(newX, newY) then terminate()
 	 * @throws	IllegalArgumentException
-	 * 			Double.isNaN(newPosition.getX()) || Double.isNaN(newPosition.getY())
+	 * 			Double.isNaN(newX) || Double.isNaN(newY)
 	 * @throws	IllegalArgumentException
-	 * 			! validTiles(newPosition)
+	 * 			! validTiles(newX, newY)
 	 * @throws	IllegalArgumentException
-	 * 			!isAccessiblePosition(newPosition)
+	 * 			!isAccessiblePosition(newX, newY)
 	 */
 	@Override
-	public void changeActualPosition(Position<Double> newPosition) throws IllegalArgumentException {
-		if (Double.isNaN(newPosition.getX()) || Double.isNaN(newPosition.getY())) {
+	public void changeActualPosition(double newX, double newY) throws IllegalArgumentException {
+		if (Double.isNaN(newX) || Double.isNaN(newY)) {
 			throw new IllegalArgumentException("Cannot be NaN."); }
-		
-		if (getWorld() == null) {
-			setPosition(newPosition);
-			return;	}
-
-		if (!getWorld().validTiles((int) (newPosition.getX()*100), 
-				(int) (newPosition.getY()*100), getCurrentSprite().getWidth(), getCurrentSprite().getHeight() )) {
-			throw new IllegalArgumentException("Cannot be changed to a place with solid ground or ice.");}
-		
-		else {
-			if (getWorld().positionOutsideWorld(newPosition)) {
+		if (moveTo(newX, newY) == MovementResult.BLOCKED) 
+			throw new IllegalArgumentException("Cannot be changed to a place with solid ground or ice or be overlapping."); 
+	}
+	
+	/**
+	 * Move this Slime to the given position if it can stand there.
+	 * 
+	 * @param 	newX
+	 * 			The x-coordinate to move to.
+	 * @param 	newY
+	 * 			The y-coordinate to move to.
+	 * @effect	if (getWorld() == null || (getWorld().validTiles((int) (newX*100), (int) (newY*100), 
+	 * 				getCurrentSprite().getWidth(), getCurrentSprite().getHeight()) 
+	 * 				&& !getWorld().positionOutsideWorld(newX, newY) && isAccessiblePosition(newX, newY)))
+	 * 				then setPosition(newX, newY)
+	 * @return	MovementResult.BLOCKED if the tiles at (newX, newY) are not valid,
+	 * 			else MovementResult.LEFT_WORLD if getWorld().positionOutsideWorld(newX, newY), after terminate(),
+	 * 			else MovementResult.BLOCKED if !isAccessiblePosition(newX, newY),
+	 * 			else MovementResult.MOVED
+	 */
+	@Override
+	protected MovementResult moveTo(double newX, double newY) {
+		if (getWorld() != null) {
+			if (!getWorld().validTiles((int) (newX*100), 
+					(int) (newY*100), getCurrentSprite().getWidth(), getCurrentSprite().getHeight() )) 
+				return MovementResult.BLOCKED;
+			if (getWorld().positionOutsideWorld(newX, newY)) {
 				terminate();
-				return; }
-			
-			if(!isAccessiblePosition(newPosition)) 
-				throw new IllegalArgumentException("Cannot be overlapping."); 
-			}
-
-		setPosition(newPosition); }
+				return MovementResult.LEFT_WORLD; }
+			if(!isAccessiblePosition(newX, newY)) 
+				return MovementResult.BLOCKED; 
+		}
+		setPosition(newX, newY); 
+		return MovementResult.MOVED;
+	}
+	
+	/**
+	 * Move this Slime to the given position during the advancement of time. 
+	 * Slimes only move horizontally, so a blocked movement is always blocked in x.
+	 * 
+	 * @param 	newX
+	 * 			The x-coordinate to move to.
+	 * @param 	newY
+	 * 			The y-coordinate to move to.
+	 * @return	if (moveTo(newX, newY) == MovementResult.BLOCKED || Double.isNaN(newX) || Double.isNaN(newY))
+	 * 				then result == MovementResult.BLOCKED_X
+	 * 			else result == moveTo(newX, newY)
+	 */
+	@Override
+	public MovementResult resolveMovement(double newX, double newY) {
+		if (Double.isNaN(newX) || Double.isNaN(newY)) 
+			return MovementResult.BLOCKED_X;
+		MovementResult result = moveTo(newX, newY);
+		if (result == MovementResult.BLOCKED) 
+			return MovementResult.BLOCKED_X;
+		return result;
+	}
 	
 	
 	@Override
@@ -262,7 +301,27 @@ public class Slime extends GameObject implements HorizontalMoving{
 	/**
 	 * Variable registering the id of this slime.
 	 */
-	private final long id;
+	private long id;
+
+	/**
+	 * Set the id of this slime, without registering it (see World.restoreSnapshot).
+	 */
+	void setId(long id) {
+		this.id = id;
+	}
+
+	/**
+	 * Return the registry in which the id of this slime is registered.
+	 */
+	@Basic
+	public SlimeIdRegistry getSlimeIdRegistry() {
+		return slimeIds;
+	}
+	
+	/**
+	 * Variable registering the registry in which the id of this slime is registered.
+	 */
+	private final SlimeIdRegistry slimeIds;
 
 	/**
 	 * Starts the horizontal movement for this Slime.
@@ -287,7 +346,7 @@ public class Slime extends GameObject implements HorizontalMoving{
 		}
 	else if (direction == "left") {
 		lastDirection = "left";
-		if (getPosition().getX() != 0) { 
+		if (getPositionX() != 0) { 
 			setHorizontalVelocity(0);
 			setHorizontalAcceleration(-STANDARD_HORIZONTAL_ACCELERATION);
 			setOrientation(-1); 
@@ -307,8 +366,17 @@ public class Slime extends GameObject implements HorizontalMoving{
 		return currentSchool;
 	}
 
+	/**
+	 * Set the current school of this Slime, after this Slime took the damage dealt to its previous school.
+	 * @param currentSchool
+	 * 			The new school of this Slime.
+	 * @effect	applySchoolDamage()
+	 * @post	new.getCurrentSchool() == currentSchool
+	 */
 	public void setCurrentSchool(School currentSchool) {
+		applySchoolDamage();
 		this.currentSchool = currentSchool;
+		skipSchoolDamage();
 	}
 	
 	public boolean isInSchool() {
@@ -320,25 +388,37 @@ public class Slime extends GameObject implements HorizontalMoving{
 			throw new IllegalArgumentException("Has no school.");
 		}
 		
-		
-		for (Slime i: this.getCurrentSchool().getAllSlimes()) {
+		int nbOthers = 0;
+		for (Slime i: this.getCurrentSchool().getSlimes()) {
 			if(i != this) {
 				i.addHitPoints(1);
-				this.addHitPoints(-1);} }
+				nbOthers++; } }
+		applySchoolDamage();
+		addHitPointsRepeatedly(-1, nbOthers);
 
 		this.getCurrentSchool().removeSlime(this);
 		school.addAsSlime(this);
 		
-		for (Slime i: this.getCurrentSchool().getAllSlimes()) {
-			if(i != this) {
-				i.addHitPoints(-1);
-				this.addHitPoints(1);} }
-		
-		
+		nbOthers = this.getCurrentSchool().getNbSlimes() - 1;
+		if (nbOthers > 0) {
+			this.getCurrentSchool().damageSlimesOtherThan(this);
+			addHitPointsRepeatedly(1, nbOthers); }
 	}
 
 	private School currentSchool;
 
+	/**
+	 * Move this Slime to the given school, or out of its school if it is null, as it was in a snapshot
+	 * of its world, without taking or skipping any damage of either school (see World.restoreSnapshot).
+	 */
+	void restoreSchool(School school) {
+		if (currentSchool != null)
+			currentSchool.allSlimes.remove(this);
+		currentSchool = school;
+		if (school != null)
+			school.allSlimes.add(this);
+	}
+
 	@Override
 	public void terminate() {
 		if (this.getWorld()!=null) {	
@@ -347,13 +427,13 @@ public class Slime extends GameObject implements HorizontalMoving{
 		isTerminated = true;
 		if (isInSchool()) {
 			getCurrentSchool().removeSlime(this); }
-		World.Instance.removeSlimeId((int) id );	
+		slimeIds.remove(id);
 	}
 	
 	public void setCurrentSprite() {
-		if (this.getVelocity()[0] > 0) 
+		if (this.getHorizontalVelocity() > 0) 
 			currentSprite = getAllSprites()[0];
-		else if (this.getVelocity()[0] < 0) 
+		else if (this.getHorizontalVelocity() < 0) 
 			currentSprite = getAllSprites()[1];	
 	}
 	
@@ -369,23 +449,24 @@ public class Slime extends GameObject implements HorizontalMoving{
 		
 		if (this.getWorld() != null) {
 				
-			if (this.getWorld().outsideBoundaries(getPixelPosition().getX(), getPixelPosition().getY())) {
+			if (this.getWorld().outsideBoundaries(getPixelX(), getPixelY())) {
 				terminate();
 				return; } 
 			
-			if (this.isInMagma()) {
+			int features = getGeologicalFeatures();
+			if ((features & Tile.MAGMA.getMask()) != 0) {
 				this.terminate();
 	
 					return; }
 			
-			if (this.isInWater()) {
+			if ((features & Tile.WATER.getMask()) != 0) {
 				if(timeInWater >= 0.4) {
 					while(timeInWater >= 0.4) {
 						this.addHitPoints(-4);
 						reduceHitPointsSchool();
 						timeInWater -= 0.4; } } } 
 		
-			if (this.isInGas()) {
+			if ((features & Tile.GAS.getMask()) != 0) {
 				if (timeInGas >= 0.3) {
 					while (timeInGas >= 0.3) {
 						this.addHitPoints(2);
@@ -396,9 +477,9 @@ public class Slime extends GameObject implements HorizontalMoving{
 
 	public void hitPointsByGameObjects() {
 		
-		for (Object i:this.getWorld().getAllGameObjects()) {		
+		for (Object i:this.getWorld().getGameObjectsNear(this)) {		
 			if (i instanceof Slime && i != this) {
-				if ((this.collidesWith((Slime) i ) || wouldOverlapWithSlime) && !reversedDirection) {
+				if ((this.collidesWith((Slime) i ) || probedGameObjects.contains(i)) && !reversedDirection) {
 					
 					if(!this.isStationary()) {
 					
@@ -406,13 +487,13 @@ public class Slime extends GameObject implements HorizontalMoving{
 					reversedDirection = true;
 	
 					if(this.isInSchool() && ((Slime) i).isInSchool()) {
-						if (this.getCurrentSchool().getAllSlimes().size() < ((Slime) i).getCurrentSchool().getAllSlimes().size()) {
+						if (this.getCurrentSchool().getNbSlimes() < ((Slime) i).getCurrentSchool().getNbSlimes()) {
 							this.switchSchool(((Slime) i).getCurrentSchool()); } } }
 				}	
 			}
 			if (i instanceof Mazub && i != this) {
 				
-				if ((this.isNextTo((GameObject) i) || wouldOverlapWithMazub)&& ((Mazub) i).firstTimeOverlappingWithSlime) {
+				if ((this.isNextTo((GameObject) i) || probedGameObjects.contains(i))&& ((Mazub) i).firstTimeOverlappingWithSlime) {
 					if (!this.isStationary()) {
 						if (timeNoDamageFromMazub == 0) {
 							timeNoDamageFromMazub += 0.6;
@@ -427,24 +508,110 @@ public class Slime extends GameObject implements HorizontalMoving{
 
 	public void reduceHitPointsSchool () {
 		if (this.getCurrentSchool() != null) {
-			for (Slime i : this.getCurrentSchool().getAllSlimes() ) {
-				if (this != i) {
-					i.addHitPoints(-1); } } }
+			this.getCurrentSchool().damageSlimesOtherThan(this); }
+	}
+
+	/**
+	 * Return the amount of hitpoints of this Slime, after it took the damage dealt to its school.
+	 * 
+	 * @effect	applySchoolDamage()
+	 * @return	result == this.hitPoints
+	 */
+	@Override
+	public int getHitPoints() {
+		applySchoolDamage();
+		return this.hitPoints;
+	}
+
+	/**
+	 * Set the amount of hitpoints of this Slime to the value, after it took the damage dealt to its school.
+	 * 
+	 * @effect	applySchoolDamage()
+	 * @effect	super.setHitPoints(value)
+	 */
+	@Override
+	public void setHitPoints(double value) {
+		applySchoolDamage();
+		super.setHitPoints(value);
+	}
+
+	/**
+	 * Return whether this Slime is dead, after it took the damage dealt to its school.
+	 * 
+	 * @effect	applySchoolDamage()
+	 * @return	result == this.isDead
+	 */
+	@Override
+	public boolean isDead() {
+		applySchoolDamage();
+		return this.isDead;
+	}
+
+	/**
+	 * Let this Slime lose the hit points its school dealt to its slimes since this Slime last took that damage,
+	 * one hit point per hit, as if it had lost them on each hit.
+	 * 
+	 * @effect	if isInSchool() then
+	 * 				addHitPointsRepeatedly(-1, getCurrentSchool().getDamage() - takenSchoolDamage)
+	 */
+	void applySchoolDamage() {
+		if (currentSchool != null) {
+			int pending = currentSchool.getDamage() - takenSchoolDamage;
+			if (pending != 0) {
+				takenSchoolDamage = currentSchool.getDamage();
+				addHitPointsRepeatedly(-1, pending); } }
+	}
+
+	/**
+	 * Register the damage dealt to the school of this Slime so far as taken, without losing any hit points.
+	 * 
+	 * @post	if isInSchool() then new.takenSchoolDamage == getCurrentSchool().getDamage()
+	 */
+	void skipSchoolDamage() {
+		takenSchoolDamage = (currentSchool == null) ? 0 : currentSchool.getDamage();
+	}
+
+	/**
+	 * Variable registering the damage dealt to the school of this Slime that this Slime has taken.
+	 */
+	private int takenSchoolDamage;
+
+	/**
+	 * Add the given number of hit points to this Slime the given number of times at once, with the same
+	 * result as adding them one at a time: this Slime dies if it has no hit points before one of the additions.
+	 * 
+	 * @param	value
+	 * 			The number of hit points to add each time, either 1 or -1.
+	 * @param	times
+	 * 			The number of times to add them.
+	 * @post	new.hitPoints == hitPoints + value * times
+	 * @post	if 0 is one of hitPoints + value * k for 0 <= k < times
+	 * 			then new.isDead == true
+	 */
+	private void addHitPointsRepeatedly(int value, int times) {
+		if (times <= 0)
+			return;
+		int first = hitPoints;
+		int last = hitPoints + value * (times - 1);
+		if (Math.min(first, last) <= 0 && Math.max(first, last) >= 0)
+			isDead = true;
+		hitPoints += value * times;
 	}
 	
 	public boolean reversedDirection = false;
 	
 	@Override
 	public void advanceTime(double dt) throws IllegalArgumentException {
-		if (!isDead) {
+		if (!isDead()) {
 			reversedDirection = false;
 			
 		double t = 0.01/(0.5);
 		
-		while (dt>0 && !isDead) {
+		while (dt>0 && !isDead()) {
 			
 			wouldOverlapWithMazub = false;
 			wouldOverlapWithSlime = false;
+			probedGameObjects.clear();
 				
 			if (t > dt) {
 				t = dt; }
@@ -458,40 +625,60 @@ public class Slime extends GameObject implements HorizontalMoving{
 			timeNoDamageFromMazub -= t;
 		}
 		
-		if(this.isInMagma()) {
+		int features = getGeologicalFeatures();
+		if((features & Tile.MAGMA.getMask()) != 0) {
 			terminate();
 			return;}
 		else {
 			timeInMagma = 0; }
-		if(this.isInWater() && !(this.isInGas() || this.isInMagma()))   {
+		if((features & Tile.WATER.getMask()) != 0 && (features & Tile.GAS.getMask()) == 0)   {
 			timeInWater += t; }
 		else {
 			timeInWater = 0;
 			 }
-		if(this.isInGas()) {
+		if((features & Tile.GAS.getMask()) != 0) {
 			timeInGas += t; }
 		else {
 			timeInGas = 0; }
 		
 
-		try {
-		changeActualPosition(new Position<Double>(getPosition().getX()+getHorizontalVelocity()*t + getHorizontalAcceleration()
-		*Math.pow(t, 2)/2,
-		getPosition().getY()));
-		
-		setHorizontalVelocity((getHorizontalVelocity()+t*getHorizontalAcceleration()));
-		
-		} catch (IllegalArgumentException ex) {		
+		if (!resolveMovement(getPositionX()+getHorizontalVelocity()*t + getHorizontalAcceleration()
+				*Math.pow(t, 2)/2, getPositionY()).isBlocked()) 
+			setHorizontalVelocity((getHorizontalVelocity()+t*getHorizontalAcceleration()));
+		else 		
 			setHorizontalVelocity(0);
-		}
 		setCurrentHitPoints(); 
 		setCurrentSprite();
 		
 		if (this.getWorld() != null) {
-			if (this.getWorld().outsideBoundaries(getPixelPosition().getX(), getPixelPosition().getY())) {
+			if (this.getWorld().outsideBoundaries(getPixelX(), getPixelY())) {
 				terminate();
 				return; } } } }
 		
 		}
-}
 
+	/**
+	 * Write the state of this Slime to the given buffer, apart from its id and its school, which its world writes.
+	 */
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.put((byte) (reversedDirection ? 1 : 0));
+		buffer.putDouble(timeNoDamageFromMazub);
+		buffer.putInt(takenSchoolDamage);
+	}
+
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		reversedDirection = buffer.get() != 0;
+		timeNoDamageFromMazub = buffer.getDouble();
+		takenSchoolDamage = buffer.getInt();
+	}
+
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, 1 + Double.BYTES + Integer.BYTES);
+	}
+}
@@ -0,0 +1,185 @@
+package jumpingalien.model;
+
+import java.util.Arrays;
+
+/**
+ * A class of registries of the identifications of slimes that exist in one simulation.
+ * No two slimes registered in the same registry can have the same identification,
+ * but slimes of different registries never affect each other, so that several simulations
+ * can run side by side.
+ * The identifications are kept in an open-addressing hash table of primitive longs, so adding,
+ * looking up and removing an identification take constant time and allocate nothing
+ * unless the table has to grow.
+ *
+ * @invar	The table of this registry is never more than half full.
+ * 		|	2 * nbIdsInTable <= table.length
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class SlimeIdRegistry {
+
+	/**
+	 * Variable registering the number of slots of the table of a new registry.
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Variable registering the identification that marks a free slot of the table.
+	 * Whether that identification itself is in this registry is registered in containsFreeId.
+	 */
+	private static final long FREE = 0;
+
+	/**
+	 * Variable registering the identifications in this registry other than FREE, at the slot given by
+	 * their hash or at the first free slot after it, or FREE for the free slots.
+	 * Its length is always a power of two.
+	 */
+	private long[] table = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Variable registering the number of identifications in the table.
+	 */
+	private int nbIdsInTable;
+
+	/**
+	 * Variable registering whether the identification FREE is in this registry.
+	 */
+	private boolean containsFreeId;
+
+	/**
+	 * Variable registering the highest identification that has been added to this registry since it was
+	 * created or last cleared, or 0 if no positive identification has been added.
+	 */
+	private long highestId;
+
+	/**
+	 * Returns if a certain identification is in this registry.
+	 *
+	 * @param   id
+	 * 			The identification that might be in this registry.
+	 * @return 	result == ids.contains(id)
+	 */
+	public synchronized boolean contains(long id) {
+		if (id == FREE)
+			return containsFreeId;
+		return table[slotOf(id)] == id;
+	}
+
+	/**
+	 * Adds an identification to this registry.
+	 *
+	 * @param 	id
+	 * 			The identification which has to be added.
+	 * @throws	IllegalArgumentException
+	 * 			contains(id)
+	 * @post	new.contains(id)
+	 */
+	public synchronized void add(long id) throws IllegalArgumentException {
+		if (contains(id))
+			throw new IllegalArgumentException("ID already exists.");
+		if (id > highestId)
+			highestId = id;
+		if (id == FREE) {
+			containsFreeId = true;
+			return; }
+		if (2 * (nbIdsInTable + 1) > table.length)
+			resize(2 * table.length);
+		table[slotOf(id)] = id;
+		nbIdsInTable++;
+	}
+
+	/**
+	 * Removes a certain identification from this registry.
+	 *
+	 * @param 	id
+	 * 			The identification that has to be removed.
+	 * @post	!new.contains(id)
+	 */
+	public synchronized void remove(long id) {
+		if (id == FREE) {
+			containsFreeId = false;
+			return; }
+		int mask = table.length - 1;
+		int slot = slotOf(id);
+		if (table[slot] != id)
+			return;
+		// Shift the identifications that come after the removed one in its run of slots back,
+		// so that every identification stays reachable from its own slot without markers of removal.
+		int next = slot;
+		while (true) {
+			next = (next + 1) & mask;
+			long other = table[next];
+			if (other == FREE)
+				break;
+			int home = hash(other) & mask;
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				table[slot] = other;
+				slot = next; } }
+		table[slot] = FREE;
+		nbIdsInTable--;
+	}
+
+	/**
+	 * Returns an identification that is not in this registry, higher than every identification added
+	 * since this registry was created or last cleared if there is such an identification.
+	 * The identification is not reserved: it is only taken once a slime with it is created.
+	 *
+	 * @return	!contains(result) && result >= 1
+	 */
+	public synchronized long nextFreeId() {
+		if (highestId < Long.MAX_VALUE)
+			return highestId + 1;
+		long id = 1;
+		while (contains(id))
+			id++;
+		return id;
+	}
+
+	/**
+	 * Removes all the identifications from this registry.
+	 *
+	 * @post	No identification is in this registry.
+	 */
+	public synchronized void clear() {
+		if (table.length > INITIAL_CAPACITY)
+			table = new long[INITIAL_CAPACITY];
+		else
+			Arrays.fill(table, FREE);
+		nbIdsInTable = 0;
+		containsFreeId = false;
+		highestId = 0;
+	}
+
+	/**
+	 * Return the slot of the table that holds the given identification, or the free slot
+	 * where it would be added if it is not in the table.
+	 */
+	private int slotOf(long id) {
+		int mask = table.length - 1;
+		int slot = hash(id) & mask;
+		while (table[slot] != FREE && table[slot] != id)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	/**
+	 * Return the hash of the given identification, spreading consecutive identifications over the table.
+	 */
+	private static int hash(long id) {
+		long mixed = id * 0x9E3779B97F4A7C15L;
+		return (int) (mixed ^ (mixed >>> 32));
+	}
+
+	/**
+	 * Move all identifications in the table to a new table with the given number of slots.
+	 */
+	private void resize(int capacity) {
+		long[] oldTable = table;
+		table = new long[capacity];
+		for (long id : oldTable)
+			if (id != FREE)
+				table[slotOf(id)] = id;
+	}
+}
@@ -1,5 +1,8 @@
 package jumpingalien.model;
 
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Raw;
 import jumpingalien.util.Sprite;
@@ -15,7 +18,7 @@ import jumpingalien.util.Sprite;
  * 
  */
 @SuppressWarnings("all")
-public class Sneezewort extends Plant implements HorizontalMoving{
+public class Sneezewort extends Plant implements HorizontalMoving, ContactListener{
 	
 	/**
 	 * Initialize this new Sneezewort with given x-position, given y position and given sprites.
@@ -178,7 +181,7 @@ public class Sneezewort extends Plant implements HorizontalMoving{
 			}
 		else if (direction == "left") {
 			lastDirection = "left";
-			if (getPosition().getX() != 0) { 
+			if (getPositionX() != 0) { 
 				setHorizontalVelocity(-0.5);
 				setOrientation(-1); 
 				currentSprite = allSprites[0]; } } 
@@ -187,23 +190,51 @@ public class Sneezewort extends Plant implements HorizontalMoving{
 	//part of advancetime
 	public void setCurrentHitPoints() {
 		if (this.getWorld() != null ) {
-			if (this.getWorld().outsideBoundaries(getPixelPosition().getX(), getPixelPosition().getY())) {
+			if (this.getWorld().outsideBoundaries(getPixelX(), getPixelY())) {
 				terminate();
 				return; }
-			
-			if (this.getWorld().getMazub() != null && this.collidesWithMazub() ) {
-					if (!this.isDead) {
-						this.terminate();
-						return;}
-					else if (this.isDead) {
-						this.getWorld().getMazub().addHitPoints(-20);
-						this.terminate(); 
-						return;}
-				
-			}
 		}
 	}
 	
+	/**
+	 * Check whether this sneezewort wants to be told about its contacts with the given game object.
+	 * 
+	 * @return	result == (other instanceof Mazub)
+	 */
+	@Override
+	public boolean isInterestedInContactWith(GameObject other) {
+		return other instanceof Mazub;
+	}
+	
+	/**
+	 * Let this sneezewort be eaten by the given mazub, which loses 20 hit points if this sneezewort is dead.
+	 * 
+	 * @effect	if (isDead) then
+	 * 				((Mazub) other).addHitPoints(-20)
+	 * @effect	terminate()
+	 */
+	@Override
+	public void contactBegan(GameObject other, double dt) {
+		if (this.isDead) 
+			((Mazub) other).addHitPoints(-20);
+		this.terminate();
+	}
+	
+	/**
+	 * Do nothing, since this sneezewort was already eaten when its contact with the given mazub began.
+	 */
+	@Override
+	public void contactPersisted(GameObject other, double dt) {
+	}
+	
+	/**
+	 * Do nothing, since the contact of this sneezewort with the given mazub only ends when this sneezewort
+	 * has been eaten and is removed from its world.
+	 */
+	@Override
+	public void contactEnded(GameObject other) {
+	}
+	
 	/**
 	 * Variable registering if this sneezewort has been eaten yet.
 	 */
@@ -221,12 +252,12 @@ public class Sneezewort extends Plant implements HorizontalMoving{
 				this.isDead = true;
 				hitPoints = 0; }
 			
-			if (isHorizontalMoving && getVelocity()[0] > 0) {
+			if (isHorizontalMoving && getHorizontalVelocity() > 0) {
 				timeMovingRight += t; }
 			else {
 				timeMovingRight = 0; }
 			
-			if (isHorizontalMoving && getVelocity()[0] < 0) {
+			if (isHorizontalMoving && getHorizontalVelocity() < 0) {
 				timeMovingLeft += t; }
 			else {
 				timeMovingLeft = 0; }
@@ -263,12 +294,15 @@ public class Sneezewort extends Plant implements HorizontalMoving{
 			dt -= t;
 			
 	
-			setPosition(new Position(getPosition().getX()+getHorizontalVelocity()*t,
-					getPosition().getY()));
+			setPosition(getPositionX()+getHorizontalVelocity()*t,
+					getPositionY());
 			
 			setTimers(t);
 
 			setCurrentHitPoints();
+			
+			if (this.getWorld() != null) 
+				this.getWorld().updateContacts(this, t);
 			}	
 		}
 		else {
@@ -277,4 +311,22 @@ public class Sneezewort extends Plant implements HorizontalMoving{
 			
 				terminate(); } }
 	}
+
+	@Override
+	void writeState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.writeState(buffer);
+		buffer.put((byte) (hasBeenEaten ? 1 : 0));
+	}
+
+	@Override
+	void readState(ByteBuffer buffer) throws IllegalArgumentException {
+		super.readState(buffer);
+		hasBeenEaten = buffer.get() != 0;
+	}
+
+	@Override
+	void skipState(ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+		super.skipState(buffer);
+		skipBytes(buffer, 1);
+	}
 }
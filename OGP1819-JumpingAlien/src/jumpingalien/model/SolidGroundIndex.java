@@ -0,0 +1,191 @@
+package jumpingalien.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A class of indexes of the runs of solid ground in each column of tiles of a world, used to find how far
+ * the solid ground at a given tile reaches up without checking every tile above it.
+ * The runs of a column are looked up the first time they are asked for; after that they are updated
+ * for the tiles whose geological feature changed only, as the index is told by its world.
+ * Game objects of the world may be advanced on several threads at once, so runs may be looked up
+ * concurrently; they are published safely, but the terrain must not change while they are looked up.
+ *
+ * @invar	The runs of each column that has been looked up are those of the terrain of the world.
+ * 		|	runs.get(tileX) == null || runs.get(tileX) lists the runs of solid ground in column tileX
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class SolidGroundIndex implements TerrainListener {
+
+	/**
+	 * Initialize this index for the terrain of the given world, registered with that world.
+	 *
+	 * @param 	world
+	 * 			The world of which the solid ground is indexed.
+	 * @effect	world.addTerrainListener(this)
+	 */
+	public SolidGroundIndex(World world) {
+		this.world = world;
+		world.addTerrainListener(this);
+	}
+
+	/**
+	 * Variable registering the world of which the solid ground is indexed.
+	 */
+	private final World world;
+
+	/**
+	 * Variable registering the runs of solid ground in each column of tiles, as the lowest and the highest row
+	 * of tiles of each run, from the bottom up, or null for the columns that have not been looked up yet.
+	 */
+	private volatile AtomicReferenceArray<int[]> runs;
+
+	/**
+	 * Return the highest row of tiles of the solid ground in the given column of tiles that reaches
+	 * the given row of tiles without interruption, or -1 if the given tile is no solid ground.
+	 *
+	 * @param 	tileX
+	 * 			The column of tiles, inside the world.
+	 * @param 	tileY
+	 * 			The row of tiles, inside the world.
+	 */
+	public int getTopOfSolidGround(int tileX, int tileY) {
+		if (world.getTerrain().getFeature(tileX, tileY) != Tile.SOLID_GROUND.getFeature())
+			return -1;
+		int[] columnRuns = getRuns(tileX);
+		return columnRuns[2*findRun(columnRuns, tileY) + 1];
+	}
+
+	/**
+	 * Return the runs of solid ground in the given column of tiles, looking them up in the terrain of the world
+	 * if that has not been done yet.
+	 */
+	private int[] getRuns(int tileX) {
+		Terrain terrain = world.getTerrain();
+		AtomicReferenceArray<int[]> allRuns = runs;
+		if (allRuns == null) 
+			synchronized (this) {
+				if (runs == null)
+					runs = new AtomicReferenceArray<int[]>(terrain.getNbTilesX());
+				allRuns = runs; }
+		int[] columnRuns = allRuns.get(tileX);
+		if (columnRuns == null) {
+			columnRuns = new int[8];
+			int nbValues = 0;
+			int solidGround = Tile.SOLID_GROUND.getFeature();
+			for (int tileY = 0; tileY < terrain.getNbTilesY(); tileY++)
+				if (terrain.getFeature(tileX, tileY) == solidGround) {
+					if (nbValues > 0 && columnRuns[nbValues - 1] == tileY - 1)
+						columnRuns[nbValues - 1] = tileY;
+					else {
+						if (nbValues == columnRuns.length)
+							columnRuns = Arrays.copyOf(columnRuns, 2*nbValues);
+						columnRuns[nbValues++] = tileY;
+						columnRuns[nbValues++] = tileY; } }
+			columnRuns = Arrays.copyOf(columnRuns, nbValues);
+			allRuns.set(tileX, columnRuns); }
+		return columnRuns;
+	}
+
+	/**
+	 * Return the index of the last run of the given runs that starts at or below the given row of tiles,
+	 * or -1 if there is none.
+	 */
+	private static int findRun(int[] columnRuns, int tileY) {
+		int low = -1;
+		int high = columnRuns.length/2 - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (columnRuns[2*middle] <= tileY)
+				low = middle;
+			else
+				high = middle - 1; }
+		return low;
+	}
+
+	/**
+	 * Update the runs of the columns in the given region that have been looked up, tile by tile.
+	 * If the whole terrain of the world may have changed, all runs are forgotten instead.
+	 *
+	 * @effect	if the region covers the whole terrain, then new.runs == null
+	 * 			else for each looked up column tileX in the region and each row tileY in the region
+	 * 				update(tileX, tileY, world.getTerrain().getFeature(tileX, tileY) == Tile.SOLID_GROUND.getFeature())
+	 */
+	@Override
+	public void terrainChanged(World world, int minTileX, int minTileY, int maxTileX, int maxTileY) {
+		Terrain terrain = world.getTerrain();
+		AtomicReferenceArray<int[]> allRuns = runs;
+		if (allRuns == null)
+			return;
+		if (allRuns.length() != terrain.getNbTilesX() ||
+				(minTileX <= 0 && minTileY <= 0 && maxTileX >= terrain.getNbTilesX() - 1 && maxTileY >= terrain.getNbTilesY() - 1)) {
+			runs = null;
+			return; }
+		for (int tileX = Math.max(minTileX, 0); tileX <= Math.min(maxTileX, allRuns.length() - 1); tileX++)
+			if (allRuns.get(tileX) != null)
+				for (int tileY = minTileY; tileY <= maxTileY; tileY++)
+					update(tileX, tileY, terrain.getFeature(tileX, tileY) == Tile.SOLID_GROUND.getFeature());
+	}
+
+	/**
+	 * Update the runs of the given column, which has been looked up, for the given tile being solid ground or not.
+	 * A run is extended, merged with its neighbour, shortened or split as needed.
+	 */
+	private void update(int tileX, int tileY, boolean isSolidGround) {
+		int[] columnRuns = runs.get(tileX);
+		int run = findRun(columnRuns, tileY);
+		boolean wasSolidGround = run >= 0 && tileY <= columnRuns[2*run + 1];
+		if (isSolidGround == wasSolidGround)
+			return;
+		// Runs that have been published are never changed, so that they can be read without locking.
+		columnRuns = columnRuns.clone();
+		if (isSolidGround) {
+			boolean extendsBelow = run >= 0 && columnRuns[2*run + 1] == tileY - 1;
+			boolean extendsAbove = 2*(run + 1) < columnRuns.length && columnRuns[2*(run + 1)] == tileY + 1;
+			if (extendsBelow && extendsAbove)
+				columnRuns = remove(columnRuns, 2*run + 1, 2);
+			else if (extendsBelow)
+				columnRuns[2*run + 1] = tileY;
+			else if (extendsAbove)
+				columnRuns[2*(run + 1)] = tileY;
+			else
+				columnRuns = insert(columnRuns, 2*(run + 1), tileY, tileY); }
+		else {
+			int start = columnRuns[2*run];
+			int end = columnRuns[2*run + 1];
+			if (start == end)
+				columnRuns = remove(columnRuns, 2*run, 2);
+			else if (start == tileY)
+				columnRuns[2*run] = tileY + 1;
+			else if (end == tileY)
+				columnRuns[2*run + 1] = tileY - 1;
+			else
+				columnRuns = insert(columnRuns, 2*run + 1, tileY - 1, tileY + 1); }
+		runs.set(tileX, columnRuns);
+	}
+
+	/**
+	 * Return a copy of the given array with the given values inserted at the given index.
+	 */
+	private static int[] insert(int[] values, int index, int first, int second) {
+		int[] result = new int[values.length + 2];
+		System.arraycopy(values, 0, result, 0, index);
+		result[index] = first;
+		result[index + 1] = second;
+		System.arraycopy(values, index, result, index + 2, values.length - index);
+		return result;
+	}
+
+	/**
+	 * Return a copy of the given array without the given number of values from the given index on.
+	 */
+	private static int[] remove(int[] values, int index, int number) {
+		int[] result = new int[values.length - number];
+		System.arraycopy(values, 0, result, 0, index);
+		System.arraycopy(values, index + number, result, index, values.length - index - number);
+		return result;
+	}
+}
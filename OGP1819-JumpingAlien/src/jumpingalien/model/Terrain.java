@@ -0,0 +1,61 @@
+package jumpingalien.model;
+
+/**
+ * An interface for the stores that hold the geological feature of each tile of a world.
+ * Tiles are addressed by their tile position, starting from the bottom-left tile;
+ * tile positions are not checked and must be inside the terrain.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+public interface Terrain {
+
+	/**
+	 * Return the number of tiles along the x-axis of this terrain.
+	 */
+	int getNbTilesX();
+
+	/**
+	 * Return the number of tiles along the y-axis of this terrain.
+	 */
+	int getNbTilesY();
+
+	/**
+	 * Return the geological feature of the tile at the given tile position.
+	 *
+	 * @param 	tileX
+	 * 			The x-position of the tile.
+	 * @param 	tileY
+	 * 			The y-position of the tile.
+	 */
+	int getFeature(int tileX, int tileY);
+
+	/**
+	 * Set the geological feature of the tile at the given tile position to the given geological feature.
+	 *
+	 * @param 	tileX
+	 * 			The x-position of the tile.
+	 * @param 	tileY
+	 * 			The y-position of the tile.
+	 * @param 	feature
+	 * 			The new geological feature of the tile.
+	 * @post	new.getFeature(tileX, tileY) == feature
+	 * @throws	IllegalArgumentException
+	 * 			feature < 0 || feature > Byte.MAX_VALUE
+	 */
+	void setFeature(int tileX, int tileY, int feature) throws IllegalArgumentException;
+
+	/**
+	 * Return whether any tile of the given row between the given x-positions is impassable terrain.
+	 *
+	 * @param 	minTileX
+	 * 			The x-position of the left-most tile to check.
+	 * @param 	maxTileX
+	 * 			The x-position of the right-most tile to check, inclusive.
+	 * @param 	tileY
+	 * 			The y-position of the row.
+	 * @return	result == (for some tileX with minTileX <= tileX <= maxTileX
+	 * 				World.isImpassableTerrain(getFeature(tileX, tileY)))
+	 */
+	boolean hasImpassableTileInRow(int minTileX, int maxTileX, int tileY);
+}
@@ -0,0 +1,30 @@
+package jumpingalien.model;
+
+/**
+ * An interface for structures derived from the terrain of a world, such as indexes of its tiles.
+ * A listener registered with a world (see World.addTerrainListener) is told about every region
+ * of tiles whose geological features may have changed, so that it only has to update what it
+ * derived from those tiles instead of deriving everything again.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+public interface TerrainListener {
+
+	/**
+	 * Called after the geological features of tiles in the given rectangle of tiles of the given world may have changed.
+	 * The tiles outside of that rectangle have kept their geological features.
+	 *
+	 * @param 	world
+	 * 			The world whose terrain changed.
+	 * @param 	minTileX
+	 * 			The left-most column of tiles of the changed region.
+	 * @param 	minTileY
+	 * 			The lowest row of tiles of the changed region.
+	 * @param 	maxTileX
+	 * 			The right-most column of tiles of the changed region, inclusive.
+	 * @param 	maxTileY
+	 * 			The highest row of tiles of the changed region, inclusive.
+	 */
+	void terrainChanged(World world, int minTileX, int minTileY, int maxTileX, int maxTileY);
+}
@@ -0,0 +1,268 @@
+package jumpingalien.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of profilers measuring where the time of advancing a world goes, by timing the phases of
+ * advancing Mazub and the other game objects, and by counting the work done in them.
+ * A world only measures anything while it has a profiler, so that a world without one pays no more
+ * than a null check at each measuring point.
+ * Game objects advanced concurrently may measure at the same time.
+ *
+ * @version 1.0
+ * @author  Danaë Van de Velde & Thomas Vrolix
+ */
+@SuppressWarnings("all")
+public class TickProfiler {
+
+	/**
+	 * The phase in which Mazub looks for the largest step it can take at once.
+	 */
+	public static final int PHASE_STEP_PLANNING = 0;
+
+	/**
+	 * The phase in which Mazub moves, probing the terrain and the game objects at its new position.
+	 */
+	public static final int PHASE_MOVEMENT = 1;
+
+	/**
+	 * The phase in which Mazub checks the plants it touches.
+	 */
+	public static final int PHASE_CONTACTS = 2;
+
+	/**
+	 * The phase in which the hit points of Mazub are resolved.
+	 */
+	public static final int PHASE_HIT_POINTS = 3;
+
+	/**
+	 * The phase in which the sprite of Mazub is selected.
+	 */
+	public static final int PHASE_SPRITES = 4;
+
+	/**
+	 * The phase in which all game objects other than Mazub are advanced.
+	 */
+	public static final int PHASE_OTHER_OBJECTS = 5;
+
+	/**
+	 * Variable registering the names of the phases.
+	 */
+	private static final String[] PHASE_NAMES =
+		{ "step planning", "movement", "contacts", "hit points", "sprites", "other objects" };
+
+	/**
+	 * The number of times the time of the world was advanced.
+	 */
+	public static final int COUNT_TICKS = 0;
+
+	/**
+	 * The number of steps Mazub took.
+	 */
+	public static final int COUNT_SUBSTEPS = 1;
+
+	/**
+	 * The number of times the terrain of a rectangle was looked up.
+	 */
+	public static final int COUNT_TERRAIN_PROBES = 2;
+
+	/**
+	 * The number of pairs of game objects tested for overlap.
+	 */
+	public static final int COUNT_COLLISION_PAIRS = 3;
+
+	/**
+	 * The number of game objects advanced.
+	 */
+	public static final int COUNT_OBJECTS_ADVANCED = 4;
+
+	/**
+	 * Variable registering the names of the counters.
+	 */
+	private static final String[] COUNTER_NAMES =
+		{ "ticks", "substeps", "terrain probes", "collision pairs", "objects advanced" };
+
+	/**
+	 * Return the number of phases.
+	 */
+	@Immutable
+	public static int getNbPhases() {
+		return PHASE_NAMES.length;
+	}
+
+	/**
+	 * Return the number of counters.
+	 */
+	@Immutable
+	public static int getNbCounters() {
+		return COUNTER_NAMES.length;
+	}
+
+	/**
+	 * Return the name of the given phase.
+	 */
+	@Immutable
+	public static String getPhaseName(int phase) {
+		return PHASE_NAMES[phase];
+	}
+
+	/**
+	 * Return the name of the given counter.
+	 */
+	@Immutable
+	public static String getCounterName(int counter) {
+		return COUNTER_NAMES[counter];
+	}
+
+	/**
+	 * Variable registering the nanoseconds spent in each phase since the last sample.
+	 */
+	private final LongAdder[] nanos = newAdders(PHASE_NAMES.length);
+
+	/**
+	 * Variable registering the value of each counter since the last sample.
+	 */
+	private final LongAdder[] counts = newAdders(COUNTER_NAMES.length);
+
+	private static LongAdder[] newAdders(int length) {
+		LongAdder[] adders = new LongAdder[length];
+		for (int i = 0; i < length; i++)
+			adders[i] = new LongAdder();
+		return adders;
+	}
+
+	/**
+	 * Return the current time, to be passed to endPhase when the phase ends.
+	 */
+	public long startPhase() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Add the time since the given start to the given phase.
+	 *
+	 * @param 	phase
+	 * 			The phase that ends.
+	 * @param 	start
+	 * 			The time returned by startPhase when the phase started.
+	 */
+	public void endPhase(int phase, long start) {
+		nanos[phase].add(System.nanoTime() - start);
+	}
+
+	/**
+	 * Add one to the given counter.
+	 */
+	public void count(int counter) {
+		counts[counter].increment();
+	}
+
+	/**
+	 * Add the given amount to the given counter.
+	 */
+	public void count(int counter, long amount) {
+		counts[counter].add(amount);
+	}
+
+	/**
+	 * Return what was measured since the previous sample, and start measuring anew.
+	 * Measurements made while the sample is taken end up in either this sample or the next one.
+	 */
+	public Sample takeSample() {
+		long[] sampleNanos = new long[nanos.length];
+		for (int i = 0; i < nanos.length; i++)
+			sampleNanos[i] = nanos[i].sumThenReset();
+		long[] sampleCounts = new long[counts.length];
+		for (int i = 0; i < counts.length; i++)
+			sampleCounts[i] = counts[i].sumThenReset();
+		return new Sample(sampleNanos, sampleCounts);
+	}
+
+	/**
+	 * A class of the measurements of a profiler over a number of ticks.
+	 */
+	public static class Sample {
+
+		/**
+		 * A sample in which nothing was measured.
+		 */
+		public static final Sample EMPTY = new Sample(new long[PHASE_NAMES.length], new long[COUNTER_NAMES.length]);
+
+		private final long[] nanos;
+
+		private final long[] counts;
+
+		private Sample(long[] nanos, long[] counts) {
+			this.nanos = nanos;
+			this.counts = counts;
+		}
+
+		/**
+		 * Return the nanoseconds spent in the given phase.
+		 */
+		@Basic
+		public long getNanos(int phase) {
+			return nanos[phase];
+		}
+
+		/**
+		 * Return the value of the given counter.
+		 */
+		@Basic
+		public long getCount(int counter) {
+			return counts[counter];
+		}
+
+		/**
+		 * Return the number of ticks in this sample.
+		 */
+		public long getNbTicks() {
+			return counts[COUNT_TICKS];
+		}
+
+		/**
+		 * Return the average number of microseconds spent in the given phase per tick.
+		 */
+		public double getMicrosPerTick(int phase) {
+			return getNbTicks() == 0 ? 0 : nanos[phase] / 1e3 / getNbTicks();
+		}
+
+		/**
+		 * Return the average value of the given counter per tick.
+		 */
+		public double getCountPerTick(int counter) {
+			return getNbTicks() == 0 ? 0 : (double) counts[counter] / getNbTicks();
+		}
+
+		/**
+		 * Return the average time per tick of each phase, as text.
+		 */
+		public String phasesToString() {
+			StringBuilder result = new StringBuilder();
+			for (int phase = 0; phase < nanos.length; phase++) {
+				if (phase > 0)
+					result.append(" | ");
+				result.append(String.format("%s %.1fus", PHASE_NAMES[phase], getMicrosPerTick(phase)));
+			}
+			return result.toString();
+		}
+
+		/**
+		 * Return the average value per tick of each counter other than the number of ticks, as text.
+		 */
+		public String countsToString() {
+			StringBuilder result = new StringBuilder(String.format("%d ticks", getNbTicks()));
+			for (int counter = COUNT_TICKS + 1; counter < counts.length; counter++)
+				result.append(String.format(" | %s %.1f", COUNTER_NAMES[counter], getCountPerTick(counter)));
+			return result.toString() + " (per tick)";
+		}
+
+		@Override
+		public String toString() {
+			return phasesToString() + "; " + countsToString();
+		}
+	}
+}
@@ -38,6 +38,15 @@ public enum Tile {
 		return this.feature;
 	}
 	
+	/**
+	 * Return the bit mask of this tile, used to combine several geological features in a single integer.
+	 * @return	result == 1 << getFeature()
+	 */
+	@Immutable
+	public int getMask() {
+		return 1 << this.feature;
+	}
+	
 	/**
 	 * A variable registering the feature of this tile.
 	 */
@@ -3,16 +3,28 @@ package jumpingalien.model;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import be.kuleuven.cs.som.annotate.Basic;
 import be.kuleuven.cs.som.annotate.Immutable;
 import be.kuleuven.cs.som.annotate.Raw;
+import jumpingalien.util.Sprite;
 
 /**
  * A class of rectangular game worlds that are composed of a fixed number of x times y adjointly positioned,
@@ -52,39 +64,125 @@ public class World {
 	 * 			The height for the visible window of this world.
 	 * @param 	geologicalFeatures
 	 * 			The geological features for this world.
-	 * @post	Instance == this
-	 * @post	new.NB_X_TILES == nbTilesX
-	 * @post	new.NB_Y_TILES == nbTilesY
+	 * @effect	this(tileSize, createTerrain(Math.abs(nbTilesX), Math.abs(nbTilesY), geologicalFeatures), 
+	 * 				targetTileCoordinate, visibleWindowWidth, visibleWindowHeight)
+	 * @throws	IllegalArgumentException
+	 * 			geologicalFeatures == null
+	 */
+	public World(int tileSize, int nbTilesX, int nbTilesY, int[] targetTileCoordinate,
+			int visibleWindowWidth, int visibleWindowHeight, int... geologicalFeatures) throws IllegalArgumentException {
+		this(tileSize, createTerrain(Math.abs(nbTilesX), Math.abs(nbTilesY), geologicalFeatures), 
+				targetTileCoordinate, visibleWindowWidth, visibleWindowHeight);
+	}
+	
+	/**
+	 * Initialize this world with given tilesize, terrain, targettile coordinates and visible window width and height.
+	 * The geological features of the tiles of this world are those of the given terrain, 
+	 * so a terrain backed by a file (see MappedTerrain) can be used for levels too large to keep in memory.
+	 * 
+	 * @param 	tileSize
+	 * 			The tile size of this world.	
+	 * @param 	terrain
+	 * 			The terrain of this world.
+	 * @param 	targetTileCoordinate
+	 * 			The coordinate for the targettile of this world.
+	 * @param 	visibleWindowWidth
+	 * 			The width for the visible window of this world.
+	 * @param 	visibleWindowHeight
+	 * 			The height for the visible window of this world.
+	 * @post	new.getTerrain() == terrain
+	 * @post	new.NB_X_TILES == terrain.getNbTilesX()
+	 * @post	new.NB_Y_TILES == terrain.getNbTilesY()
 	 * @post	new.getVisibleWindowDimension() == { visibleWindowWidth, visibleWindowHeight }
-	 * @effect	this.setTiles(Math.abs(nbTilesX),Math.abs(nbTilesY),geologicalFeatures);	
 	 * @effect 	this.setTileLenght(tileSize)
 	 * @effect 	this.setTargetTile(targetTileCoordinate)
-	 * @effect 	this.setSizeInPixels(Math.abs(nbTilesX),Math.abs(nbTilesY),Math.abs(tileSize));
+	 * @effect 	this.setSizeInPixels(terrain.getNbTilesX(),terrain.getNbTilesY(),Math.abs(tileSize));
+	 * @post	new.grid == new GameObjectGrid(getSizeInPixels()[0], getSizeInPixels()[1])
 	 * @throws 	IllegalArgumentException
-	 * 			if !isValidWindow()
-	 */
-	public World(int tileSize, int nbTilesX, int nbTilesY, int[] targetTileCoordinate,
-			int visibleWindowWidth, int visibleWindowHeight, int... geologicalFeatures) throws IllegalArgumentException {
-		Instance = this;	
-		setTiles(Math.abs(nbTilesX),Math.abs(nbTilesY),geologicalFeatures);
+	 * 			if terrain == null || !isValidWindow()
+	 * @throws	IllegalArgumentException
+	 * 			The world has too many pixels to be covered by a grid.
+	 * 		|	(long) new GameObjectGrid(...).getNbCellsX() * new GameObjectGrid(...).getNbCellsY() > Integer.MAX_VALUE
+	 */
+	public World(int tileSize, Terrain terrain, int[] targetTileCoordinate,
+			int visibleWindowWidth, int visibleWindowHeight) throws IllegalArgumentException {
+		if (terrain == null) 
+			throw new IllegalArgumentException("No terrain given.");
+		this.terrain = terrain;
 		setTileLength(Math.abs(tileSize));
 		setTargetTile(targetTileCoordinate);
-		NB_X_TILES = Math.abs(nbTilesX);
-		NB_Y_TILES = Math.abs(nbTilesY);		
-		setSizeInPixels(Math.abs(nbTilesX),Math.abs(nbTilesY),Math.abs(tileSize));
+		NB_X_TILES = terrain.getNbTilesX();
+		NB_Y_TILES = terrain.getNbTilesY();		
+		setSizeInPixels(NB_X_TILES,NB_Y_TILES,Math.abs(tileSize));
 		VISIBLE_WINDOW_HEIGHT = visibleWindowHeight;
 		VISIBLE_WINDOW_WIDTH = visibleWindowWidth;
 		MAX_Y_POSITION = NB_Y_TILES* getTileLength();
 		MAX_X_POSITION = NB_X_TILES*getTileLength();
+		grid = new GameObjectGrid(getSizeInPixels()[0], getSizeInPixels()[1]);
 		if(!isValidWindow()) {
 			throw new IllegalArgumentException("Your world is too small!"); }
 	}
 	
 	/**
-	 * Variable registering the maximum number of game objects this world can have.
+	 * Variable registering the maximum number of game objects this world can have. 
+	 * A mazub can be added even if this world has that many game objects.
 	 */
 	private int MAX_OBJECTS = 100; 
 	
+	/**
+	 * Return the maximum number of game objects this world can have. 
+	 * A mazub can be added even if this world has that many game objects.
+	 */
+	@Basic
+	public int getMaxNbGameObjects() {
+		return MAX_OBJECTS;
+	}
+	
+	/**
+	 * Set the maximum number of game objects this world can have.
+	 * Game objects already in this world stay in it, even if there are more of them.
+	 * 
+	 * @param 	maxNbGameObjects
+	 * 			The new maximum number of game objects.
+	 * @post	new.getMaxNbGameObjects() == maxNbGameObjects
+	 * @throws	IllegalArgumentException
+	 * 			maxNbGameObjects < 0
+	 */
+	public void setMaxNbGameObjects(int maxNbGameObjects) throws IllegalArgumentException {
+		if (maxNbGameObjects < 0) 
+			throw new IllegalArgumentException("The maximum number of objects can not be negative.");
+		MAX_OBJECTS = maxNbGameObjects;
+	}
+	
+	/**
+	 * Variable registering the maximum number of schools this world can have.
+	 */
+	private int MAX_SCHOOLS = 10;
+	
+	/**
+	 * Return the maximum number of schools this world can have.
+	 */
+	@Basic
+	public int getMaxNbSchools() {
+		return MAX_SCHOOLS;
+	}
+	
+	/**
+	 * Set the maximum number of schools this world can have.
+	 * Schools already in this world stay in it, even if there are more of them.
+	 * 
+	 * @param 	maxNbSchools
+	 * 			The new maximum number of schools.
+	 * @post	new.getMaxNbSchools() == maxNbSchools
+	 * @throws	IllegalArgumentException
+	 * 			maxNbSchools < 0
+	 */
+	public void setMaxNbSchools(int maxNbSchools) throws IllegalArgumentException {
+		if (maxNbSchools < 0) 
+			throw new IllegalArgumentException("The maximum number of schools can not be negative.");
+		MAX_SCHOOLS = maxNbSchools;
+	}
+	
 	/**
 	 * Start the game with this world.
 	 *  
@@ -228,8 +326,20 @@ public class World {
 	 *		|| position.getX() < 0 || position.getY() < 0)
 	 */
 	public boolean positionOutsideWorld(Position<Double> position) {
-		return (position.getX() > getMaxXPosition()/100 || position.getY() > getMaxYPosition()/100
-			|| position.getX() < 0 || position.getY() < 0); 
+		return positionOutsideWorld(position.getX(), position.getY()); 
+	}
+	
+	/**
+	 * Checks whether the given coordinates in meters are outside of this world.
+	 * 
+	 * @param 	x
+	 * 			The x-coordinate in meters.
+	 * @param 	y
+	 * 			The y-coordinate in meters.
+	 * @return 	result == (x > getMaxXPosition()/100 || y > getMaxYPosition()/100 || x < 0 || y < 0)
+	 */
+	public boolean positionOutsideWorld(double x, double y) {
+		return (x > getMaxXPosition()/100 || y > getMaxYPosition()/100 || x < 0 || y < 0); 
 	}
 
 	/**
@@ -243,6 +353,9 @@ public class World {
 		gameObjects.stream()
 		.forEach(o -> ((GameObject) o).setWorld(null));
 		this.gameObjects.clear();
+		gameObjectsChanged = true;
+		allGameObjectsSnapshot = null;
+		grid.clear();
 		this.isTerminated = true;
 	}
 	
@@ -264,13 +377,13 @@ public class World {
 	 */
 	public boolean didPlayerWin() {
 		if (getMazub() != null) {
-			int[] mazubTile1 = pixelToTile(getMazub().getPixelPosition().getX(), getMazub().getPixelPosition().getY());
-			int[] mazubTile2 = pixelToTile(getMazub().getPixelPosition().getX(), 
-					getMazub().getPixelPosition().getY()+getMazub().getCurrentSprite().getHeight());
-			int[] mazubTile3 = pixelToTile(getMazub().getPixelPosition().getX()+getMazub().getCurrentSprite().getWidth(), 
-					getMazub().getPixelPosition().getY());
-			int[] mazubTile4 = pixelToTile(getMazub().getPixelPosition().getX()+getMazub().getCurrentSprite().getWidth(), 
-					getMazub().getPixelPosition().getY()+getMazub().getCurrentSprite().getHeight());
+			int[] mazubTile1 = pixelToTile(getMazub().getPixelX(), getMazub().getPixelY());
+			int[] mazubTile2 = pixelToTile(getMazub().getPixelX(), 
+					getMazub().getPixelY()+getMazub().getCurrentSprite().getHeight());
+			int[] mazubTile3 = pixelToTile(getMazub().getPixelX()+getMazub().getCurrentSprite().getWidth(), 
+					getMazub().getPixelY());
+			int[] mazubTile4 = pixelToTile(getMazub().getPixelX()+getMazub().getCurrentSprite().getWidth(), 
+					getMazub().getPixelY()+getMazub().getCurrentSprite().getHeight());
 
 			if(mazubTile1 == getTargetTile() || mazubTile2 == getTargetTile()|| mazubTile3 == getTargetTile()|| mazubTile4 == getTargetTile()) {
 				return true; }
@@ -332,7 +445,8 @@ public class World {
 	private int[] targetTile;
 
 	/**
-	 * Set the geological feature of all tiles to given geological features.
+	 * Set the geological feature of all tiles to given geological features, stored in memory.
+	 * Tiles without a valid geological feature in the given features are air.
 	 * 
 	 * @param 	nbTilesX
 	 * 			The number of tiles on the horizontal axis for this world.
@@ -340,37 +454,100 @@ public class World {
 	 * 			The number of tiles on the vertical axis for this world.
 	 * @param 	geologicalFeatures
 	 * 			The geological features for this world.
-	 * @post	new.tiles == new Tile[nbTilesX][nbTilesY]
+	 * @post	new.getTerrain() == createTerrain(nbTilesX, nbTilesY, geologicalFeatures)
+	 * @effect	terrainChanged(0, 0, nbTilesX - 1, nbTilesY - 1)
+	 * @throws	IllegalArgumentException
+	 * 			geologicalFeatures == null
 	 */
 	@Raw
 	public void setTiles(int nbTilesX, int nbTilesY, int... geologicalFeatures) throws IllegalArgumentException {
+		this.terrain = createTerrain(nbTilesX, nbTilesY, geologicalFeatures);
+		terrainChanged(0, 0, nbTilesX - 1, nbTilesY - 1);
+	}
+	
+	/**
+	 * Return a new terrain in memory with the given number of tiles and the given geological features.
+	 * Tiles without a valid geological feature in the given features are air.
+	 * 
+	 * @param 	nbTilesX
+	 * 			The number of tiles on the horizontal axis.
+	 * @param 	nbTilesY
+	 * 			The number of tiles on the vertical axis.
+	 * @param 	geologicalFeatures
+	 * 			The geological features of the tiles, row by row starting from the bottom row.
+	 * @return	result instanceof ChunkedTerrain
+	 * @return	for each tile (tileX, tileY) with 0 < geologicalFeatures[tileY*nbTilesX + tileX] <= 5
+	 * 				result.getFeature(tileX, tileY) == geologicalFeatures[tileY*nbTilesX + tileX]
+	 * @throws	IllegalArgumentException
+	 * 			geologicalFeatures == null
+	 */
+	private static Terrain createTerrain(int nbTilesX, int nbTilesY, int... geologicalFeatures) throws IllegalArgumentException {
 		
 		if(geologicalFeatures == null) 
 			throw new IllegalArgumentException("No geological features given.");
 		
-		this.tiles = new Tile[nbTilesX][nbTilesY];
-		for (int tileY = 0; tileY < nbTilesY; tileY++)
-			for (int tileX = 0; tileX < nbTilesX; tileX++ ) {
-				if (tileY*nbTilesX+tileX > geologicalFeatures.length - 1 || geologicalFeatures[tileY * nbTilesX + tileX] <= 0
-						||geologicalFeatures[tileY * nbTilesX + tileX] > 5) {
-					tiles[tileX][tileY] = Tile.AIR; }
-				else if (geologicalFeatures[tileY * nbTilesX + tileX] == 1) {
-					tiles[tileX][tileY] = Tile.SOLID_GROUND; }
-				else if (geologicalFeatures[tileY * nbTilesX + tileX] == 2) {
-					tiles[tileX][tileY] = Tile.WATER; }
-				else if (geologicalFeatures[tileY * nbTilesX + tileX] == 3) {
-					tiles[tileX][tileY] = Tile.MAGMA; } 
-				else if (geologicalFeatures[tileY * nbTilesX + tileX] == 4) {
-					tiles[tileX][tileY] = Tile.ICE; } 
-				else if (geologicalFeatures[tileY * nbTilesX + tileX] == 5) {
-					tiles[tileX][tileY] = Tile.GAS; } 		
-			}
+		Terrain terrain = new ChunkedTerrain(nbTilesX, nbTilesY);
+		int nbTiles = Math.min(geologicalFeatures.length, nbTilesX*nbTilesY);
+		for (int i = 0; i < nbTiles; i++) 
+			if (geologicalFeatures[i] > 0 && geologicalFeatures[i] <= 5) 
+				terrain.setFeature(i % nbTilesX, i / nbTilesX, geologicalFeatures[i]);
+		return terrain;
+	}
+	
+	/**
+	 * Return the store holding the geological features of the tiles of this world.
+	 */
+	@Basic
+	public Terrain getTerrain() {
+		return terrain;
+	}
+
+	/**
+	 * Variable registering the geological features of the tiles of this world. 
+	 */
+	private Terrain terrain;
+
+	/**
+	 * Return the registry of the identifications of the slimes of the simulation this world belongs to,
+	 * from which identifications for new slimes of this world can be taken (see SlimeIdRegistry.nextFreeId).
+	 */
+	@Basic
+	public SlimeIdRegistry getSlimeIdRegistry() {
+		return slimeIds;
+	}
+
+	/**
+	 * Set the registry of the identifications of the slimes of the simulation this world belongs to.
+	 * 
+	 * @param 	slimeIds
+	 * 			The new registry for this world.
+	 * @post	new.getSlimeIdRegistry() == slimeIds
+	 * @throws	IllegalArgumentException
+	 * 			slimeIds == null
+	 */
+	public void setSlimeIdRegistry(SlimeIdRegistry slimeIds) throws IllegalArgumentException {
+		if (slimeIds == null)
+			throw new IllegalArgumentException("No registry for the ID.");
+		this.slimeIds = slimeIds;
 	}
 
 	/**
-	 * Variable registering the tiles and the features belonging to each tile of this world. 
+	 * Variable registering the registry of the identifications of the slimes of the simulation
+	 * this world belongs to, a registry of its own unless another one is set.
 	 */
-	public Tile[][] tiles;
+	private SlimeIdRegistry slimeIds = new SlimeIdRegistry();
+	
+	/**
+	 * Return whether the given geological feature is impassable terrain. 
+	 * Solid ground and ice are impassable terrain.
+	 * 
+	 * @param 	geologicalFeature
+	 * 			The geological feature to check.
+	 * @return	result == (geologicalFeature == 1 || geologicalFeature == 4)
+	 */
+	public static boolean isImpassableTerrain(int geologicalFeature) {
+		return (geologicalFeature == 1 || geologicalFeature == 4);
+	}
 
 	/**
 	 * Return the size of this world in pixels for both the x-axis and y-axis. 
@@ -455,15 +632,214 @@ public class World {
 	 * 			The y position in pixel where the geological feature is asked.
 	 * @return	if (outsideBoundaries(pixelX,pixelY))
 	 * 				then result == 69
-	 * @return	result == tiles[tilePosition[0]][tilePosition[1]].getFeature()
+	 * @return	result == terrain.getFeature(pixelX/getTileLength(), pixelY/getTileLength())
 	 * 
 	 */
 	@Basic
 	public int getGeologicalFeature(int pixelX, int pixelY) {
 		if (outsideBoundaries(pixelX,pixelY)) 
 			return 69; 
-		int[] tilePosition = pixelToTile(pixelX,pixelY);
-		return tiles[tilePosition[0]][tilePosition[1]].getFeature();	
+		return terrain.getFeature(pixelX/getTileLength(), pixelY/getTileLength());	
+	}
+	
+	/**
+	 * Variable registering the bit in a mask of geological features that marks pixels outside of this world.
+	 */
+	public static final int OUTSIDE_WORLD_MASK = 1 << 30;
+	
+	/**
+	 * Returns the geological features of all the tiles overlapping the given rectangle of pixels, as a bit mask.
+	 * Each tile is looked up once, however many pixels of the rectangle it covers.
+	 * 
+	 * @param 	left
+	 * 			The left-most x-position of the rectangle in pixels.
+	 * @param 	bottom
+	 * 			The lowest y-position of the rectangle in pixels.
+	 * @param 	right
+	 * 			The right-most x-position of the rectangle in pixels, inclusive.
+	 * @param 	top
+	 * 			The highest y-position of the rectangle in pixels, inclusive.
+	 * @return	if (left > right || bottom > top)
+	 * 				then result == 0
+	 * @return	for each pixel (i, j) with left <= i <= right and bottom <= j <= top
+	 * 				if (outsideBoundaries(i, j)) then (result & OUTSIDE_WORLD_MASK) != 0
+	 * 				else (result & (1 << getGeologicalFeature(i, j))) != 0
+	 */
+	public int getGeologicalFeaturesIn(int left, int bottom, int right, int top) {
+		if (tickProfiler != null)
+			tickProfiler.count(TickProfiler.COUNT_TERRAIN_PROBES);
+		if (left > right || bottom > top)
+			return 0;
+		
+		int mask = 0;
+		if (outsideBoundaries(left, bottom) || outsideBoundaries(right, top))
+			mask |= OUTSIDE_WORLD_MASK;
+		if (right < 0 || top < 0)
+			return mask;
+		
+		int minTileX = Math.max(left, 0)/getTileLength();
+		int minTileY = Math.max(bottom, 0)/getTileLength();
+		int maxTileX = Math.min(right, NB_X_TILES*getTileLength() - 1)/getTileLength();
+		int maxTileY = Math.min(top, NB_Y_TILES*getTileLength() - 1)/getTileLength();
+		
+		for (int tileX = minTileX; tileX <= maxTileX; tileX++)
+			for (int tileY = minTileY; tileY <= maxTileY; tileY++)
+				mask |= 1 << terrain.getFeature(tileX, tileY);
+		return mask;
+	}
+	
+	/**
+	 * Returns whether any tile overlapping the given rectangle of pixels has the given geological feature.
+	 * 
+	 * @param 	left
+	 * 			The left-most x-position of the rectangle in pixels.
+	 * @param 	bottom
+	 * 			The lowest y-position of the rectangle in pixels.
+	 * @param 	right
+	 * 			The right-most x-position of the rectangle in pixels, inclusive.
+	 * @param 	top
+	 * 			The highest y-position of the rectangle in pixels, inclusive.
+	 * @param 	feature
+	 * 			The geological feature to look for.
+	 * @return	result == (getGeologicalFeaturesIn(left, bottom, right, top) & feature.getMask()) != 0
+	 */
+	public boolean hasGeologicalFeatureIn(int left, int bottom, int right, int top, Tile feature) {
+		return (getGeologicalFeaturesIn(left, bottom, right, top) & feature.getMask()) != 0;
+	}
+
+	/**
+	 * Returns whether all the tiles overlapping the given rectangle of pixels have the given geological feature.
+	 *
+	 * @param 	left
+	 * 			The left-most x-position of the rectangle in pixels.
+	 * @param 	bottom
+	 * 			The lowest y-position of the rectangle in pixels.
+	 * @param 	right
+	 * 			The right-most x-position of the rectangle in pixels, inclusive.
+	 * @param 	top
+	 * 			The highest y-position of the rectangle in pixels, inclusive.
+	 * @param 	feature
+	 * 			The geological feature to look for.
+	 * @return	result == (getGeologicalFeaturesIn(left, bottom, right, top) == feature.getMask())
+	 */
+	public boolean isFilledWithGeologicalFeature(int left, int bottom, int right, int top, Tile feature) {
+		return getGeologicalFeaturesIn(left, bottom, right, top) == feature.getMask();
+	}
+	
+	/**
+	 * Returns the lowest row of pixels at or above the given row that has no solid ground 
+	 * between the given x-positions. Rows outside of this world have no solid ground.
+	 * Each column of tiles that has solid ground in the given row is only looked up once, 
+	 * however high its solid ground goes.
+	 * 
+	 * @param 	left
+	 * 			The left-most x-position in pixels.
+	 * @param 	right
+	 * 			The right-most x-position in pixels, inclusive.
+	 * @param 	bottom
+	 * 			The row of pixels to start from.
+	 * @return	result >= bottom 
+	 * 			&& !hasGeologicalFeatureIn(left, result, right, result, Tile.SOLID_GROUND)
+	 * 			&& for each row y with bottom <= y < result
+	 * 				hasGeologicalFeatureIn(left, y, right, y, Tile.SOLID_GROUND)
+	 */
+	public int getLowestRowWithoutSolidGround(int left, int right, int bottom) {
+		int tileLength = getTileLength();
+		if (bottom < 0 || bottom >= NB_Y_TILES*tileLength || left > right || right < 0 || left >= NB_X_TILES*tileLength)
+			return bottom;
+		
+		int minTileX = Math.max(left, 0)/tileLength;
+		int maxTileX = Math.min(right, NB_X_TILES*tileLength - 1)/tileLength;
+		int tileY = bottom/tileLength;
+		boolean raised = false;
+		for (int tileX = minTileX; tileX <= maxTileX && tileY < NB_Y_TILES; tileX++) {
+			int top = solidGroundIndex.getTopOfSolidGround(tileX, tileY);
+			if (top >= tileY) {
+				// The columns already checked may have solid ground in the new row.
+				tileY = top + 1;
+				raised = true;
+				tileX = minTileX - 1; } }
+		return raised ? tileY*tileLength : bottom;
+	}
+	
+	/**
+	 * Returns the lowest y-position of at least the given one at which a game object whose lowest row
+	 * of pixels spans the given x-positions is not on ground, i.e. has no solid ground in its lowest row of pixels
+	 * nor in the row beneath it.
+	 * 
+	 * @param 	left
+	 * 			The left-most x-position in pixels.
+	 * @param 	right
+	 * 			The right-most x-position in pixels, inclusive.
+	 * @param 	y
+	 * 			The y-position to start from.
+	 * @return	result >= y 
+	 * 			&& !hasGeologicalFeatureIn(left, result - 1, right, result, Tile.SOLID_GROUND)
+	 * 			&& for each y-position z with y <= z < result
+	 * 				hasGeologicalFeatureIn(left, z - 1, right, z, Tile.SOLID_GROUND)
+	 */
+	public int getLowestPositionOffGround(int left, int right, int y) {
+		int row = getLowestRowWithoutSolidGround(left, right, y - 1);
+		while (true) {
+			int next = getLowestRowWithoutSolidGround(left, right, row + 1);
+			if (next == row + 1)
+				return next;
+			row = next; }
+	}
+	
+	/**
+	 * Variable registering the listeners told about changes to the terrain of this world.
+	 * It is declared before the derived structures of the terrain that register themselves as listeners.
+	 */
+	private final List<TerrainListener> terrainListeners = new ArrayList<TerrainListener>(1);
+	
+	/**
+	 * Variable registering the index of the solid ground of this world.
+	 */
+	private final SolidGroundIndex solidGroundIndex = new SolidGroundIndex(this);
+	
+	/**
+	 * Register the given listener to be told about every change to the terrain of this world.
+	 * 
+	 * @param 	listener
+	 * 			The listener to register.
+	 * @post	new.hasAsTerrainListener(listener)
+	 * @throws	IllegalArgumentException
+	 * 			listener == null || hasAsTerrainListener(listener)
+	 */
+	public void addTerrainListener(TerrainListener listener) throws IllegalArgumentException {
+		if (listener == null || hasAsTerrainListener(listener)) 
+			throw new IllegalArgumentException("Illegal terrain listener.");
+		terrainListeners.add(listener);
+	}
+	
+	/**
+	 * Stop telling the given listener about changes to the terrain of this world.
+	 * 
+	 * @param 	listener
+	 * 			The listener to remove.
+	 * @post	!new.hasAsTerrainListener(listener)
+	 */
+	public void removeTerrainListener(TerrainListener listener) {
+		terrainListeners.remove(listener);
+	}
+	
+	/**
+	 * Returns whether the given listener is told about changes to the terrain of this world.
+	 */
+	public boolean hasAsTerrainListener(TerrainListener listener) {
+		return terrainListeners.contains(listener);
+	}
+	
+	/**
+	 * Tell all terrain listeners of this world that the tiles in the given region may have changed.
+	 * 
+	 * @effect	for each listener in terrainListeners
+	 * 				listener.terrainChanged(this, minTileX, minTileY, maxTileX, maxTileY)
+	 */
+	private void terrainChanged(int minTileX, int minTileY, int maxTileX, int maxTileY) {
+		for (int i = 0; i < terrainListeners.size(); i++) 
+			terrainListeners.get(i).terrainChanged(this, minTileX, minTileY, maxTileX, maxTileY);
 	}
 	
 	/**
@@ -474,25 +850,20 @@ public class World {
 	 * 			The number of tiles on the vertical axis for this world.
 	 * @param 	geologicalFeatures
 	 * 			The geological features for this world.
-	 * @post	new.tiles[nbTilesX][nbTilesY] == Tile.geologicalFeature
+	 * @post	if (0 <= geologicalFeature <= 5)
+	 * 				then new.getGeologicalFeature(pixelX, pixelY) == geologicalFeature
+	 * @effect	if (getGeologicalFeature(pixelX, pixelY) != new.getGeologicalFeature(pixelX, pixelY))
+	 * 				then terrainChanged(tileX, tileY, tileX, tileY), with (tileX, tileY) the tile on the given position
 	 * 			
 	 */
 	@Raw
 	public void setGeologicalFeature(int pixelX, int pixelY, int geologicalFeature) {
-		if (!outsideBoundaries(pixelX,pixelY)) {
-			int[] tilePosition = pixelToTile(pixelX,pixelY);
-			if (geologicalFeature == 0) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.AIR; 
-			else if (geologicalFeature == 1) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.SOLID_GROUND; 
-			else if (geologicalFeature == 2) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.WATER; 
-			else if (geologicalFeature == 3) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.MAGMA;  
-			else if (geologicalFeature == 4) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.ICE;  
-			else if (geologicalFeature == 5) 
-				tiles[tilePosition[0]][tilePosition[1]] = Tile.GAS;  
+		if (!outsideBoundaries(pixelX,pixelY) && geologicalFeature >= 0 && geologicalFeature <= 5) {
+			int tileX = pixelX/getTileLength();
+			int tileY = pixelY/getTileLength();
+			if (terrain.getFeature(tileX, tileY) != geologicalFeature) {
+				terrain.setFeature(tileX, tileY, geologicalFeature);
+				terrainChanged(tileX, tileY, tileX, tileY); }
 			}
 	}
 	
@@ -519,7 +890,8 @@ public class World {
 	 * @return	result == gameObjects.contains(object)
 	 */
 	public boolean hasAsGameObject(Object object) {
-		return gameObjects.contains(object);
+		synchronized (gameObjects) {
+			return gameObjects.contains(object); }
 	}
 	
 	/**
@@ -529,19 +901,20 @@ public class World {
 	 * 			The new object to be added in this world.
 	 * @effect	gameObjects.add((GameObject) object)
 	 * @effect	((GameObject) object).setWorld(this)
+	 * @effect	grid.add((GameObject) object)
 	 * @post	if object.getClass() == Mazub.class && mazubAdded == false 
 	 *				then new.getMazub() == (Mazub) object && new.mazubAdded == true
 	 * @throws 	IllegalArgumentException
 	 * 			object == null || isStarted 
-	 * 			|| !validTiles(((GameObject) object).getPixelPosition().getX(),
-	 *			((GameObject) object).getPixelPosition().getY(), ((GameObject) object).allSprites[0].getWidth(),
+	 * 			|| !validTiles(((GameObject) object).getPixelX(),
+	 *			((GameObject) object).getPixelY(), ((GameObject) object).allSprites[0].getWidth(),
 	 *			((GameObject) object).allSprites[0].getHeight()) && !(object instanceof Plant)
 	 *			|| !pixelPositionInWorld( ((GameObject) object).getPixelPosition())
 	 *			|| (object instanceof Mazub && ((GameObject) object).WithMazub(getAllGameObjects()))
-	 *			|| !isValid(((GameObject) object).getPixelPosition().getX(),((GameObject) object).getPixelPosition().getY() )
-	 *			|| (((GameObject) object).getPosition().getX() > (double)getSizeInPixels()[0]/100 ||
-	 *			((GameObject) object).getPosition().getY() > (double)getSizeInPixels()[1]/100)
-	 *			|| getAllGameObjects().size() > MAX_OBJECTS
+	 *			|| !isValid(((GameObject) object).getPixelX(),((GameObject) object).getPixelY() )
+	 *			|| (((GameObject) object).getPositionX() > (double)getSizeInPixels()[0]/100 ||
+	 *			((GameObject) object).getPositionY() > (double)getSizeInPixels()[1]/100)
+	 *			|| getAllGameObjects().size() >= getMaxNbGameObjects() && !(object instanceof Mazub)
 	 *			|| ((GameObject) object).isTerminated
 	 *			|| isTerminated
 	 *			|| ((GameObject) object).getWorld() != null
@@ -553,29 +926,32 @@ public class World {
 		if (isStarted) 
 			throw new IllegalArgumentException("Game has already started."); 
 
-		if (!validTiles(((GameObject) object).getPixelPosition().getX(),
-				((GameObject) object).getPixelPosition().getY(), ((GameObject) object).allSprites[0].getWidth(),
+		if (!validTiles(((GameObject) object).getPixelX(),
+				((GameObject) object).getPixelY(), ((GameObject) object).allSprites[0].getWidth(),
 				((GameObject) object).allSprites[0].getHeight()) && !(object instanceof Plant)) 
 			throw new IllegalArgumentException("Object is on impassable terrain."); 
 		
 		if (!pixelPositionInWorld( ((GameObject) object).getPixelPosition())) 
 			throw new IllegalArgumentException("The given position is outside of the boundaries."); 	
 
-		if (!(object instanceof Plant) && ((GameObject) object).isOverlappingWithGameObject(this.getAllGameObjects())) 
+		if (!(object instanceof Plant) && ((GameObject) object).isOverlappingWithGameObject(
+				getGameObjectsNear((GameObject) object, ((GameObject) object).getPixelX(), 
+				((GameObject) object).getPixelY(), ((GameObject) object).getCurrentSprite().getWidth(), 
+				((GameObject) object).getCurrentSprite().getHeight()))) 
 			throw new IllegalArgumentException("Overlapping with other game object.");
 		
 		if (object instanceof Mazub && mazubAdded) 
 			throw new IllegalArgumentException("There already is a Mazub added in the game."); 
 
-		if (!isValid(((GameObject) object).getPixelPosition().getX(),((GameObject) object).getPixelPosition().getY())) 	
+		if (!isValid(((GameObject) object).getPixelX(),((GameObject) object).getPixelY())) 	
 			throw new IllegalArgumentException("The position is not valid."); 
 		
-		if (((GameObject) object).getPosition().getX() > (double)getSizeInPixels()[0]/100 ||
-				((GameObject) object).getPosition().getY() > (double)getSizeInPixels()[1]/100) 
+		if (((GameObject) object).getPositionX() > (double)getSizeInPixels()[0]/100 ||
+				((GameObject) object).getPositionY() > (double)getSizeInPixels()[1]/100) 
 			throw new IllegalArgumentException("The position is outside of this world."); 
 		
-		else if (getAllGameObjects().size() >= MAX_OBJECTS && !(object instanceof Mazub)) 
-			throw new IllegalArgumentException("There can not be more than 100 objects."); 
+		else if (gameObjects.size() >= MAX_OBJECTS && !(object instanceof Mazub)) 
+			throw new IllegalArgumentException("There can not be more than " + MAX_OBJECTS + " objects."); 
 		
 		else if (((GameObject) object).isTerminated) 
 			throw new IllegalArgumentException("Object can not be terminated."); 
@@ -587,7 +963,15 @@ public class World {
 			throw new IllegalArgumentException("Object is already in other world."); 
 		
 		gameObjects.add((GameObject) object);
+		gameObjectsChanged = true;
+		allGameObjectsSnapshot = null;
+		((GameObject) object).additionNumber = nbGameObjectsAdded++;
 		((GameObject) object).setWorld(this);
+		grid.add((GameObject) object);
+		activeGameObjects = null;
+		if (!rosterIndices.containsKey(object)) {
+			rosterIndices.put((GameObject) object, roster.size());
+			roster.add((GameObject) object); }
 		
 		if (object.getClass() == Mazub.class && mazubAdded == false ) {
 			firstMazub = (Mazub) object;
@@ -595,22 +979,44 @@ public class World {
  	}
 	
 	/**
-	 * Returns a copy of the list of all the game objects in this world in a set.
+	 * Returns a read-only snapshot of the set of all the game objects in this world, in the order they were added.
+	 * The snapshot is only rebuilt after a game object has been added or removed, so that callers asking 
+	 * for it every frame do not copy the game objects every frame. Later additions and removals only show 
+	 * in the next snapshot.
 	 * 			
-	 * @post	List<Object> gameObjectsCopy = new ArrayList<Object>()
-	 * @effect	gameObjects.stream()
-	 *			.forEach(o -> gameObjectsCopy.add(o))
-	 * @return	result == allGameObjectsSet
+	 * @return	result.equals(new HashSet<Object>(gameObjects))
 	 */
 	@Basic
 	public Set<Object> getAllGameObjects() {
-		List<Object> gameObjectsCopy = new ArrayList<Object>();	
-		
-		gameObjects.stream()
-		.forEach(o -> gameObjectsCopy.add(o));
-		
-		Set<Object> allGameObjectsSet = new HashSet<Object>(gameObjectsCopy);
-		return allGameObjectsSet;
+		if (allGameObjectsSnapshot == null)
+			allGameObjectsSnapshot = Collections.unmodifiableSet(new LinkedHashSet<Object>(gameObjects));
+		return allGameObjectsSnapshot;
+	}
+	
+	/**
+	 * Returns a read-only view of the set of all the game objects in this world, in the order they were added.
+	 * The view follows every later addition and removal, so it must not be iterated
+	 * while game objects may be added to or removed from this world; use getGameObjectsSnapshot() then.
+	 * 
+	 * @return	result == Collections.unmodifiableSet(gameObjects)
+	 */
+	public Set<Object> getGameObjects() {
+		return gameObjectsView;
+	}
+	
+	/**
+	 * Returns a read-only snapshot of the list of all the game objects in this world, in the order they were added.
+	 * The snapshot is only rebuilt after a game object has been added or removed, so consecutive 
+	 * calls without such a change return the same list. Game objects removed from this world while 
+	 * a snapshot is being iterated stay in that snapshot; the removal only shows in the next one.
+	 * 
+	 * @return	result.equals(new ArrayList<Object>(gameObjects))
+	 */
+	public List<Object> getGameObjectsSnapshot() {
+		if (gameObjectsChanged) {
+			gameObjectsSnapshot = Collections.unmodifiableList(Arrays.asList(gameObjects.toArray()));
+			gameObjectsChanged = false; }
+		return gameObjectsSnapshot;
 	}
 	
 	/**
@@ -618,9 +1024,12 @@ public class World {
 	 * object is set to null, because it doesn't belong to a world anymore.
 	 * @param 	object
 	 * 			The object to be removed from the list.
-	 * @post	gameObjects.remove(gameObjects.indexOf(object))
+	 * @post	!new.hasAsGameObject(object)
 	 * @post	mazubAdded == false
 	 * @effect	((GameObject) object).setWorld(null)
+	 * @effect	grid.remove((GameObject) object)
+	 * @effect	for each other with ((GameObject) object).hasAsContact(other)
+	 * 				endContact((GameObject) object, other)
 	 * @throws 	IllegalArgumentException
 	 * 			!hasAsGameObject(object)
 	 */
@@ -628,8 +1037,15 @@ public class World {
 		if (!hasAsGameObject(object)) 
 			throw new IllegalArgumentException("This object is not an object of this world."); 
 		
-		gameObjects.remove(gameObjects.indexOf(object));
+		synchronized (gameObjects) {
+			gameObjects.remove(object);
+			gameObjectsChanged = true;
+			allGameObjectsSnapshot = null; }
 		((GameObject) object).setWorld(null);
+		grid.remove((GameObject) object);
+		List<GameObject> contacts = ((GameObject) object).contacts;
+		while (!contacts.isEmpty())
+			endContact((GameObject) object, contacts.get(contacts.size() - 1));
 		
 		if (object instanceof Mazub) 
 			mazubAdded = false;
@@ -637,9 +1053,301 @@ public class World {
 	}
 	
 	/**
-	 * Variable registering a list of all the game objects in this world. 
+	 * Variable registering the number of game objects that have been added to this world.
+	 */
+	private long nbGameObjectsAdded = 0;
+	
+	/**
+	 * Variable registering all the game objects in this world, in the order they were added. 
+	 */
+	public Set<Object> gameObjects = new LinkedHashSet<Object>();
+	
+	/**
+	 * Variable registering every game object that has ever been added to this world, in the order in which 
+	 * it was first added, including the game objects that have left this world since (see writeSnapshot).
+	 */
+	private final List<GameObject> roster = new ArrayList<GameObject>();
+	
+	/**
+	 * Variable registering the index in the roster of each game object in it.
+	 */
+	private final Map<GameObject, Integer> rosterIndices = new IdentityHashMap<GameObject, Integer>();
+	
+	/**
+	 * Variable registering a read-only view of the set of all the game objects in this world.
+	 */
+	private final Set<Object> gameObjectsView = Collections.unmodifiableSet(gameObjects);
+	
+	/**
+	 * Variable registering the last snapshot of the list of all the game objects in this world.
+	 */
+	private List<Object> gameObjectsSnapshot = Collections.emptyList();
+	
+	/**
+	 * Variable registering the last snapshot of the set of all the game objects in this world, 
+	 * or null if a game object has been added or removed since it was taken.
+	 */
+	private Set<Object> allGameObjectsSnapshot = null;
+	
+	/**
+	 * Variable registering whether a game object has been added or removed since the last snapshot was taken.
+	 */
+	private boolean gameObjectsChanged = false;
+	
+	/**
+	 * Variable registering the uniform grid of all the game objects in this world, 
+	 * used to look up the game objects near a given area.
+	 */
+	private final GameObjectGrid grid;
+	
+	/**
+	 * Returns the game objects of this world that may touch or overlap the given area in pixels.
+	 * Game objects that are further away than the largest game object of this world are never returned.
+	 * The result is reused by the next lookup of nearby game objects on the same thread, in any world:
+	 * it must not be modified or kept, and no other lookup may be done while iterating over it.
+	 * 
+	 * @param 	exclude
+	 * 			A game object that must not be returned, or null.
+	 * @param 	x
+	 * 			The x-position of the bottom-left pixel of the area.
+	 * @param 	y
+	 * 			The y-position of the bottom-left pixel of the area.
+	 * @param 	width
+	 * 			The width of the area.
+	 * @param 	height
+	 * 			The height of the area.
+	 * @return	result == grid.getGameObjectsNear(exclude, x - 1, y - 1, x + width + 1, y + height + 1, 
+	 * 				NEARBY_GAME_OBJECTS.get())
+	 */
+	public List<GameObject> getGameObjectsNear(GameObject exclude, int x, int y, int width, int height) {
+		return grid.getGameObjectsNear(exclude, x - 1, y - 1, x + width + 1, y + height + 1, 
+				NEARBY_GAME_OBJECTS.get());
+	}
+	
+	/**
+	 * Variable registering, for each thread, the list filled by the lookups of nearby game objects on that thread.
+	 * Game objects of different worlds may be advanced on different threads at the same time, so they cannot
+	 * share a single list.
+	 */
+	private static final ThreadLocal<List<GameObject>> NEARBY_GAME_OBJECTS = 
+			ThreadLocal.withInitial(() -> new ArrayList<GameObject>());
+	
+	/**
+	 * Returns the game objects of this world, other than the given game object, that may touch or overlap 
+	 * the given game object or that it may touch or overlap after moving one pixel.
+	 * 
+	 * @param 	object
+	 * 			The game object whose neighbours are asked.
+	 * @return	result == getGameObjectsNear(object, object.getPixelX() - 1, object.getPixelY() - 1,
+	 * 				object.getCurrentSprite().getWidth() + 2, object.getCurrentSprite().getHeight() + 2)
+	 */
+	public List<GameObject> getGameObjectsNear(GameObject object) {
+		return getGameObjectsNear(object, object.getPixelX() - 1, object.getPixelY() - 1,
+				object.getCurrentSprite().getWidth() + 2, object.getCurrentSprite().getHeight() + 2);
+	}
+	
+	/**
+	 * Update the contacts of the given listening game object with the game objects near it it is interested in,
+	 * and tell the listener which of those contacts began, persisted or ended since its previous update.
+	 * Contacts with game objects that are no longer near the listener end as well.
+	 * The update stops as soon as the listener leaves this world in reaction to one of its contacts.
+	 *
+	 * @param 	object
+	 * 			The game object whose contacts are updated.
+	 * @param 	dt
+	 * 			The time that has passed for the given game object since it last updated its contacts.
+	 * @effect	for each other in getGameObjectsNear(object)
+	 * 				if (((ContactListener) object).isInterestedInContactWith(other)
+	 * 						&& object.collidesWith(other) && !object.hasAsContact(other)) then
+	 * 					((ContactListener) object).contactBegan(other, dt)
+	 * @effect	for each other in getGameObjectsNear(object)
+	 * 				if (((ContactListener) object).isInterestedInContactWith(other)
+	 * 						&& object.collidesWith(other) && object.hasAsContact(other)) then
+	 * 					((ContactListener) object).contactPersisted(other, dt)
+	 * @effect	for each other with object.hasAsContact(other) && ((ContactListener) object).isInterestedInContactWith(other)
+	 * 				if (!getGameObjectsNear(object).contains(other) || !object.collidesWith(other)) then
+	 * 					endContact(object, other)
+	 * @throws	IllegalArgumentException
+	 * 			!(object instanceof ContactListener) || object.getWorld() != this
+	 */
+	public void updateContacts(GameObject object, double dt) throws IllegalArgumentException {
+		if (!(object instanceof ContactListener))
+			throw new IllegalArgumentException("This game object does not listen to contacts.");
+		if (object.getWorld() != this)
+			throw new IllegalArgumentException("This game object is not in this world.");
+		ContactListener listener = (ContactListener) object;
+
+		List<GameObject> nearbyGameObjects = getGameObjectsNear(object);
+		if (tickProfiler != null)
+			tickProfiler.count(TickProfiler.COUNT_COLLISION_PAIRS, nearbyGameObjects.size());
+
+		for (int i = object.contacts.size() - 1; i >= 0; i--) {
+			GameObject other = object.contacts.get(i);
+			if (listener.isInterestedInContactWith(other) && !nearbyGameObjects.contains(other))
+				endContact(object, other); }
+
+		for (GameObject other : nearbyGameObjects) {
+			if (object.getWorld() != this)
+				return;
+			if (other.getWorld() != this || !listener.isInterestedInContactWith(other))
+				continue;
+			if (object.collidesWith(other)) {
+				if (object.hasAsContact(other))
+					listener.contactPersisted(other, dt);
+				else {
+					object.contacts.add(other);
+					other.contacts.add(object);
+					listener.contactBegan(other, dt); } }
+			else if (object.hasAsContact(other))
+				endContact(object, other); }
+	}
+
+	/**
+	 * End the contact between the given game objects, and tell both of them if they listen to it.
+	 *
+	 * @param 	object
+	 * 			One of the game objects of the contact.
+	 * @param 	other
+	 * 			The other game object of the contact.
+	 * @post	!new.object.hasAsContact(other) && !new.other.hasAsContact(object)
+	 * @effect	if (object instanceof ContactListener && ((ContactListener) object).isInterestedInContactWith(other)) then
+	 * 				((ContactListener) object).contactEnded(other)
+	 * @effect	if (other instanceof ContactListener && ((ContactListener) other).isInterestedInContactWith(object)) then
+	 * 				((ContactListener) other).contactEnded(object)
+	 */
+	private static void endContact(GameObject object, GameObject other) {
+		object.contacts.remove(other);
+		other.contacts.remove(object);
+		if (object instanceof ContactListener && ((ContactListener) object).isInterestedInContactWith(other))
+			((ContactListener) object).contactEnded(other);
+		if (other instanceof ContactListener && ((ContactListener) other).isInterestedInContactWith(object))
+			((ContactListener) other).contactEnded(object);
+	}
+
+	/**
+	 * Registers that the given game object of this world has moved, so it can be found near its new position.
+	 * 
+	 * @param 	object
+	 * 			The game object that has moved.
+	 * @effect	grid.update(object)
+	 */
+	void gameObjectMoved(GameObject object) {
+		grid.update(object);
+	}
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps impassable terrain.
+	 */
+	public static final int PROBE_BLOCKED_BY_TERRAIN = 1;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps a game object that is not a plant.
+	 */
+	public static final int PROBE_OVERLAPS_GAME_OBJECT = 1 << 1;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps a mazub.
+	 */
+	public static final int PROBE_OVERLAPS_MAZUB = 1 << 2;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps a slime.
+	 */
+	public static final int PROBE_OVERLAPS_SLIME = 1 << 3;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps a shark.
+	 */
+	public static final int PROBE_OVERLAPS_SHARK = 1 << 4;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox overlaps a plant.
+	 */
+	public static final int PROBE_OVERLAPS_PLANT = 1 << 5;
+	
+	/**
+	 * Flag of the result of probeHitbox, set if the hitbox stands on top of another game object.
 	 */
-	public List<Object> gameObjects = new ArrayList<Object>();
+	public static final int PROBE_ON_TOP_OF_GAME_OBJECT = 1 << 6;
+	
+	/**
+	 * Returns whether a hitbox of the given size could stand at the given position in this world, 
+	 * as flags telling what it would be blocked by or overlap with. No game object is created 
+	 * to check this, the given game object is only used to leave it out.
+	 * Two hitboxes overlap if they share a pixel, as in GameObject.collidesWith.
+	 * 
+	 * @param 	ignore
+	 * 			The game object that must not be taken into account, or null.
+	 * @param 	x
+	 * 			The x-position of the bottom-left pixel of the hitbox.
+	 * @param 	y
+	 * 			The y-position of the bottom-left pixel of the hitbox.
+	 * @param 	width
+	 * 			The width of the hitbox.
+	 * @param 	height
+	 * 			The height of the hitbox.
+	 * @return	if (!validTiles(x, y, width, height)) then (result & PROBE_BLOCKED_BY_TERRAIN) != 0
+	 * @return	for each game object o of this world with o != ignore that overlaps the hitbox
+	 * 				if !(o instanceof Plant) then (result & PROBE_OVERLAPS_GAME_OBJECT) != 0
+	 * 				if (o instanceof Mazub) then (result & PROBE_OVERLAPS_MAZUB) != 0
+	 * 				if (o instanceof Slime) then (result & PROBE_OVERLAPS_SLIME) != 0
+	 * 				if (o instanceof Shark) then (result & PROBE_OVERLAPS_SHARK) != 0
+	 * 				if (o instanceof Plant) then (result & PROBE_OVERLAPS_PLANT) != 0
+	 * @return	if (onTopOfOtherGameObject(x, y, width, getGameObjectsNear(ignore, x, y, width, height))) 
+	 * 				then (result & PROBE_ON_TOP_OF_GAME_OBJECT) != 0
+	 */
+	public int probeHitbox(GameObject ignore, int x, int y, int width, int height) {
+		return probeHitbox(ignore, x, y, width, height, null);
+	}
+	
+	/**
+	 * Returns whether a hitbox of the given size could stand at the given position in this world, 
+	 * as flags telling what it would be blocked by or overlap with, and adds the game objects that
+	 * set those flags to the given collection.
+	 * 
+	 * @param 	hits
+	 * 			The collection to add the game objects to that the hitbox overlaps or stands on top of, 
+	 * 			or null.
+	 * @return	result == probeHitbox(ignore, x, y, width, height)
+	 * @post	for each game object o of this world with o != ignore that overlaps the hitbox
+	 * 				or that the hitbox stands on top of, 
+	 * 				if (hits != null) then new.hits.contains(o)
+	 */
+	int probeHitbox(GameObject ignore, int x, int y, int width, int height, Collection<GameObject> hits) {
+		int result = 0;
+		if (!validTiles(x, y, width, height))
+			result |= PROBE_BLOCKED_BY_TERRAIN;
+		
+		List<GameObject> nearbyGameObjects = getGameObjectsNear(ignore, x, y, width, height);
+		if (tickProfiler != null)
+			tickProfiler.count(TickProfiler.COUNT_COLLISION_PAIRS, nearbyGameObjects.size());
+		for (GameObject other : nearbyGameObjects) {
+			if (x + width - 1 < other.getPixelX() 
+					|| other.getPixelX() + other.getCurrentSprite().getWidth() - 1 < x
+					|| y + height - 1 < other.getPixelY()
+					|| other.getPixelY() + other.getCurrentSprite().getHeight() - 1 < y)
+				continue;
+			if (other instanceof Plant)
+				result |= PROBE_OVERLAPS_PLANT;
+			else 
+				result |= PROBE_OVERLAPS_GAME_OBJECT;
+			if (other instanceof Mazub)
+				result |= PROBE_OVERLAPS_MAZUB;
+			else if (other instanceof Slime)
+				result |= PROBE_OVERLAPS_SLIME;
+			else if (other instanceof Shark)
+				result |= PROBE_OVERLAPS_SHARK;
+			if (hits != null)
+				hits.add(other);
+		}
+		
+		GameObject below = gameObjectBelow(x, y, width, nearbyGameObjects);
+		if (below != null) {
+			result |= PROBE_ON_TOP_OF_GAME_OBJECT;
+			if (hits != null)
+				hits.add(below); }
+		return result;
+	}
 
 	/**
 	 * Return the first added mazub in this world. If there is no mazub added yet or the mazub 
@@ -655,7 +1363,7 @@ public class World {
 	public Mazub getMazub() {
 		if (firstMazub == null) 
 			return null; 
-		else if (!hasAsGameObject(firstMazub)) 
+		else if (firstMazub.getWorld() != this) 
 			return null; 
 		else return firstMazub;	
 	}
@@ -684,14 +1392,14 @@ public class World {
 	 * the window position is set to {0,0}. If the world is smaller than its visible window, then there is no position.
 	 * @post	if (getMazub().getPixelPosition()[0] <= getVisibleWindowDimension()[0]/2) 
 	 * 				then new.x == 0
-	 * @post	else if (getMazub().getPixelPosition().getX() >= getSizeInPixels()[0] - getVisibleWindowDimension()[0]/2) 
+	 * @post	else if (getMazub().getPixelX() >= getSizeInPixels()[0] - getVisibleWindowDimension()[0]/2) 
 	 * 				then new.x == getSizeInPixels()[0] - getVisibleWindowDimension()[0]
-	 * @post	else new.x = getMazub().getPixelPosition().getX() - getVisibleWindowDimension()[0]/2
-	 * @post	if (getMazub().getMazub().getPixelPosition().getY() <= getVisibleWindowDimension()[1]/2) 
+	 * @post	else new.x = getMazub().getPixelX() - getVisibleWindowDimension()[0]/2
+	 * @post	if (getMazub().getMazub().getPixelY() <= getVisibleWindowDimension()[1]/2) 
 	 * 				then new.y == 0
-	 * @post	else if (getMazub().getPixelPosition().getY() >= getSizeInPixels()[0] - getVisibleWindowDimension()[1]/2) 
+	 * @post	else if (getMazub().getPixelY() >= getSizeInPixels()[0] - getVisibleWindowDimension()[1]/2) 
 	 * 				then new.y == getSizeInPixels()[1] - getVisibleWindowDimension()[1]
-	 * @post	else new.y = getMazub().getPixelPosition().getY() - getVisibleWindowDimension()[1]/2
+	 * @post	else new.y = getMazub().getPixelY() - getVisibleWindowDimension()[1]/2
 	 * @return	if (getMazub() == null) {
 	 *				then result ==  new int[] {0,0}
 	 * @return	result == new int[] {x, y}
@@ -709,8 +1417,8 @@ public class World {
 		if (getMazub() == null) 
 			return new Position<Integer>(0, 0); 
 		
-		int xx = getMazub().getPixelPosition().getX();
-		int yy = getMazub().getPixelPosition().getY();
+		int xx = getMazub().getPixelX();
+		int yy = getMazub().getPixelY();
 	
 		if (xx <= getVisibleWindowDimension()[0]/2) 
 			x = 0; 
@@ -772,36 +1480,35 @@ public class World {
 	 */
 	@Raw
 	public boolean validTiles(int x, int y, int width, int height) {
-		int i = 0;
-		List<Integer> geologicalFeatures = new ArrayList<Integer>();
-		while(i < width) {
-			int j = 1;
-			while (j < height) {
-				geologicalFeatures.add(getGeologicalFeature(x + i , y + j));
-				j ++; }
-			i ++; }	
-				ImpassableTerrain feature = new ImpassableTerrain() {
-					@Override
-					public boolean isImpassableTerrain(int geologicalFeature) {
-						return (geologicalFeature == 1 || geologicalFeature == 4);
-					}
-				};
-				return geologicalFeatures.stream()				
-				.allMatch(p -> !(feature.isImpassableTerrain(p)));
+		if (tickProfiler != null)
+			tickProfiler.count(TickProfiler.COUNT_TERRAIN_PROBES);
+		int left = Math.max(x, 0);
+		int bottom = Math.max(y + 1, 0);
+		int right = Math.min(x + width - 1, NB_X_TILES*getTileLength() - 1);
+		int top = Math.min(y + height - 1, NB_Y_TILES*getTileLength() - 1);
+		if (left > right || bottom > top) 
+			return true;
+		
+		int minTileX = left/getTileLength();
+		int maxTileX = right/getTileLength();
+		for (int tileY = bottom/getTileLength(); tileY <= top/getTileLength(); tileY++) 
+			if (terrain.hasImpassableTileInRow(minTileX, maxTileX, tileY)) 
+				return false; 
+		return true;
 	}
 	
 	/**
 	 * Returns the x-positions of the corners of the given game object.
 	 * @param 	object
 	 * 			The game object of which the corners are needed.
-	 * @return	result == {(int) object.getPixelPosition().getX() , 
-	 * 						(int) object.getPixelPosition().getX() +object.getCurrentSprite().getWidth() }
+	 * @return	result == {object.getPixelX() , 
+	 * 						object.getPixelX() +object.getCurrentSprite().getWidth() }
 	 */
 	public 	int[] getCornersX(GameObject object) {
 		int[] cornersX = new int[2];
 		int width = object.getCurrentSprite().getWidth();
-		cornersX[0] = (int) object.getPixelPosition().getX() ;
-		cornersX[1] = (int) object.getPixelPosition().getX()+width;
+		cornersX[0] = object.getPixelX() ;
+		cornersX[1] = object.getPixelX()+width;
 		return cornersX;
 	}
 	
@@ -809,20 +1516,24 @@ public class World {
 	 * Returns the y-positions of the corners of the given game object.
 	 * @param 	object
 	 * 			The game object of which the corners are needed.
-	 * @return	result == {(int) object.getPixelPosition().getY(), 
-	 * 						(int) object.getPixelPosition().getY()+object.getCurrentSprite().getHeight() }
+	 * @return	result == {object.getPixelY(), 
+	 * 						object.getPixelY()+object.getCurrentSprite().getHeight() }
 	 */
 	public 	int[] getCornersY(GameObject object) {
 		int[] cornersY = new int[2];
 		int height = object.getCurrentSprite().getHeight();
-		cornersY[0] = (int) object.getPixelPosition().getY() ;		
-		cornersY[1] = (int) object.getPixelPosition().getY()+height ;
+		cornersY[0] = object.getPixelY() ;		
+		cornersY[1] = object.getPixelY()+height ;
 		return cornersY;
 	}
 	
 
 	/**
 	 * Advance the time of this world with the given time dt.
+	 * Mazub is advanced first, then all other game objects in the order in which they were added.
+	 * Game objects removed while time is advanced are still advanced in this call.
+	 * If this world has a pool to advance its game objects in, game objects that cannot affect each other 
+	 * during this call are advanced concurrently in that pool, with the same result.
 	 */
 	public void advanceWorldTime(double dt) throws IllegalArgumentException {
 
@@ -830,20 +1541,323 @@ public class World {
 		if (Double.isNaN(dt) || Double.isInfinite(dt) || dt < 0 || dt > 0.2) 
 			throw new IllegalArgumentException("Illegal dt given");
 		
-		if (this.getMazub() != null) {
-			this.getMazub().advanceTime(dt);
+		TickProfiler profiler = tickProfiler;
+		if (profiler != null) 
+			profiler.count(TickProfiler.COUNT_TICKS);
 		
-		Set<Object> gameObjectsCopy = getAllGameObjects();
-		gameObjectsCopy.remove(this.getMazub());
-		gameObjectsCopy.stream()
-		.forEach(o -> ((GameObject) o).advanceTime(dt));
-		}
+		Mazub mazub = this.getMazub();
+		if (mazub != null) {
+			mazub.advanceTime(dt);
+			mazub = this.getMazub(); }
+		
+		long start = (profiler != null) ? profiler.startPhase() : 0;
+		List<Object> gameObjects = getGameObjectsSnapshot();
+		if (activityMargin >= 0 || activeGameObjects != null) 
+			gameObjects = getActiveGameObjects(gameObjects);
+		time += dt;
+		if (profiler != null) 
+			profiler.count(TickProfiler.COUNT_OBJECTS_ADVANCED, gameObjects.size());
+		if (advancePool != null) {
+			List<List<GameObject>> groups = getIndependentGroups(gameObjects, mazub, dt);
+			if (groups.size() > 1) {
+				List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(groups.size());
+				Mazub advancedMazub = mazub;
+				for (List<GameObject> group : groups) 
+					tasks.add(ForkJoinTask.adapt(() -> advanceGameObjects(group, advancedMazub, dt)));
+				advancePool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+				if (profiler != null) 
+					profiler.endPhase(TickProfiler.PHASE_OTHER_OBJECTS, start);
+				return; } }
 		
+		for (Object object : gameObjects) {
+			if (object != mazub) 
+				((GameObject) object).advanceTime(dt); }
+		if (profiler != null) 
+			profiler.endPhase(TickProfiler.PHASE_OTHER_OBJECTS, start);
+	}
+	
+	/**
+	 * Advance the time of the given game objects, in the given order, with the given time dt.
+	 * 
+	 * @param 	gameObjects
+	 * 			The game objects to advance.
+	 * @param 	mazub
+	 * 			The mazub that has already been advanced and must be skipped.
+	 * @param 	dt
+	 * 			The time to advance.
+	 */
+	private static void advanceGameObjects(List<GameObject> gameObjects, Mazub mazub, double dt) {
+		for (GameObject object : gameObjects) {
+			if (object != mazub) 
+				object.advanceTime(dt); }
+	}
+	
+	/**
+	 * Variable registering the pool in which the game objects of this world are advanced concurrently, 
+	 * or null if they are advanced one after the other.
+	 */
+	private ForkJoinPool advancePool;
+	
+	/**
+	 * Return the pool in which the game objects of this world are advanced concurrently, 
+	 * or null if they are advanced one after the other.
+	 */
+	@Basic
+	public ForkJoinPool getAdvancePool() {
+		return advancePool;
+	}
+	
+	/**
+	 * Set the pool in which the game objects of this world are advanced concurrently.
+	 * 
+	 * @param 	advancePool
+	 * 			The new pool, or null to advance game objects one after the other.
+	 * @post	new.getAdvancePool() == advancePool
+	 */
+	public void setAdvancePool(ForkJoinPool advancePool) {
+		this.advancePool = advancePool;
+	}
+	
+	/**
+	 * Variable registering the time that has been advanced in this world.
+	 */
+	private double time = 0;
+	
+	/**
+	 * Variable registering the number of pixels around the visible window of this world within which 
+	 * game objects are advanced, or a negative number if all game objects are advanced.
+	 */
+	private int activityMargin = -1;
+	
+	/**
+	 * Return the number of pixels around the visible window of this world within which game objects are advanced, 
+	 * or a negative number if all game objects are advanced.
+	 */
+	@Basic
+	public int getActivityMargin() {
+		return activityMargin;
+	}
+	
+	/**
+	 * Set the number of pixels around the visible window of this world within which game objects are advanced.
+	 * Game objects outside that region fall asleep until they are inside it again, when they catch up with 
+	 * the time they slept as far as they can do so cheaply (see GameObject.advanceDormantTime).
+	 * Mazub never falls asleep.
+	 * 
+	 * @param 	activityMargin
+	 * 			The new margin in pixels, or a negative number to advance all game objects.
+	 * @post	new.getActivityMargin() == activityMargin
+	 */
+	public void setActivityMargin(int activityMargin) {
+		this.activityMargin = activityMargin;
+	}
+	
+	/**
+	 * Return the region of this world within which game objects are advanced, as the left-most x-position, 
+	 * the lowest y-position, the right-most x-position and the highest y-position of a rectangle of pixels.
+	 * 
+	 * @return	if (getActivityMargin() < 0 || !isValidWindow()) then
+	 * 				result == null
+	 * @return	result == new int[] { getVisibleWindowPosition().getX() - getActivityMargin(), 
+	 * 				getVisibleWindowPosition().getY() - getActivityMargin(),
+	 * 				getVisibleWindowPosition().getX() + getVisibleWindowDimension()[0] + getActivityMargin(),
+	 * 				getVisibleWindowPosition().getY() + getVisibleWindowDimension()[1] + getActivityMargin() }
+	 */
+	public int[] getActivityRegion() {
+		if (activityMargin < 0 || !isValidWindow()) 
+			return null;
+		Position<Integer> window = getVisibleWindowPosition();
+		return new int[] { window.getX() - activityMargin, window.getY() - activityMargin, 
+				window.getX() + VISIBLE_WINDOW_WIDTH + activityMargin, window.getY() + VISIBLE_WINDOW_HEIGHT + activityMargin };
+	}
+	
+	/**
+	 * Variable registering the game objects that were advanced during the last advance of the time of this world 
+	 * in an activity region, in the order they were added, or null if the game objects of this world must all be 
+	 * checked against the activity region again.
+	 */
+	private List<Object> activeGameObjects;
+	
+	/**
+	 * Variable registering the list filled with the game objects near the activity region on every tick.
+	 * Waking up a game object advances it, which looks up nearby game objects itself, so this lookup cannot
+	 * use the list of getGameObjectsNear.
+	 */
+	private final List<GameObject> activityCandidates = new ArrayList<GameObject>();
+	
+	/**
+	 * Return the game objects of the given snapshot of this world that are in its activity region, in the same order. 
+	 * Game objects in that region that are dormant wake up and catch up with the time they slept first, 
+	 * and game objects outside it that are not dormant fall asleep.
+	 * Only the game objects that were active during the last call and the game objects near the activity region 
+	 * are looked at, unless all game objects must be checked again.
+	 * 
+	 * @param 	gameObjects
+	 * 			The snapshot of the game objects of this world.
+	 */
+	private List<Object> getActiveGameObjects(List<Object> gameObjects) {
+		int[] region = getActivityRegion();
+		List<Object> result = new ArrayList<Object>();
+		if (region == null || activeGameObjects == null) {
+			for (Object object : gameObjects) 
+				updateDormancy((GameObject) object, region, result); }
 		else {
-		getAllGameObjects().stream()
-		.forEach(o -> ((GameObject) o).advanceTime(dt));}
+			for (Object object : activeGameObjects) {
+				GameObject gameObject = (GameObject) object;
+				if (gameObject.getWorld() == this && !(gameObject instanceof Mazub) && !isInRegion(gameObject, region)) 
+					fallAsleep(gameObject); }
+			for (GameObject object : grid.getGameObjectsNear(null, region[0], region[1], region[2], region[3],
+					activityCandidates)) 
+				if (isInRegion(object, region))
+					updateDormancy(object, region, result);
+			result.sort((first, second) -> 
+					Long.compare(((GameObject) first).additionNumber, ((GameObject) second).additionNumber)); }
+		activeGameObjects = (region == null) ? null : result;
+		return result;
+	}
+	
+	/**
+	 * Let the given game object fall asleep if it is outside the given region, or wake it up and add it 
+	 * to the given list of active game objects otherwise. A game object that leaves this world while catching up 
+	 * is not added.
+	 */
+	private void updateDormancy(GameObject object, int[] region, List<Object> result) {
+		if (region != null && !(object instanceof Mazub) && !isInRegion(object, region)) {
+			fallAsleep(object);
+			return; }
+		if (object.isDormant) {
+			object.isDormant = false;
+			object.advanceDormantTime(time - object.dormantSince); }
+		if (object.getWorld() == this) 
+			result.add(object);
+	}
+	
+	/**
+	 * Let the given game object fall asleep, if it is not dormant yet.
+	 */
+	private void fallAsleep(GameObject object) {
+		if (!object.isDormant) {
+			object.isDormant = true;
+			object.dormantSince = time; }
+	}
+	
+	/**
+	 * Check whether the given game object touches the given rectangle of pixels.
+	 */
+	private static boolean isInRegion(GameObject object, int[] region) {
+		return object.getPixelX() + object.getCurrentSprite().getWidth() >= region[0] && object.getPixelX() <= region[2] 
+				&& object.getPixelY() + object.getCurrentSprite().getHeight() >= region[1] && object.getPixelY() <= region[3];
+	}
+	
+	/**
+	 * Variable registering the profiler measuring the time of this world as it advances, 
+	 * or null if nothing is measured.
+	 */
+	TickProfiler tickProfiler;
+	
+	/**
+	 * Return the profiler measuring the time of this world as it advances, or null if nothing is measured.
+	 */
+	@Basic
+	public TickProfiler getTickProfiler() {
+		return tickProfiler;
+	}
+	
+	/**
+	 * Set the profiler measuring the time of this world as it advances.
+	 * 
+	 * @param 	tickProfiler
+	 * 			The new profiler, or null to stop measuring.
+	 * @post	new.getTickProfiler() == tickProfiler
+	 */
+	public void setTickProfiler(TickProfiler tickProfiler) {
+		this.tickProfiler = tickProfiler;
+	}
+	
+	/**
+	 * Variable registering the number of pixels that is added around a game object when looking for 
+	 * the game objects it may affect, on top of the distance it can move.
+	 */
+	private static final int INTERACTION_MARGIN = 4;
+	
+	/**
+	 * Split the given game objects into groups that cannot affect each other while they advance the given time dt.
+	 * Two game objects are put in the same group if they may look at a common cell of the grid of this world, 
+	 * which covers every game object they may find near them, or if they are slimes of the same school. 
+	 * Game objects that may touch the given mazub are put in the group of that mazub.
+	 * Each group holds its game objects in the given order, and groups are ordered by their first game object.
+	 * 
+	 * @param 	gameObjects
+	 * 			The game objects to split.
+	 * @param 	mazub
+	 * 			The mazub of this world, or null.
+	 * @param 	dt
+	 * 			The time the game objects will advance.
+	 */
+	private List<List<GameObject>> getIndependentGroups(List<Object> gameObjects, Mazub mazub, double dt) {
+		int size = gameObjects.size();
+		int[] parent = new int[size];
+		Map<Integer, Integer> cellOwners = new HashMap<Integer, Integer>();
+		Map<School, Integer> schoolOwners = new HashMap<School, Integer>();
 		
-
+		for (int i = 0; i < size; i++) {
+			parent[i] = i;
+			GameObject object = (GameObject) gameObjects.get(i);
+			int[] cells;
+			if (object == mazub || object.gridCell < 0) 
+				cells = object.gridCell < 0 ? new int[0] : new int[] { object.gridCell };
+			else {
+				int reach = (int) Math.ceil(object.getMaximalDisplacement(dt)*100) + INTERACTION_MARGIN;
+				int width = 0;
+				int height = 0;
+				for (Sprite sprite : object.getAllSprites()) {
+					width = Math.max(width, sprite.getWidth());
+					height = Math.max(height, sprite.getHeight()); }
+				cells = grid.getCellsNear(object.getPixelX() - reach, object.getPixelY() - reach, 
+						object.getPixelX() + width + reach, object.getPixelY() + height + reach); }
+			
+			for (int cell : cells) {
+				Integer owner = cellOwners.putIfAbsent(cell, i);
+				if (owner != null) 
+					union(parent, owner, i); }
+			
+			if (object instanceof Slime && ((Slime) object).isInSchool()) {
+				Integer owner = schoolOwners.putIfAbsent(((Slime) object).getCurrentSchool(), i);
+				if (owner != null) 
+					union(parent, owner, i); } }
+		
+		List<List<GameObject>> groups = new ArrayList<List<GameObject>>();
+		int[] groupOfRoot = new int[size];
+		Arrays.fill(groupOfRoot, -1);
+		for (int i = 0; i < size; i++) {
+			int root = find(parent, i);
+			if (groupOfRoot[root] < 0) {
+				groupOfRoot[root] = groups.size();
+				groups.add(new ArrayList<GameObject>()); }
+			groups.get(groupOfRoot[root]).add((GameObject) gameObjects.get(i)); }
+		return groups;
+	}
+	
+	/**
+	 * Return the representative of the set holding the given element of a union-find forest.
+	 */
+	private static int find(int[] parent, int element) {
+		while (parent[element] != element) {
+			parent[element] = parent[parent[element]];
+			element = parent[element]; }
+		return element;
+	}
+	
+	/**
+	 * Merge the sets holding the given elements of a union-find forest.
+	 */
+	private static void union(int[] parent, int first, int second) {
+		int firstRoot = find(parent, first);
+		int secondRoot = find(parent, second);
+		if (firstRoot < secondRoot) 
+			parent[secondRoot] = firstRoot;
+		else if (secondRoot < firstRoot) 
+			parent[firstRoot] = secondRoot;
 	}
 	
 	/**
@@ -857,18 +1871,46 @@ public class World {
 	 * 							for (Object i : gameObjectsCopy)
 	 * 			else result == false
 	 */
-	public boolean onTopOfOtherGameObject(GameObject object, Set<Object> gameObjectsCopy) {
-
-		int rowToCheck = object.getPixelPosition().getY()+1;
+	public boolean onTopOfOtherGameObject(GameObject object, Collection<? extends Object> gameObjectsCopy) {
+		return onTopOfOtherGameObject(object.getPixelX(), object.getPixelY(), 
+				object.getCurrentSprite().getWidth(), gameObjectsCopy);
+	}
+	
+	/**
+	 * Checks whether a hitbox with the given bottom-left pixel and width is positioned on top of 
+	 * another gameobject in the list gameObjectsCopy.
+	 * 
+	 * @param 	x
+	 * 			The x-position of the bottom-left pixel of the hitbox.
+	 * @param 	y
+	 * 			The y-position of the bottom-left pixel of the hitbox.
+	 * @param 	width
+	 * 			The width of the hitbox.
+	 * @param 	gameObjectsCopy
+	 * 			Set of GameObjects on which the hitbox is possibly on top.
+	 * @return	result == true if (((GameObject) i).getPixelY() + ((GameObject) i).getCurrentSprite().getHeight() == y + 1) &&
+	 * 							x <= ((GameObject) i).getPixelX() + ((GameObject) i).getCurrentSprite().getWidth() &&
+	 * 							x + width >= ((GameObject) i).getPixelX()
+	 * 							for some Object i in gameObjectsCopy that is no Plant
+	 * 			else result == false
+	 */
+	public boolean onTopOfOtherGameObject(int x, int y, int width, Collection<? extends Object> gameObjectsCopy) {
+		return gameObjectBelow(x, y, width, gameObjectsCopy) != null;
+	}
+	
+	/**
+	 * Return the first game object of the given ones that a hitbox with the given bottom-left pixel and width 
+	 * is positioned on top of, as in onTopOfOtherGameObject, or null if there is none.
+	 */
+	private GameObject gameObjectBelow(int x, int y, int width, Collection<? extends Object> gameObjectsCopy) {
 		for (Object i : gameObjectsCopy) {
-
 			if (!(i instanceof Plant)) {
-				if (((GameObject) i).getPixelPosition().getY() + ((GameObject) i).getCurrentSprite().getHeight() == rowToCheck) {
-					for (int j = object.getPixelPosition().getX(); j <= object.getPixelPosition().getX()+ object.getCurrentSprite().getWidth();j++) {
-						if (j >= ((GameObject) i).getPixelPosition().getX() && j <= ((GameObject) i).getPixelPosition().getX() + ((GameObject) i).getCurrentSprite().getWidth() )			
-							return true; } } }
-			return false; }
-	return false;	
+				GameObject other = (GameObject) i;
+				if (other.getPixelY() + other.getCurrentSprite().getHeight() == y + 1) {
+					if (x <= other.getPixelX() + other.getCurrentSprite().getWidth() 
+							&& x + width >= other.getPixelX())			
+						return other; } } }
+		return null;	
 	}
 
 	/**
@@ -887,12 +1929,23 @@ public class World {
 	 * 			The school that has to be added to this world
 	 * @post	this.hasAsSchool(school) == true
 	 * @throws	IllegalArgumentException
-	 * 			this.getAllSchools().size() >= 10
+	 * 			this.getNbSchools() >= getMaxNbSchools()
 	 */
 	public void addSchool(School school) throws IllegalArgumentException {
-		if (this.getAllSchools().size() >= 10) 
-			throw new IllegalArgumentException("There are already 10 schools in this world.");
- 		schools.add((School) school);	
+		if (this.getNbSchools() >= MAX_SCHOOLS) 
+			throw new IllegalArgumentException("There are already " + MAX_SCHOOLS + " schools in this world.");
+		schools.add(school);
+		if (!schoolRosterIndices.containsKey(school)) {
+			schoolRosterIndices.put(school, schoolRoster.size());
+			schoolRoster.add(school); }
+	}
+	
+	/**
+	 * Returns the number of schools in this World.
+	 * @return	result == schools.size()
+	 */
+	public int getNbSchools() {
+		return schools.size();
 	}
 	
 	/**
@@ -922,65 +1975,365 @@ public class World {
 		if (!hasAsSchool(object)) 
 			throw new IllegalArgumentException("This school is not an object of this world."); 
 		
-		schools.remove(schools.indexOf(object));
+		schools.remove(object);
 		((School) object).setWorld(null);
 		
 	}
 
 	/**
-	 * Variable registering all the schools in this World.
+	 * Variable registering all the schools in this World, in the order they were added.
 	 */
-	public List<School> schools = new ArrayList<School>();
+	public Set<School> schools = new LinkedHashSet<School>();
 
 	/**
-	 * A static World used to represent the universe.
+	 * Variable registering every school that has ever been added to this world, in the order in which
+	 * it was first added (see writeSnapshot).
 	 */
-	public static World Instance = new World(10, 100, 200, new int[] { 10, 20 }, 20, 10);
-	
+	private final List<School> schoolRoster = new ArrayList<School>();
+
 	/**
-	 * Variable registering the slimeIds in this World.
+	 * Variable registering the index in the school roster of each school in it.
 	 */
-	public Set<Integer> slimeIds = new HashSet<Integer>();
-	
+	private final Map<School, Integer> schoolRosterIndices = new IdentityHashMap<School, Integer>();
+
 	/**
-	 * Returns if a certain slimeId is in this world.
-	 * @param   id
-	 * 			The id that might be in this world.
-	 * @return 	result == slimeIds.contains(id)
+	 * Variable registering the number with which each snapshot of a world starts.
 	 */
-	public boolean containsId(int id) {
-		return (slimeIds.contains(id)); 
+	private static final int SNAPSHOT_MAGIC = 0x4A41534E;
+
+	/**
+	 * Variable registering the version of the format of the snapshots written by this class.
+	 */
+	private static final int SNAPSHOT_VERSION = 1;
+
+	/**
+	 * Variable registering the classes of game objects whose state can be written to a snapshot, at their number in a snapshot.
+	 */
+	private static final Class<?>[] SNAPSHOT_KINDS = { Mazub.class, Slime.class, Shark.class, Sneezewort.class, Skullcab.class };
+
+	/**
+	 * Write the full state of this world to the given buffer, from its position on: the geological features of its tiles,
+	 * the state of every game object and school that has ever been added to it, including those that have left it since,
+	 * which game objects and schools are in it, the schools and ids of the slimes, and the time of this world.
+	 * How this world is advanced (its activity margin, pool and profiler) is not part of its state.
+	 * Game objects and schools are written by the order in which they were first added to this world, and their sprites
+	 * by their index among the sprites of their game object, so the snapshot holds no references and can be stored.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to write to.
+	 * @throws	BufferOverflowException
+	 * 			The buffer has too little room left for the snapshot.
+	 * @throws	IllegalArgumentException
+	 * 			A game object of this world is of a class whose state can not be written,
+	 * 			or a slime of this world is in a school that was never added to this world.
+	 */
+	public void writeSnapshot(ByteBuffer buffer) throws BufferOverflowException, IllegalArgumentException {
+		buffer.putInt(SNAPSHOT_MAGIC);
+		buffer.putInt(SNAPSHOT_VERSION);
+		buffer.putInt(NB_X_TILES);
+		buffer.putInt(NB_Y_TILES);
+		buffer.putInt(roster.size());
+		for (GameObject object : roster) 
+			buffer.put((byte) getSnapshotKind(object));
+		buffer.putInt(schoolRoster.size());
+		for (GameObject object : roster) 
+			if (object instanceof Slime) {
+				Slime slime = (Slime) object;
+				buffer.putLong(slime.getId());
+				buffer.put((byte) (slime.getSlimeIdRegistry().contains(slime.getId()) ? 1 : 0)); }
+		
+		buffer.putInt(MAX_OBJECTS);
+		buffer.putInt(MAX_SCHOOLS);
+		buffer.put((byte) ((isStarted ? 1 : 0) | (isTerminated ? 1 << 1 : 0) | (mazubAdded ? 1 << 2 : 0)));
+		buffer.putLong(nbGameObjectsAdded);
+		buffer.putDouble(time);
+		buffer.putInt((firstMazub == null) ? -1 : rosterIndices.get(firstMazub));
+		
+		int countPosition = buffer.position();
+		buffer.putInt(0);
+		int nbRuns = 0;
+		int feature = -1;
+		int length = 0;
+		for (int tileY = 0; tileY < NB_Y_TILES; tileY++) 
+			for (int tileX = 0; tileX < NB_X_TILES; tileX++) {
+				int tileFeature = terrain.getFeature(tileX, tileY);
+				if (tileFeature != feature && length > 0) {
+					buffer.put((byte) feature);
+					buffer.putInt(length);
+					nbRuns++;
+					length = 0; }
+				feature = tileFeature;
+				length++; }
+		if (length > 0) {
+			buffer.put((byte) feature);
+			buffer.putInt(length);
+			nbRuns++; }
+		buffer.putInt(countPosition, nbRuns);
+		
+		for (School school : schoolRoster) {
+			buffer.put((byte) (schools.contains(school) ? 1 : 0));
+			school.writeState(buffer); }
+		for (GameObject object : roster) {
+			object.writeState(buffer);
+			if (object instanceof Slime) {
+				School school = ((Slime) object).getCurrentSchool();
+				Integer index = (school == null) ? Integer.valueOf(-1) : schoolRosterIndices.get(school);
+				if (index == null)
+					throw new IllegalArgumentException("A slime is in a school of another world.");
+				buffer.putInt(index); }
+			buffer.putInt(object.contacts.size());
+			for (GameObject other : object.contacts) {
+				Integer index = rosterIndices.get(other);
+				buffer.putInt((index == null) ? -1 : index); } }
+		buffer.putInt(gameObjects.size());
+		for (Object object : gameObjects) 
+			buffer.putInt(rosterIndices.get(object));
+		grid.writeState(buffer, rosterIndices);
 	}
-	
+
+	/**
+	 * Return a new buffer holding a snapshot of the full state of this world, ready to be read.
+	 * 
+	 * @effect	writeSnapshot(result)
+	 * @post	result.position() == 0
+	 */
+	public ByteBuffer createSnapshot() throws IllegalArgumentException {
+		int capacity = 4096 + 512 * roster.size();
+		while (true) {
+			ByteBuffer buffer = ByteBuffer.allocate(capacity);
+			try {
+				writeSnapshot(buffer);
+				buffer.flip();
+				return buffer; }
+			catch (BufferOverflowException e) {
+				capacity *= 2; } }
+	}
+
 	/**
-	 * Adds a slimeId to the list of slimeIds
-	 * @param 	id
-	 * 			The id which has to be added.
+	 * Return the number of the class of the given game object in a snapshot.
+	 * 
 	 * @throws	IllegalArgumentException
-	 * 			containsId(id)
-	 * @effect	slimeIds.add(id)
+	 * 			The state of game objects of the class of the given game object can not be written.
 	 */
-	public void addSlimeId(int id) throws IllegalArgumentException{
-		if(containsId(id)) 
-			throw new IllegalArgumentException("ID already exists."); 	
-		slimeIds.add(id);
+	private static int getSnapshotKind(GameObject object) throws IllegalArgumentException {
+		for (int kind = 0; kind < SNAPSHOT_KINDS.length; kind++) 
+			if (object.getClass() == SNAPSHOT_KINDS[kind]) 
+				return kind;
+		throw new IllegalArgumentException("The state of a " + object.getClass().getSimpleName() + " can not be written.");
 	}
-	
+
 	/**
-	 * Removes a certain slimeId from the set of slimeIds
-	 * @param id
-	 * 			The id that has to be removed
-	 * @effect	slimeIds.remove(id)
-	 */
-	public void removeSlimeId(int id) {
-		slimeIds.remove(id);
+	 * Restore the full state of this world written by writeSnapshot to the given buffer, from its position on.
+	 * The snapshot must have been taken of this world, or of a world of the same size to which game objects of the same 
+	 * classes with the same sprites and schools were added in the same order, such as another copy of the same level;
+	 * the game objects and schools of this world then take over the state of those of the snapshot, 
+	 * so that this world continues exactly as the world of the snapshot did. 
+	 * Game objects and schools that have left this world are added to it again if they were in it in the snapshot,
+	 * and slimes get the ids of the snapshot in their own registries.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @throws	IllegalArgumentException
+	 * 			The snapshot was not taken of a world built like this world, it is truncated or damaged,
+	 * 			or an id of a slime in the snapshot is used by a slime that is not in this world.
+	 * 			In each case, this world and the position of the buffer are left as they were.
+	 */
+	public void restoreSnapshot(ByteBuffer buffer) throws IllegalArgumentException {
+		checkSnapshot(buffer.duplicate());
+		int start = buffer.position();
+		try {
+			readSnapshot(buffer); }
+		catch (IllegalArgumentException e) {
+			buffer.position(start);
+			throw e; }
 	}
-	
+
 	/**
-	 * Removes all the slimeIds
-	 * @effect	slimeIds.clear()
+	 * Check that the given buffer, from its position on, holds a snapshot written by writeSnapshot that can be
+	 * restored in this world, without changing this world. The position of the buffer is moved past the snapshot.
+	 * 
+	 * @param 	buffer
+	 * 			The buffer to read from.
+	 * @throws	IllegalArgumentException
+	 * 			The snapshot was not taken of a world built like this world, it is truncated, or it holds
+	 * 			a geological feature, a maximum number of game objects or schools or a reference to a game object
+	 * 			or school that no world built like this world can have.
+	 */
+	private void checkSnapshot(ByteBuffer buffer) throws IllegalArgumentException {
+		try {
+			if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION)
+				throw new IllegalArgumentException("This is no snapshot of a world.");
+			if (buffer.getInt() != NB_X_TILES || buffer.getInt() != NB_Y_TILES)
+				throw new IllegalArgumentException("The snapshot is of a world of another size.");
+			if (buffer.getInt() != roster.size())
+				throw new IllegalArgumentException("The snapshot has another number of game objects.");
+			for (GameObject object : roster) 
+				if (buffer.get() != getSnapshotKind(object))
+					throw new IllegalArgumentException("The snapshot has game objects of other classes.");
+			if (buffer.getInt() != schoolRoster.size())
+				throw new IllegalArgumentException("The snapshot has another number of schools.");
+			for (GameObject object : roster) 
+				if (object instanceof Slime) 
+					GameObject.skipBytes(buffer, Long.BYTES + 1);
+			
+			if (buffer.getInt() < 0 || buffer.getInt() < 0)
+				throw new IllegalArgumentException("The snapshot has a negative maximum number of game objects or schools.");
+			GameObject.skipBytes(buffer, 1 + Long.BYTES + Double.BYTES);
+			int mazub = buffer.getInt();
+			if (mazub < -1 || mazub >= roster.size() || (mazub >= 0 && !(roster.get(mazub) instanceof Mazub)))
+				throw new IllegalArgumentException("The first mazub of the snapshot is no mazub of this world.");
+			
+			int nbRuns = buffer.getInt();
+			int tile = 0;
+			for (int run = 0; run < nbRuns; run++) {
+				int feature = buffer.get();
+				int length = buffer.getInt();
+				if (feature < 0 || feature > Tile.GAS.getFeature())
+					throw new IllegalArgumentException("The snapshot has an unknown geological feature " + feature + ".");
+				if (length <= 0 || length > NB_X_TILES * NB_Y_TILES - tile)
+					throw new IllegalArgumentException("The snapshot has a run of " + length + " tiles at tile " + tile + ".");
+				tile += length; }
+			if (tile != NB_X_TILES * NB_Y_TILES)
+				throw new IllegalArgumentException("The snapshot has " + tile + " tiles instead of " 
+						+ NB_X_TILES * NB_Y_TILES + ".");
+			
+			for (School school : schoolRoster) {
+				buffer.get();
+				school.skipState(buffer); }
+			for (GameObject object : roster) {
+				object.skipState(buffer);
+				if (object instanceof Slime) {
+					int school = buffer.getInt();
+					if (school < -1 || school >= schoolRoster.size())
+						throw new IllegalArgumentException("The snapshot has a slime in an unknown school."); }
+				int nbContacts = buffer.getInt();
+				if (nbContacts < 0 || nbContacts > roster.size())
+					throw new IllegalArgumentException("The snapshot has a game object with " + nbContacts + " contacts.");
+				for (int i = 0; i < nbContacts; i++) {
+					int other = buffer.getInt();
+					if (other < -1 || other >= roster.size())
+						throw new IllegalArgumentException("The snapshot has a contact with an unknown game object."); } }
+			int nbGameObjects = buffer.getInt();
+			if (nbGameObjects < 0 || nbGameObjects > roster.size())
+				throw new IllegalArgumentException("The snapshot has " + nbGameObjects + " game objects in its world.");
+			for (int i = 0; i < nbGameObjects; i++) {
+				int object = buffer.getInt();
+				if (object < 0 || object >= roster.size())
+					throw new IllegalArgumentException("The snapshot has an unknown game object in its world."); }
+			grid.skipState(buffer, roster.size()); }
+		catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("The snapshot is truncated.", e); }
+	}
+
+	/**
+	 * Restore the full state of this world written by writeSnapshot to the given buffer, as in restoreSnapshot,
+	 * for a snapshot that has been checked by checkSnapshot.
+	 * 
+	 * @throws	IllegalArgumentException
+	 * 			An id of a slime in the snapshot is used by a slime that is not in this world. 
+	 * 			This world is then left as it was.
 	 */
-	public void cleanAllSlimes() {
-		slimeIds.clear();
+	private void readSnapshot(ByteBuffer buffer) throws IllegalArgumentException {
+		// the header, checked by checkSnapshot
+		GameObject.skipBytes(buffer, 6 * Integer.BYTES + roster.size());
+		restoreSlimeIds(buffer);
+		
+		MAX_OBJECTS = buffer.getInt();
+		MAX_SCHOOLS = buffer.getInt();
+		int flags = buffer.get();
+		isStarted = (flags & 1) != 0;
+		isTerminated = (flags & 1 << 1) != 0;
+		mazubAdded = (flags & 1 << 2) != 0;
+		nbGameObjectsAdded = buffer.getLong();
+		time = buffer.getDouble();
+		int mazub = buffer.getInt();
+		firstMazub = (mazub < 0) ? null : (Mazub) roster.get(mazub);
+		
+		int nbRuns = buffer.getInt();
+		int tile = 0;
+		int minTileX = NB_X_TILES, minTileY = NB_Y_TILES, maxTileX = -1, maxTileY = -1;
+		for (int run = 0; run < nbRuns; run++) {
+			int feature = buffer.get();
+			int length = buffer.getInt();
+			for (int end = tile + length; tile < end; tile++) {
+				int tileX = tile % NB_X_TILES;
+				int tileY = tile / NB_X_TILES;
+				if (terrain.getFeature(tileX, tileY) != feature) {
+					terrain.setFeature(tileX, tileY, feature);
+					minTileX = Math.min(minTileX, tileX);
+					minTileY = Math.min(minTileY, tileY);
+					maxTileX = Math.max(maxTileX, tileX);
+					maxTileY = Math.max(maxTileY, tileY); } } }
+		if (maxTileX >= 0)
+			terrainChanged(minTileX, minTileY, maxTileX, maxTileY);
+		
+		schools.clear();
+		for (School school : schoolRoster) {
+			if (buffer.get() != 0) {
+				schools.add(school);
+				school.hasAsWorld = this; }
+			school.readState(buffer); }
+		for (GameObject object : roster) {
+			object.readState(buffer);
+			if (object instanceof Slime) {
+				int school = buffer.getInt();
+				((Slime) object).restoreSchool((school < 0) ? null : schoolRoster.get(school)); }
+			object.contacts.clear();
+			int nbContacts = buffer.getInt();
+			for (int i = 0; i < nbContacts; i++) {
+				int other = buffer.getInt();
+				if (other >= 0)
+					object.contacts.add(roster.get(other)); } }
+		for (Object object : gameObjects)
+			((GameObject) object).setWorld(null);
+		gameObjects.clear();
+		int nbGameObjects = buffer.getInt();
+		for (int i = 0; i < nbGameObjects; i++) {
+			GameObject object = roster.get(buffer.getInt());
+			gameObjects.add(object);
+			object.setWorld(this); }
+		gameObjectsChanged = true;
+		allGameObjectsSnapshot = null;
+		activeGameObjects = null;
+		grid.readState(buffer, roster);
+	}
+
+	/**
+	 * Give the slimes of this world the ids of the snapshot in the given buffer, registered in their registries
+	 * as they were in the snapshot. If an id is already taken by a slime that is not in this world,
+	 * all slimes keep their ids.
+	 * 
+	 * @throws	IllegalArgumentException
+	 * 			An id of the snapshot is taken by a slime that is not in this world.
+	 */
+	private void restoreSlimeIds(ByteBuffer buffer) throws IllegalArgumentException {
+		List<Slime> slimes = new ArrayList<Slime>();
+		for (GameObject object : roster) 
+			if (object instanceof Slime) 
+				slimes.add((Slime) object);
+		long[] ids = new long[slimes.size()];
+		boolean[] registered = new boolean[slimes.size()];
+		boolean[] wasRegistered = new boolean[slimes.size()];
+		for (int i = 0; i < slimes.size(); i++) {
+			ids[i] = buffer.getLong();
+			registered[i] = buffer.get() != 0; }
+		for (int i = 0; i < slimes.size(); i++) {
+			Slime slime = slimes.get(i);
+			wasRegistered[i] = slime.getSlimeIdRegistry().contains(slime.getId());
+			if (wasRegistered[i])
+				slime.getSlimeIdRegistry().remove(slime.getId()); }
+		for (int i = 0; i < slimes.size(); i++) {
+			if (registered[i] && slimes.get(i).getSlimeIdRegistry().contains(ids[i])) {
+				for (int j = 0; j < i; j++) 
+					if (registered[j])
+						slimes.get(j).getSlimeIdRegistry().remove(ids[j]);
+				for (int j = 0; j < slimes.size(); j++) 
+					if (wasRegistered[j])
+						slimes.get(j).getSlimeIdRegistry().add(slimes.get(j).getId());
+				throw new IllegalArgumentException("ID " + ids[i] + " already exists."); }
+			if (registered[i])
+				slimes.get(i).getSlimeIdRegistry().add(ids[i]); }
+		for (int i = 0; i < slimes.size(); i++) 
+			slimes.get(i).setId(ids[i]);
 	}
 }
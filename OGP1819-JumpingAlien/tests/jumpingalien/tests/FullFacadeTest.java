@@ -2,9 +2,18 @@ package jumpingalien.tests;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.*;
 
 import jumpingalien.facade.Facade;
@@ -1391,6 +1400,26 @@ class FullFacadeTest {
 		actualScore += 15;
 	}
 
+	@Test
+	public void advanceTime_SkullcabContactBeginsAndEnds() {
+		maximumScore += 5;
+		facade.setGeologicalFeature(world_250_400, 100, 995, SOLID_GROUND);
+		facade.addGameObject(mazub_100_1000, world_250_400);
+		Skullcab theSkullcab = facade.createSkullcab(110, 1000, skullcabSprites);
+		facade.addGameObject(theSkullcab, world_250_400);
+		assertFalse(mazub_100_1000.hasAsContact(theSkullcab));
+		// Mazub touches the skullcab and eats from it once.
+		facade.advanceTime(mazub_100_1000, 0.01);
+		assertTrue(mazub_100_1000.hasAsContact(theSkullcab));
+		assertTrue(theSkullcab.hasAsContact(mazub_100_1000));
+		assertEquals(150, facade.getHitPoints(mazub_100_1000));
+		// The contact ends when the skullcab leaves the world.
+		facade.terminateGameObject(theSkullcab);
+		assertFalse(mazub_100_1000.hasAsContact(theSkullcab));
+		assertFalse(theSkullcab.hasAsContact(mazub_100_1000));
+		actualScore += 5;
+	}
+
 	@Test
 	public void advanceTime_EatingSeveralSneezeworts() {
 		maximumScore += 10;
@@ -1844,6 +1873,23 @@ class FullFacadeTest {
 		actualScore += 10;
 	}
 
+	@Test
+	void createSlime_NextFreeId() throws Exception {
+		maximumScore += 6;
+		SlimeIdRegistry slimeIds = world_250_400.getSlimeIdRegistry();
+		Slime slime1 = facade.createSlime(slimeIds.nextFreeId(), 10, 6, null, slimeSprites);
+		Slime slime2 = facade.createSlime(slimeIds.nextFreeId(), 10, 6, null, slimeSprites);
+		assertNotEquals(facade.getIdentification(slime1), facade.getIdentification(slime2));
+		facade.createSlime(1000, 10, 6, null, slimeSprites);
+		assertEquals(1001, slimeIds.nextFreeId());
+		assertThrows(ModelException.class,
+				() -> facade.createSlime(facade.getIdentification(slime2), 5, 10, null, slimeSprites));
+		facade.terminateGameObject(slime2);
+		assertFalse(slimeIds.contains(facade.getIdentification(slime2)));
+		facade.createSlime(facade.getIdentification(slime2), 5, 10, null, slimeSprites);
+		actualScore += 6;
+	}
+
 	@Test
 	void createSlime_IllegalSprites() throws Exception {
 		if (facade.isTeamSolution()) {
@@ -2735,6 +2781,30 @@ class FullFacadeTest {
 		actualScore += 3;
 	}
 
+	@Test
+	void createWorld_LargeWorldWithFewGameObjects() throws Exception {
+		maximumScore += 4;
+		// 200000 by 200000 pixels, covered by millions of cells of the grid of game objects.
+		World largeWorld = facade.createWorld(100, 2000, 2000, new int[] { 1999, 1 }, 1024, 600);
+		Mazub farMazub = facade.createMazub(190000, 195000, mazubSprites);
+		facade.addGameObject(farMazub, largeWorld);
+		assertThrows(ModelException.class,
+				() -> facade.addGameObject(facade.createSlime(10, 190002, 195002, null, slimeSprites),
+						largeWorld));
+		Slime farSlime = facade.createSlime(11, 150000, 195000, null, slimeSprites);
+		facade.addGameObject(farSlime, largeWorld);
+		assertEquals(2, facade.getAllGameObjects(largeWorld).size());
+		actualScore += 4;
+	}
+
+	@Test
+	void createWorld_TooManyGridCells() throws Exception {
+		maximumScore += 2;
+		assertThrows(ModelException.class,
+				() -> facade.createWorld(100000, 20000, 20000, new int[] { 19999, 1 }, 1024, 600));
+		actualScore += 2;
+	}
+
 	@Test
 	void createWorld_IllegalGeologicalFeatures() throws Exception {
 		maximumScore += 4;
@@ -2802,6 +2872,63 @@ class FullFacadeTest {
 		actualScore += 2;
 	}
 
+	@Test
+	void setGeologicalFeatureAt_LargeWorld() throws Exception {
+		maximumScore += 4;
+		World largeWorld = facade.createWorld(10, 5000, 2000, new int[] { 4999, 1 }, 1024, 600);
+		assertEquals(AIR, facade.getGeologicalFeature(largeWorld, 32345, 12345));
+		facade.setGeologicalFeature(largeWorld, 32345, 12345, ICE);
+		facade.setGeologicalFeature(largeWorld, 32355, 12345, WATER);
+		assertEquals(ICE, facade.getGeologicalFeature(largeWorld, 32349, 12340));
+		assertEquals(WATER, facade.getGeologicalFeature(largeWorld, 32350, 12349));
+		assertEquals(AIR, facade.getGeologicalFeature(largeWorld, 32345, 12355));
+		facade.setGeologicalFeature(largeWorld, 32345, 12345, AIR);
+		assertEquals(AIR, facade.getGeologicalFeature(largeWorld, 32345, 12345));
+		assertEquals(WATER, facade.getGeologicalFeature(largeWorld, 32355, 12345));
+		facade.setGeologicalFeature(largeWorld, 32355, 12345, AIR);
+		assertEquals(AIR, facade.getGeologicalFeature(largeWorld, 32355, 12345));
+		actualScore += 4;
+	}
+
+	@Test
+	void setGeologicalFeatureAt_MappedTerrain() throws Exception {
+		maximumScore += 4;
+		File file = File.createTempFile("terrain", ".bin");
+		file.deleteOnExit();
+		World mappedWorld = new World(10, new MappedTerrain(file, 500, 200), new int[] { 499, 1 }, 1024, 600);
+		assertEquals(AIR, facade.getGeologicalFeature(mappedWorld, 3456, 1234));
+		facade.setGeologicalFeature(mappedWorld, 3456, 1234, SOLID_GROUND);
+		facade.setGeologicalFeature(mappedWorld, 3456, 1244, WATER);
+		assertEquals(SOLID_GROUND, facade.getGeologicalFeature(mappedWorld, 3450, 1230));
+		assertFalse(mappedWorld.validTiles(3400, 1200, 70, 50));
+		// The changes are written through to the file.
+		World reopenedWorld = new World(10, new MappedTerrain(file, 500, 200), new int[] { 499, 1 }, 1024, 600);
+		assertEquals(SOLID_GROUND, facade.getGeologicalFeature(reopenedWorld, 3456, 1234));
+		assertEquals(WATER, facade.getGeologicalFeature(reopenedWorld, 3456, 1244));
+		assertEquals(AIR, facade.getGeologicalFeature(reopenedWorld, 3466, 1234));
+		actualScore += 4;
+	}
+
+	@Test
+	void setGeologicalFeatureAt_TerrainListener() throws Exception {
+		maximumScore += 4;
+		int tileSize = facade.getTileLength(world_100_200);
+		List<int[]> changes = new ArrayList<>();
+		TerrainListener listener = (world, minTileX, minTileY, maxTileX, maxTileY) ->
+				changes.add(new int[] { minTileX, minTileY, maxTileX, maxTileY });
+		world_100_200.addTerrainListener(listener);
+		facade.setGeologicalFeature(world_100_200, 3 * tileSize + 1, 7 * tileSize, WATER);
+		assertEquals(1, changes.size());
+		assertArrayEquals(new int[] { 3, 7, 3, 7 }, changes.get(0));
+		// Nothing changes when a tile gets the geological feature it already has.
+		facade.setGeologicalFeature(world_100_200, 3 * tileSize, 7 * tileSize, WATER);
+		assertEquals(1, changes.size());
+		world_100_200.removeTerrainListener(listener);
+		facade.setGeologicalFeature(world_100_200, 3 * tileSize, 7 * tileSize, AIR);
+		assertEquals(1, changes.size());
+		actualScore += 4;
+	}
+
 	@Test
 	void setGeologicalFeatureAt_IllegalCases() throws Exception {
 		maximumScore += 2;
@@ -3061,6 +3188,19 @@ class FullFacadeTest {
 		actualScore += 12;
 	}
 
+	@Test
+	void addGameObject_RaisedMaximumNbObjects() throws Exception {
+		maximumScore += 6;
+		World bigWorld = facade.createWorld(5, 200, 200, new int[] { 10, 20 }, 50, 40);
+		bigWorld.setMaxNbGameObjects(150);
+		for (int i = 0; i < 150; i++)
+			facade.addGameObject(facade.createSneezewort((i % 10) * 60, (i / 10) * 50, sneezewortSprites), bigWorld);
+		assertEquals(150, facade.getAllGameObjects(bigWorld).size());
+		assertThrows(ModelException.class, () -> facade
+				.addGameObject(facade.createSkullcab(100, 200, skullcabSprites), bigWorld));
+		actualScore += 6;
+	}
+
 	@Test
 	void addGameObject_SeveralMazubs() throws Exception {
 		maximumScore += 4;
@@ -3469,6 +3609,269 @@ class FullFacadeTest {
 		actualScore += 40;
 	}
 
+	@Test
+	void advanceWorldTime_NoDamageFromNearbySharkNotTouched() {
+		maximumScore += 8;
+		// Mazub walks on top of a slime, with a shark 50 pixels away in the neighbouring grid cell.
+		World sharkWorld = facade.createWorld(5, 250, 400, new int[] { 249, 399 }, 250, 400);
+		World plainWorld = facade.createWorld(5, 250, 400, new int[] { 249, 399 }, 250, 400);
+		Mazub[] mazubs = new Mazub[2];
+		World[] worlds = { sharkWorld, plainWorld };
+		for (int w = 0; w < worlds.length; w++) {
+			for (int x = 0; x < 250; x++)
+				facade.setGeologicalFeature(worlds[w], x * 5, 495, SOLID_GROUND);
+			Slime slime = facade.createSlime(10 + w, 50, 500, null, slimeSprites);
+			facade.addGameObject(slime, worlds[w]);
+			mazubs[w] = facade.createMazub(50, 560, mazubSprites);
+			facade.addGameObject(mazubs[w], worlds[w]);
+			facade.startMoveRight(mazubs[w]);
+		}
+		facade.addGameObject(facade.createShark(200, 500, sharkSprites), sharkWorld);
+		for (int i = 0; i < 5; i++) {
+			facade.advanceWorldTime(sharkWorld, 0.02);
+			facade.advanceWorldTime(plainWorld, 0.02);
+		}
+		assertEquals(facade.getHitPoints(mazubs[1]), facade.getHitPoints(mazubs[0]));
+		assertArrayEquals(facade.getActualPosition(mazubs[1]), facade.getActualPosition(mazubs[0]));
+		actualScore += 8;
+	}
+
+	@Test
+	void onTopOfOtherGameObject_PlantListedFirst() throws Exception {
+		maximumScore += 4;
+		Sneezewort sneezewort = facade.createSneezewort(100, 100, sneezewortSprites);
+		Slime slime = facade.createSlime(30, 300, 200, null, slimeSprites);
+		int top = slime.getPixelY() + slime.getCurrentSprite().getHeight() - 1;
+		assertTrue(world_250_400.onTopOfOtherGameObject(310, top, 10, Arrays.asList(sneezewort, slime)));
+		assertFalse(world_250_400.onTopOfOtherGameObject(310, top + 5, 10, Arrays.asList(sneezewort, slime)));
+		actualScore += 4;
+	}
+
+	private World createCrowdedWorld(IFacade facade, int firstSlimeId,
+			List<GameObject> gameObjects) {
+		World world = facade.createWorld(10, 400, 60, new int[] { 399, 1 }, 200, 100);
+		for (int x = 0; x < 400; x++)
+			facade.setGeologicalFeature(world, x * 10, 0, SOLID_GROUND);
+		for (int x = 200; x < 400; x++)
+			for (int y = 1; y < 30; y++)
+				facade.setGeologicalFeature(world, x * 10, y * 10, WATER);
+		Mazub mazub = facade.createMazub(50, 9, mazubSprites);
+		facade.addGameObject(mazub, world);
+		facade.startMoveRight(mazub);
+		gameObjects.add(mazub);
+		School[] schools = new School[5];
+		for (int i = 0; i < schools.length; i++)
+			schools[i] = facade.createSchool(world);
+		for (int i = 0; i < 25; i++) {
+			Slime slime = facade.createSlime(firstSlimeId + i, 200 + i * 70, 9, schools[i % 5],
+					slimeSprites);
+			facade.addGameObject(slime, world);
+			gameObjects.add(slime);
+		}
+		for (int i = 0; i < 20; i++) {
+			Shark shark = facade.createShark(2050 + i * 90, 50 + (i % 3) * 60, sharkSprites);
+			facade.addGameObject(shark, world);
+			gameObjects.add(shark);
+		}
+		for (int i = 0; i < 10; i++) {
+			Sneezewort sneezewort = facade.createSneezewort(120 + i * 170, 200, sneezewortSprites);
+			facade.addGameObject(sneezewort, world);
+			gameObjects.add(sneezewort);
+		}
+		facade.startGame(world);
+		return world;
+	}
+
+	/**
+	 * Create two crowded worlds, let the given set-up change how the second one is advanced,
+	 * advance both the given number of times by 0.05 s, and check that their game objects
+	 * end up in the same state. Return the game objects of the second world.
+	 */
+	private List<GameObject> advanceCrowdedWorldsAndCompare(int nbSteps, Consumer<World> setUp) {
+		List<GameObject> plainObjects = new ArrayList<GameObject>();
+		World plainWorld = createCrowdedWorld(facade, 1000, plainObjects);
+		List<GameObject> otherObjects = new ArrayList<GameObject>();
+		World otherWorld = createCrowdedWorld(facade, 2000, otherObjects);
+		setUp.accept(otherWorld);
+		for (int i = 0; i < nbSteps; i++) {
+			facade.advanceWorldTime(plainWorld, 0.05);
+			facade.advanceWorldTime(otherWorld, 0.05);
+		}
+		assertSameGameObjects(plainObjects, otherObjects);
+		return otherObjects;
+	}
+
+	/**
+	 * Check that each game object of the second list is in the same state as the game object
+	 * at the same index in the first list.
+	 */
+	private void assertSameGameObjects(List<GameObject> expectedObjects, List<GameObject> actualObjects) {
+		for (int i = 0; i < expectedObjects.size(); i++) {
+			GameObject expected = expectedObjects.get(i);
+			GameObject actual = actualObjects.get(i);
+			assertEquals(facade.isTerminatedGameObject(expected),
+					facade.isTerminatedGameObject(actual));
+			assertArrayEquals(facade.getActualPosition(expected), facade.getActualPosition(actual));
+			assertEquals(facade.getHitPoints(expected), facade.getHitPoints(actual));
+		}
+	}
+
+	@Test
+	void advanceWorldTime_WideActivityRegionSameAsNone() throws Exception {
+		maximumScore += 5;
+		List<GameObject> regionObjects = advanceCrowdedWorldsAndCompare(40,
+				world -> world.setActivityMargin(10000));
+		for (GameObject object : regionObjects)
+			assertFalse(object.isDormant());
+		actualScore += 5;
+	}
+
+	@Test
+	void advanceWorldTime_DormantOutsideActivityRegion() throws Exception {
+		maximumScore += 10;
+		List<GameObject> plainObjects = new ArrayList<GameObject>();
+		World plainWorld = createCrowdedWorld(facade, 1000, plainObjects);
+		List<GameObject> regionObjects = new ArrayList<GameObject>();
+		World regionWorld = createCrowdedWorld(facade, 2000, regionObjects);
+		regionWorld.setActivityMargin(0);
+		GameObject farShark = regionObjects.get(45);
+		GameObject highSneezewort = regionObjects.get(46);
+		double[] farSharkPosition = facade.getActualPosition(farShark);
+		for (int i = 0; i < 20; i++) {
+			facade.advanceWorldTime(plainWorld, 0.05);
+			facade.advanceWorldTime(regionWorld, 0.05);
+		}
+		// Game objects outside the visible window sleep; Mazub never does.
+		assertFalse(regionObjects.get(0).isDormant());
+		assertTrue(farShark.isDormant());
+		assertTrue(highSneezewort.isDormant());
+		assertArrayEquals(farSharkPosition, facade.getActualPosition(farShark));
+		// When they wake up, plants catch up with their oscillation.
+		regionWorld.setActivityMargin(-1);
+		facade.advanceWorldTime(plainWorld, 0.05);
+		facade.advanceWorldTime(regionWorld, 0.05);
+		assertFalse(farShark.isDormant());
+		assertFalse(highSneezewort.isDormant());
+		assertArrayEquals(facade.getActualPosition(plainObjects.get(46)),
+				facade.getActualPosition(highSneezewort), 1E-6);
+		actualScore += 10;
+	}
+
+	@Test
+	void advanceWorldTime_ParallelSameAsSequential() throws Exception {
+		maximumScore += 10;
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			advanceCrowdedWorldsAndCompare(60, world -> world.setAdvancePool(pool));
+		} finally {
+			pool.shutdown();
+		}
+		actualScore += 10;
+	}
+
+	private World createGroundedSharksWorld(List<GameObject> gameObjects) {
+		World world = facade.createWorld(10, 800, 60, new int[] { 799, 1 }, 200, 100);
+		// Steps of solid ground of different heights, with a shark standing on each of them,
+		// far enough apart to be advanced concurrently.
+		for (int step = 0; step < 20; step++) {
+			int height = 1 + step % 3;
+			for (int x = step * 40; x < step * 40 + 40; x++)
+				for (int y = 0; y < height; y++)
+					facade.setGeologicalFeature(world, x * 10, y * 10, SOLID_GROUND);
+			Shark shark = facade.createShark(step * 400 + 160, height * 10 - 1, sharkSprites);
+			facade.addGameObject(shark, world);
+			gameObjects.add(shark);
+		}
+		Mazub mazub = facade.createMazub(7945, 19, mazubSprites);
+		facade.addGameObject(mazub, world);
+		gameObjects.add(mazub);
+		facade.startGame(world);
+		return world;
+	}
+
+	@Test
+	void advanceWorldTime_ParallelSameAsSequentialWithGroundedSharks() throws Exception {
+		maximumScore += 10;
+		List<GameObject> sequentialObjects = new ArrayList<GameObject>();
+		World sequentialWorld = createGroundedSharksWorld(sequentialObjects);
+		List<GameObject> parallelObjects = new ArrayList<GameObject>();
+		World parallelWorld = createGroundedSharksWorld(parallelObjects);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			parallelWorld.setAdvancePool(pool);
+			for (int i = 0; i < 60; i++) {
+				facade.advanceWorldTime(sequentialWorld, 0.05);
+				facade.advanceWorldTime(parallelWorld, 0.05);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertSameGameObjects(sequentialObjects, parallelObjects);
+		actualScore += 10;
+	}
+
+	@Test
+	void advanceWorldTime_ManyWorldsInParallelThreads() throws Exception {
+		maximumScore += 10;
+		List<GameObject> referenceObjects = new ArrayList<GameObject>();
+		World referenceWorld = createCrowdedWorld(new Facade(), 1000, referenceObjects);
+		for (int i = 0; i < 40; i++)
+			facade.advanceWorldTime(referenceWorld, 0.05);
+
+		int nbWorlds = 8;
+		List<List<GameObject>> allObjects = new ArrayList<>();
+		List<World> worlds = new ArrayList<World>();
+		for (int w = 0; w < nbWorlds; w++) {
+			List<GameObject> objects = new ArrayList<GameObject>();
+			// Each simulation has its own facade, so all of them can use the same slime ids.
+			worlds.add(createCrowdedWorld(new Facade(), 1000, objects));
+			allObjects.add(objects);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (World world : worlds)
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < 40; i++)
+						facade.advanceWorldTime(world, 0.05);
+				}));
+			for (Future<?> future : futures)
+				future.get();
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int w = 0; w < nbWorlds; w++) {
+			World world = worlds.get(w);
+			List<GameObject> objects = allObjects.get(w);
+			assertSameGameObjects(referenceObjects, objects);
+			for (GameObject object : objects)
+				if (!facade.isTerminatedGameObject(object))
+					assertEquals(world, facade.getWorld(object));
+			assertEquals(facade.getAllGameObjects(referenceWorld).size(),
+					facade.getAllGameObjects(world).size());
+		}
+		// The slime ids of those simulations are not known to this facade.
+		facade.createSlime(1000, 0, 0, null, slimeSprites);
+		actualScore += 10;
+	}
+
+	@Test
+	void advanceWorldTime_ProfiledSameAsUnprofiled() throws Exception {
+		maximumScore += 5;
+		TickProfiler profiler = new TickProfiler();
+		List<GameObject> profiledObjects = advanceCrowdedWorldsAndCompare(20,
+				world -> world.setTickProfiler(profiler));
+		TickProfiler.Sample sample = profiler.takeSample();
+		assertEquals(20, sample.getNbTicks());
+		assertTrue(sample.getCount(TickProfiler.COUNT_SUBSTEPS) >= 20);
+		assertTrue(sample.getCount(TickProfiler.COUNT_TERRAIN_PROBES) > 0);
+		assertEquals(20 * profiledObjects.size(), sample.getCount(TickProfiler.COUNT_OBJECTS_ADVANCED));
+		assertTrue(sample.getNanos(TickProfiler.PHASE_OTHER_OBJECTS) > 0);
+		assertEquals(0, profiler.takeSample().getNbTicks());
+		actualScore += 5;
+	}
+
 	/***********
 	 * SCHOOL  *
 	 ***********/
@@ -3498,6 +3901,17 @@ class FullFacadeTest {
 		actualScore += 8;
 	}
 
+	@Test
+	void createSchool_RaisedMaximumNbSchools() throws ModelException {
+		maximumScore += 4;
+		world_250_400.setMaxNbSchools(11);
+		for (int i = 0; i < 11; i++)
+			facade.createSchool(world_250_400);
+		assertEquals(11, facade.getAllSchools(world_250_400).size());
+		assertThrows(ModelException.class, () -> facade.createSchool(world_250_400));
+		actualScore += 4;
+	}
+
 	@Test
 	void addAsSlime_LegalCase() throws ModelException {
 		maximumScore += 6;
@@ -3626,6 +4040,27 @@ class FullFacadeTest {
 		actualScore += 12;
 	}
 
+	@Test
+	void reduceHitPointsSchool_JoiningAndLeavingSlimes() throws ModelException {
+		maximumScore += 6;
+		School someSchool = facade.createSchool(world_250_400);
+		Slime slime1 = facade.createSlime(10, 20, 30, someSchool, slimeSprites);
+		Slime slime2 = facade.createSlime(20, 120, 30, someSchool, slimeSprites);
+		Slime lateSlime = facade.createSlime(30, 20, 120, null, slimeSprites);
+		slime1.reduceHitPointsSchool();
+		slime1.reduceHitPointsSchool();
+		facade.addAsSlime(someSchool, lateSlime);
+		slime1.reduceHitPointsSchool();
+		facade.removeAsSlime(someSchool, lateSlime);
+		slime2.reduceHitPointsSchool();
+		assertEquals(100 - 1, facade.getHitPoints(slime1));
+		assertEquals(100 - 3, facade.getHitPoints(slime2));
+		assertEquals(100 - 1, facade.getHitPoints(lateSlime));
+		assertEquals(2, someSchool.getNbSlimes());
+		assertThrows(UnsupportedOperationException.class, () -> someSchool.getSlimes().add(lateSlime));
+		actualScore += 6;
+	}
+
 	@Test
 	void switchSchool_IllegalCases() throws ModelException {
 		maximumScore += 8;
@@ -3651,4 +4086,117 @@ class FullFacadeTest {
 		actualScore += 8;
 	}
 
+	@Test
+	void restoreSnapshot_LegalCase() throws Exception {
+		maximumScore += 10;
+		facade.setGeologicalFeature(world_250_400, 10, 995, SOLID_GROUND);
+		Mazub theMazub = facade.createMazub(0, 1000, mazubSprites);
+		facade.addGameObject(theMazub, world_250_400);
+		School someSchool = facade.createSchool(world_250_400);
+		Slime slime1 = facade.createSlime(10, 600, 1000, someSchool, slimeSprites);
+		Slime slime2 = facade.createSlime(20, 800, 1000, someSchool, slimeSprites);
+		facade.addGameObject(slime1, world_250_400);
+		facade.addGameObject(slime2, world_250_400);
+		facade.startMoveRight(theMazub);
+		facade.advanceWorldTime(world_250_400, 0.15);
+		ByteBuffer snapshot = world_250_400.createSnapshot();
+		double[] mazubPosition = facade.getActualPosition(theMazub);
+		double[] slimePosition = facade.getActualPosition(slime1);
+		// Change the world and restore it to the snapshot.
+		facade.advanceWorldTime(world_250_400, 0.15);
+		slime1.reduceHitPointsSchool();
+		facade.terminateGameObject(slime2);
+		facade.setGeologicalFeature(world_250_400, 10, 995, WATER);
+		world_250_400.restoreSnapshot(snapshot.duplicate());
+		assertArrayEquals(mazubPosition, facade.getActualPosition(theMazub), HIGH_PRECISION);
+		assertArrayEquals(slimePosition, facade.getActualPosition(slime1), HIGH_PRECISION);
+		assertEquals(100, facade.getHitPoints(slime2));
+		assertFalse(facade.isTerminatedGameObject(slime2));
+		assertEquals(world_250_400, facade.getWorld(slime2));
+		assertEquals(someSchool, facade.getSchool(slime2));
+		assertEquals(SOLID_GROUND, facade.getGeologicalFeature(world_250_400, 10, 995));
+		// A snapshot cannot be restored in a world with other game objects.
+		assertThrows(IllegalArgumentException.class, () -> world_100_200.restoreSnapshot(snapshot.duplicate()));
+		actualScore += 10;
+	}
+
+	@Test
+	void restoreSnapshot_AllKindsOfGameObjects() throws Exception {
+		maximumScore += 6;
+		facade.setGeologicalFeature(world_250_400, 10, 995, SOLID_GROUND);
+		Mazub theMazub = facade.createMazub(0, 1000, mazubSprites);
+		facade.addGameObject(theMazub, world_250_400);
+		GameObject[] others = { facade.createSlime(10, 600, 1000, null, slimeSprites),
+				facade.createShark(900, 1500, sharkSprites),
+				facade.createSneezewort(300, 1800, sneezewortSprites),
+				facade.createSkullcab(1000, 1800, skullcabSprites) };
+		for (GameObject other : others)
+			facade.addGameObject(other, world_250_400);
+		facade.startMoveRight(theMazub);
+		facade.advanceWorldTime(world_250_400, 0.1);
+		ByteBuffer snapshot = world_250_400.createSnapshot();
+		double[][] positions = new double[others.length][];
+		for (int i = 0; i < others.length; i++)
+			positions[i] = facade.getActualPosition(others[i]);
+		facade.advanceWorldTime(world_250_400, 0.1);
+		world_250_400.restoreSnapshot(snapshot);
+		for (int i = 0; i < others.length; i++)
+			assertArrayEquals(positions[i], facade.getActualPosition(others[i]), HIGH_PRECISION);
+		actualScore += 6;
+	}
+
+	@Test
+	void restoreSnapshot_TruncatedSnapshot() throws Exception {
+		maximumScore += 10;
+		facade.setGeologicalFeature(world_250_400, 10, 995, SOLID_GROUND);
+		Mazub theMazub = facade.createMazub(0, 1000, mazubSprites);
+		facade.addGameObject(theMazub, world_250_400);
+		Slime theSlime = facade.createSlime(10, 600, 1000, facade.createSchool(world_250_400), slimeSprites);
+		facade.addGameObject(theSlime, world_250_400);
+		ByteBuffer snapshot = world_250_400.createSnapshot();
+		// Change the world, and try to restore it to a snapshot that lacks its last bytes.
+		facade.startMoveRight(theMazub);
+		facade.advanceWorldTime(world_250_400, 0.15);
+		facade.setGeologicalFeature(world_250_400, 10, 995, WATER);
+		double[] mazubPosition = facade.getActualPosition(theMazub);
+		double[] slimePosition = facade.getActualPosition(theSlime);
+		ByteBuffer truncated = snapshot.duplicate();
+		truncated.limit(truncated.limit() - 4);
+		assertThrows(IllegalArgumentException.class, () -> world_250_400.restoreSnapshot(truncated));
+		assertEquals(0, truncated.position());
+		assertArrayEquals(mazubPosition, facade.getActualPosition(theMazub), HIGH_PRECISION);
+		assertArrayEquals(slimePosition, facade.getActualPosition(theSlime), HIGH_PRECISION);
+		assertEquals(WATER, facade.getGeologicalFeature(world_250_400, 10, 995));
+		// The game objects can still be found near each other.
+		assertTrue(world_250_400.getGameObjectsNear(theMazub, 0, 0, 2500, 4000).contains(theSlime));
+		actualScore += 10;
+	}
+
+	@Test
+	void restoreSnapshot_DamagedSnapshot() throws Exception {
+		maximumScore += 6;
+		World emptyWorld = facade.createWorld(10, 20, 20, new int[] { 0, 0 }, 100, 100);
+		facade.setGeologicalFeature(emptyWorld, 55, 55, WATER);
+		ByteBuffer snapshot = emptyWorld.createSnapshot();
+		facade.setGeologicalFeature(emptyWorld, 55, 55, MAGMA);
+		// In a snapshot of a world without game objects or schools, the maximum numbers of game objects
+		// and schools start at byte 24, and the geological feature of the first run of tiles at byte 57.
+		ByteBuffer badFeature = ByteBuffer.allocate(snapshot.remaining());
+		badFeature.put(snapshot.duplicate());
+		badFeature.flip();
+		badFeature.put(57, (byte) 30);
+		assertThrows(IllegalArgumentException.class, () -> emptyWorld.restoreSnapshot(badFeature));
+		ByteBuffer badMaximum = ByteBuffer.allocate(snapshot.remaining());
+		badMaximum.put(snapshot.duplicate());
+		badMaximum.flip();
+		badMaximum.putInt(24, -1);
+		assertThrows(IllegalArgumentException.class, () -> emptyWorld.restoreSnapshot(badMaximum));
+		assertEquals(MAGMA, facade.getGeologicalFeature(emptyWorld, 55, 55));
+		assertEquals(AIR, facade.getGeologicalFeature(emptyWorld, 0, 0));
+		// The undamaged snapshot can still be restored.
+		emptyWorld.restoreSnapshot(snapshot.duplicate());
+		assertEquals(WATER, facade.getGeologicalFeature(emptyWorld, 55, 55));
+		actualScore += 6;
+	}
+
 }